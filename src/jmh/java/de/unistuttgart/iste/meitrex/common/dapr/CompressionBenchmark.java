@@ -0,0 +1,139 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.AssessmentContentMutatedEvent;
+import de.unistuttgart.iste.meitrex.common.event.AssessmentType;
+import de.unistuttgart.iste.meitrex.common.event.StudentCodeSubmittedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+
+/**
+ * Compares the uncompressed publish path with the {@link PayloadCompressor} for large events.
+ * <p>
+ * Besides the throughput, the number of bytes handed to the broker per event is reported as {@code bytesPerEvent},
+ * which determines the throughput of the broker.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"StudentCodeSubmittedEvent", "AssessmentContentMutatedEvent"})
+    private String eventType;
+
+    @Param({"JSON", "CBOR"})
+    private EventEncoding encoding;
+
+    private final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+    private final PayloadCompressor fastCompressor = new PayloadCompressor(0, Deflater.BEST_SPEED);
+    private final PayloadCompressor defaultCompressor = new PayloadCompressor(0, Deflater.DEFAULT_COMPRESSION);
+
+    private Object event;
+
+    @Setup
+    public void setUp() {
+        event = switch (eventType) {
+            case "StudentCodeSubmittedEvent" -> studentCodeSubmittedEvent();
+            case "AssessmentContentMutatedEvent" -> assessmentContentMutatedEvent();
+            default -> throw new IllegalArgumentException(eventType);
+        };
+    }
+
+    /**
+     * Counts the bytes of the published payloads.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long bytesPerEvent;
+
+        private long events;
+        private long bytes;
+
+        private void record(final OutgoingEvent event) {
+            events++;
+            bytes += event.getPayload().length;
+            bytesPerEvent = bytes / events;
+        }
+    }
+
+    @Benchmark
+    public OutgoingEvent uncompressed(final PayloadSize payloadSize) throws IOException {
+        final OutgoingEvent outgoingEvent = serialize();
+        payloadSize.record(outgoingEvent);
+        return outgoingEvent;
+    }
+
+    @Benchmark
+    public OutgoingEvent gzipBestSpeed(final PayloadSize payloadSize) throws IOException {
+        final OutgoingEvent outgoingEvent = fastCompressor.compress(serialize());
+        payloadSize.record(outgoingEvent);
+        return outgoingEvent;
+    }
+
+    @Benchmark
+    public OutgoingEvent gzipDefaultLevel(final PayloadSize payloadSize) throws IOException {
+        final OutgoingEvent outgoingEvent = defaultCompressor.compress(serialize());
+        payloadSize.record(outgoingEvent);
+        return outgoingEvent;
+    }
+
+    private OutgoingEvent serialize() throws IOException {
+        return OutgoingEvent.builder()
+                .topic(DaprTopic.STUDENT_CODE_SUBMITTED)
+                .payload(serializer.serialize(event, encoding))
+                .contentType(encoding.getPublishedContentType())
+                .metadata(PublishMetadata.create(encoding))
+                .build();
+    }
+
+    private static StudentCodeSubmittedEvent studentCodeSubmittedEvent() {
+        final Map<String, String> files = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            files.put("src/main/java/de/example/Class" + i + ".java", """
+                    package de.example;
+
+                    public class Class%d {
+                        public int compute(final int value) {
+                            return value * %d;
+                        }
+                    }
+                    """.formatted(i, i).repeat(20));
+        }
+        return StudentCodeSubmittedEvent.builder()
+                .studentId(UUID.randomUUID())
+                .assignmentId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .repositoryUrl("https://github.com/meitrex/assignment")
+                .commitSha("3f786850e387550fdab836ed7e6dc881de23001b")
+                .commitTimestamp(OffsetDateTime.now())
+                .files(files)
+                .branch("main")
+                .build();
+    }
+
+    private static AssessmentContentMutatedEvent assessmentContentMutatedEvent() {
+        return AssessmentContentMutatedEvent.builder()
+                .courseId(UUID.randomUUID())
+                .assessmentId(UUID.randomUUID())
+                .assessmentType(AssessmentType.QUIZ)
+                .taskInformationList(IntStream.range(0, 200)
+                        .mapToObj(i -> new AssessmentContentMutatedEvent.TaskInformation(UUID.randomUUID(),
+                                "Question " + i + ": Which of the following statements about sorting algorithms are "
+                                + "correct? Quicksort has a worst case runtime of O(n^2). Mergesort is stable."))
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.unistuttgart.iste.meitrex.common.event.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the {@link CustomDaprObjectSerializer} with a plain {@link ObjectMapper}
+ * for the events of the {@code event} package.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final Map<String, Supplier<Object>> EVENTS = Map.ofEntries(
+            Map.entry("ContentProgressedEvent", EventSerializationBenchmark::contentProgressedEvent),
+            Map.entry("UserProgressUpdatedEvent", EventSerializationBenchmark::userProgressUpdatedEvent),
+            Map.entry("MediaRecordWorkedOnEvent", () -> MediaRecordWorkedOnEvent.builder()
+                    .userId(UUID.randomUUID())
+                    .mediaRecordId(UUID.randomUUID())
+                    .wasAlreadyWorkedOn(false)
+                    .build()),
+            Map.entry("ContentChangeEvent", () -> ContentChangeEvent.builder()
+                    .contentIds(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()))
+                    .operation(CrudOperation.UPDATE)
+                    .build()),
+            Map.entry("NotificationEvent", () -> NotificationEvent.builder()
+                    .courseId(UUID.randomUUID())
+                    .userIds(List.of(UUID.randomUUID(), UUID.randomUUID()))
+                    .serverSource(ServerSource.COURSE)
+                    .title("New chapter available")
+                    .link("/courses")
+                    .message("A new chapter was published in your course.")
+                    .timestamp(OffsetDateTime.now())
+                    .build()),
+            Map.entry("AssessmentContentMutatedEvent", () -> AssessmentContentMutatedEvent.builder()
+                    .courseId(UUID.randomUUID())
+                    .assessmentId(UUID.randomUUID())
+                    .assessmentType(AssessmentType.QUIZ)
+                    .taskInformationList(List.of(
+                            new AssessmentContentMutatedEvent.TaskInformation(UUID.randomUUID(), "What is 1 + 1?"),
+                            new AssessmentContentMutatedEvent.TaskInformation(UUID.randomUUID(), "What is 2 + 2?")))
+                    .build()),
+            Map.entry("UserHexadPlayerTypeSetEvent", () -> UserHexadPlayerTypeSetEvent.builder()
+                    .userId(UUID.randomUUID())
+                    .primaryPlayerType(HexadPlayerType.ACHIEVER)
+                    .playerTypePercentages(Map.of(HexadPlayerType.ACHIEVER, 0.6, HexadPlayerType.PLAYER, 0.4))
+                    .build()),
+            Map.entry("StudentCodeSubmittedEvent", () -> StudentCodeSubmittedEvent.builder()
+                    .studentId(UUID.randomUUID())
+                    .assignmentId(UUID.randomUUID())
+                    .courseId(UUID.randomUUID())
+                    .repositoryUrl("https://github.com/meitrex/assignment")
+                    .commitSha("3f786850e387550fdab836ed7e6dc881de23001b")
+                    .commitTimestamp(OffsetDateTime.now())
+                    .files(Map.of("src/Main.java", "public class Main {\n    public static void main(String[] args) {}\n}\n"))
+                    .branch("main")
+                    .build()));
+
+    @Param({"ContentProgressedEvent", "UserProgressUpdatedEvent", "MediaRecordWorkedOnEvent", "ContentChangeEvent",
+            "NotificationEvent", "AssessmentContentMutatedEvent", "UserHexadPlayerTypeSetEvent",
+            "StudentCodeSubmittedEvent"})
+    private String eventType;
+
+    private final ObjectMapper plainMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+
+    private Object event;
+
+    @Setup
+    public void setUp() {
+        event = EVENTS.get(eventType).get();
+    }
+
+    @Benchmark
+    public byte[] plainObjectMapper() throws IOException {
+        return plainMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] customDaprObjectSerializer() throws IOException {
+        return serializer.serialize(event);
+    }
+
+    private static ContentProgressedEvent contentProgressedEvent() {
+        return ContentProgressedEvent.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .success(true)
+                .correctness(0.75)
+                .hintsUsed(1)
+                .timeToComplete(120)
+                .responses(List.of(new Response(UUID.randomUUID(), 1.0f), new Response(UUID.randomUUID(), 0.5f)))
+                .mediaType(MediaType.VIDEO)
+                .contentType(ContentProgressedEvent.ContentType.QUIZ)
+                .build();
+    }
+
+    private static UserProgressUpdatedEvent userProgressUpdatedEvent() {
+        return UserProgressUpdatedEvent.builder()
+                .sequenceNo(1L)
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .chapterId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .attempt(1)
+                .success(true)
+                .correctness(0.75)
+                .hintsUsed(1)
+                .timeToComplete(120)
+                .responses(List.of(ItemResponse.builder()
+                        .itemId(UUID.randomUUID())
+                        .response(1.0f)
+                        .skillIds(List.of(UUID.randomUUID()))
+                        .levelsOfBloomsTaxonomy(List.of())
+                        .build()))
+                .mediaType(MediaType.VIDEO)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the {@link TopicPublisher} end to end against a {@link StubDaprSidecar}, for each {@link PublishMode}
+ * that does not need a database and for different sidecar latencies.
+ * <p>
+ * Every thread publishes a mixed stream of events of all topics, see {@link SyntheticEvents}, and waits until
+ * each event has been accepted. {@link #throughput} reports events/sec, {@link #latency} reports the
+ * p50/p99 latency per event. The allocation rate ({@code gc.alloc.rate.norm}, bytes per event) is reported by the
+ * GC profiler configured in {@code build.gradle}.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=TopicPublisherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class TopicPublisherBenchmark {
+
+    private static final AtomicLong seeds = new AtomicLong();
+
+    @Param({"DIRECT", "BATCHED"})
+    private PublishMode mode;
+
+    @Param({"0", "2"})
+    private long sidecarLatencyMillis;
+
+    private StubDaprSidecar sidecar;
+    private TopicPublisher publisher;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        sidecar = new StubDaprSidecar();
+        sidecar.setLatency(Duration.ofMillis(sidecarLatencyMillis));
+        final EventDispatcher dispatcher = switch (mode) {
+            case DIRECT -> new DirectEventDispatcher(sidecar.createClient());
+            case BATCHED -> new BatchingEventDispatcher(sidecar.createPreviewClient(), 100, Duration.ofMillis(5));
+            case OUTBOX -> throw new IllegalArgumentException("The outbox needs a database");
+        };
+        publisher = new TopicPublisher(dispatcher, new CustomDaprObjectSerializer());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        publisher.close();
+        sidecar.close();
+    }
+
+    /**
+     * Event stream of a benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class EventStream {
+
+        private final SyntheticEvents events = new SyntheticEvents(seeds.incrementAndGet(), 1000);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void throughput(final EventStream stream) {
+        publish(stream);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency(final EventStream stream) {
+        publish(stream);
+    }
+
+    private void publish(final EventStream stream) {
+        final SyntheticEvents.SyntheticEvent event = stream.events.next();
+        publisher.publishEventAsync(event.event(), event.topic()).join();
+    }
+}
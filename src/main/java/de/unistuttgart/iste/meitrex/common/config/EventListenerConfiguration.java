@@ -0,0 +1,63 @@
+package de.unistuttgart.iste.meitrex.common.config;
+
+import de.unistuttgart.iste.meitrex.common.dapr.CloudEventDecoder;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.InMemoryDeduplicationStore;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.JpaDeduplicationStore;
+import de.unistuttgart.iste.meitrex.common.dapr.listener.EventLatencyRecorder;
+import de.unistuttgart.iste.meitrex.common.dapr.listener.EventListenerController;
+import de.unistuttgart.iste.meitrex.common.dapr.listener.EventListenerDispatcher;
+import de.unistuttgart.iste.meitrex.common.dapr.listener.EventListenerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the listeners annotated with
+ * {@link de.unistuttgart.iste.meitrex.common.dapr.listener.DaprEventListener}
+ * and the {@link de.unistuttgart.iste.meitrex.common.dapr.listener.BatchEventListener}s.
+ * Only active if {@code dapr.listener.enabled} is set to {@code true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "dapr.listener", name = "enabled", havingValue = "true")
+public class EventListenerConfiguration {
+
+    // static, as bean post processors are created before all other beans
+    @Bean
+    public static EventListenerRegistry eventListenerRegistry(final ObjectProvider<EventListenerProperties> properties) {
+        // the properties are only looked up once all beans have been created
+        return new EventListenerRegistry(topic -> {
+            final EventListenerProperties.Bulk bulk = properties.getObject().getBulk();
+            return bulk.getTopics().getOrDefault(topic, bulk.getDefaults());
+        });
+    }
+
+    @Bean
+    public EventLatencyRecorder eventLatencyRecorder(final ObjectProvider<MeterRegistry> meterRegistry) {
+        return new EventLatencyRecorder(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public EventListenerDispatcher eventListenerDispatcher(final EventListenerRegistry registry,
+                                                           final EventListenerProperties properties,
+                                                           final EventLatencyRecorder latencyRecorder,
+                                                           final ObjectProvider<MeterRegistry> meterRegistry,
+                                                           final ObjectProvider<JpaDeduplicationStore> persistentStore) {
+        final EventListenerProperties.Deduplication deduplication = properties.getDeduplication();
+        return new EventListenerDispatcher(registry,
+                new CloudEventDecoder(),
+                persistentStore.getIfAvailable(() -> new InMemoryDeduplicationStore(
+                        deduplication.getWindow(), deduplication.getMaxEntries())),
+                latencyRecorder,
+                properties.getDefaultConcurrency(),
+                properties.getConcurrency(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public EventListenerController eventListenerController(final EventListenerDispatcher dispatcher) {
+        return new EventListenerController(dispatcher);
+    }
+}
@@ -0,0 +1,94 @@
+package de.unistuttgart.iste.meitrex.common.config;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.listener.BulkSubscribeOptions;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuration of the {@link de.unistuttgart.iste.meitrex.common.dapr.listener.DaprEventListener}s
+ * and {@link de.unistuttgart.iste.meitrex.common.dapr.listener.BatchEventListener}s,
+ * bound from the properties with the prefix {@code dapr.listener}.
+ */
+@Data
+@Configuration(proxyBeanMethods = false)
+@ConfigurationProperties(prefix = "dapr.listener")
+public class EventListenerProperties {
+
+    /**
+     * Whether methods annotated with {@code @DaprEventListener} are subscribed.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of events of a topic handled at the same time, for topics without their own limit.
+     */
+    private int defaultConcurrency = 64;
+
+    /**
+     * Maximum number of events handled at the same time per topic.
+     */
+    private Map<DaprTopic, Integer> concurrency = new EnumMap<>(DaprTopic.class);
+
+    /**
+     * Batching of the events delivered to batch listeners.
+     */
+    private final Bulk bulk = new Bulk();
+
+    /**
+     * Recognition of redelivered events for listeners with {@code deduplicate = true}.
+     */
+    private final Deduplication deduplication = new Deduplication();
+
+    @Data
+    public static class Bulk {
+
+        /**
+         * Batch size and await duration of all topics without their own options.
+         */
+        private BulkSubscribeOptions defaults = new BulkSubscribeOptions();
+
+        /**
+         * Batch size and await duration of single topics. Values that are not set use the built-in defaults
+         * of {@link BulkSubscribeOptions}.
+         */
+        private Map<DaprTopic, BulkSubscribeOptions> topics = new EnumMap<>(DaprTopic.class);
+    }
+
+    @Data
+    public static class Deduplication {
+
+        /**
+         * Time the ids of handled events are remembered in memory.
+         */
+        private Duration window = Duration.ofHours(1);
+
+        /**
+         * Maximum number of ids remembered in memory. The oldest ids are forgotten first.
+         */
+        private int maxEntries = 100_000;
+
+        /**
+         * Whether the ids are also stored in the database of the service,
+         * so that duplicates are recognized after a restart and across instances.
+         */
+        private boolean persistent = false;
+
+        /**
+         * Time the ids are kept in the database.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * Time after which the claim of an event in the database expires if the event has not been handled.
+         * Should be longer than handling an event usually takes, as an expired claim lets another instance
+         * handle the event again.
+         */
+        private Duration claimLease = Duration.ofMinutes(1);
+    }
+}
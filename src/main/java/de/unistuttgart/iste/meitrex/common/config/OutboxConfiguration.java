@@ -0,0 +1,51 @@
+package de.unistuttgart.iste.meitrex.common.config;
+
+import de.unistuttgart.iste.meitrex.common.dapr.CustomDaprObjectSerializer;
+import de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxEventDispatcher;
+import de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxEventEntity;
+import de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxEventRepository;
+import de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxRelay;
+import de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxRelayLeaseRepository;
+import io.dapr.client.DaprClientBuilder;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configuration of the transactional outbox used when {@code dapr.publisher.mode} is set to {@code outbox}.
+ * <p>
+ * The outbox package is registered as an auto-configuration package, so that the outbox table and its repository
+ * are picked up by the JPA auto-configuration of the service.
+ */
+@Configuration
+@Profile("prod")
+@ConditionalOnProperty(prefix = "dapr.publisher", name = "mode", havingValue = "outbox")
+@AutoConfigurationPackage(basePackageClasses = OutboxEventEntity.class)
+public class OutboxConfiguration {
+
+    @Bean
+    public OutboxEventDispatcher outboxEventDispatcher(final OutboxEventRepository repository) {
+        return new OutboxEventDispatcher(repository);
+    }
+
+    @Bean(initMethod = "start")
+    public OutboxRelay outboxRelay(final OutboxEventRepository repository,
+                                   final OutboxRelayLeaseRepository leaseRepository,
+                                   final PlatformTransactionManager transactionManager,
+                                   final TopicPublisherProperties properties) {
+        return new OutboxRelay(repository,
+                leaseRepository,
+                new DaprClientBuilder()
+                        .withObjectSerializer(new CustomDaprObjectSerializer())
+                        .buildPreviewClient(),
+                new TransactionTemplate(transactionManager),
+                properties.getOutbox().getBatchSize(),
+                properties.getOutbox().getPollInterval(),
+                properties.getOutbox().getLeaseDuration(),
+                properties.getOutbox().getPublishTimeout());
+    }
+}
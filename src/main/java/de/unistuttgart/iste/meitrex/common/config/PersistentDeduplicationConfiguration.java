@@ -0,0 +1,41 @@
+package de.unistuttgart.iste.meitrex.common.config;
+
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.InMemoryDeduplicationStore;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.JpaDeduplicationStore;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.ProcessedEventEntity;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.ProcessedEventRepository;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configuration of the {@link JpaDeduplicationStore} used when {@code dapr.listener.deduplication.persistent}
+ * is set to {@code true}.
+ * <p>
+ * The deduplication package is registered as an auto-configuration package, so that the table of processed events
+ * and its repository are picked up by the JPA auto-configuration of the service.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "dapr.listener.deduplication", name = "persistent", havingValue = "true")
+@AutoConfigurationPackage(basePackageClasses = ProcessedEventEntity.class)
+public class PersistentDeduplicationConfiguration {
+
+    @Bean(initMethod = "start")
+    public JpaDeduplicationStore jpaDeduplicationStore(final ProcessedEventRepository repository,
+                                                       final PlatformTransactionManager transactionManager,
+                                                       final EventListenerProperties properties) {
+        final EventListenerProperties.Deduplication deduplication = properties.getDeduplication();
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new JpaDeduplicationStore(
+                new InMemoryDeduplicationStore(deduplication.getWindow(), deduplication.getMaxEntries()),
+                repository,
+                transactionTemplate,
+                deduplication.getRetention(),
+                deduplication.getClaimLease());
+    }
+}
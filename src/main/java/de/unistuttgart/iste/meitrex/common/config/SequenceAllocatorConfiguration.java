@@ -0,0 +1,36 @@
+package de.unistuttgart.iste.meitrex.common.config;
+
+import de.unistuttgart.iste.meitrex.common.sequence.JpaHighWaterMarkStore;
+import de.unistuttgart.iste.meitrex.common.sequence.SequenceAllocator;
+import de.unistuttgart.iste.meitrex.common.sequence.SequenceHighWaterMarkEntity;
+import de.unistuttgart.iste.meitrex.common.sequence.SequenceHighWaterMarkRepository;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configuration of the {@link SequenceAllocator} used when {@code meitrex.sequence.enabled} is set to {@code true}.
+ * <p>
+ * The sequence package is registered as an auto-configuration package, so that the high-water mark table and its
+ * repository are picked up by the JPA auto-configuration of the service.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "meitrex.sequence", name = "enabled", havingValue = "true")
+@AutoConfigurationPackage(basePackageClasses = SequenceHighWaterMarkEntity.class)
+public class SequenceAllocatorConfiguration {
+
+    @Bean
+    public SequenceAllocator sequenceAllocator(final SequenceHighWaterMarkRepository repository,
+                                               final PlatformTransactionManager transactionManager,
+                                               final SequenceAllocatorProperties properties) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new SequenceAllocator(new JpaHighWaterMarkStore(repository, transactionTemplate),
+                properties.getBlockSize(),
+                properties.getMaxKeys());
+    }
+}
@@ -0,0 +1,32 @@
+package de.unistuttgart.iste.meitrex.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the {@link de.unistuttgart.iste.meitrex.common.sequence.SequenceAllocator},
+ * bound from the properties with the prefix {@code meitrex.sequence}.
+ */
+@Data
+@Configuration(proxyBeanMethods = false)
+@ConfigurationProperties(prefix = "meitrex.sequence")
+public class SequenceAllocatorProperties {
+
+    /**
+     * Whether the sequence allocator and its high-water mark table are set up.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of sequence numbers reserved in the database at once per key. Larger blocks mean fewer
+     * database round-trips, but larger gaps in the sequences after a restart.
+     */
+    private int blockSize = 100;
+
+    /**
+     * Maximum number of keys whose reserved blocks are kept in memory. The remaining numbers of the block of the
+     * least recently used key are skipped when it is evicted.
+     */
+    private int maxKeys = 10_000;
+}
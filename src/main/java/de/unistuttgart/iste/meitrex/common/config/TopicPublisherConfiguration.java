@@ -1,19 +1,205 @@
 package de.unistuttgart.iste.meitrex.common.config;
 
-import de.unistuttgart.iste.meitrex.common.dapr.CustomDaprObjectSerializer;
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
+import de.unistuttgart.iste.meitrex.common.dapr.*;
+import de.unistuttgart.iste.meitrex.common.dapr.claimcheck.BlobStore;
+import de.unistuttgart.iste.meitrex.common.dapr.claimcheck.ClaimCheckStage;
+import de.unistuttgart.iste.meitrex.common.dapr.claimcheck.FileSystemBlobStore;
+import de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxEventDispatcher;
+import io.dapr.client.DaprClient;
 import io.dapr.client.DaprClientBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @Configuration
 @Profile("prod")
 public class TopicPublisherConfiguration {
     @Bean
-    public TopicPublisher topicPublisher() {
-        return new TopicPublisher(new DaprClientBuilder()
-                .withObjectSerializer(new CustomDaprObjectSerializer())
-                .build());
+    public TopicPublisher topicPublisher(final TopicPublisherProperties properties,
+                                         final ObjectProvider<OutboxEventDispatcher> outboxEventDispatcher,
+                                         final ObjectProvider<MeterRegistry> meterRegistry,
+                                         final ObjectProvider<BlobStore> blobStore) throws IOException {
+        final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+        final DaprClientBuilder clientBuilder = new DaprClientBuilder()
+                .withObjectSerializer(serializer);
+        final MeterRegistry availableRegistry = meterRegistry.getIfAvailable();
+        final MeterRegistry registry = availableRegistry != null ? availableRegistry : new SimpleMeterRegistry();
+        validate(properties);
+
+        EventDispatcher dispatcher = createDispatcher(properties, clientBuilder, outboxEventDispatcher);
+        dispatcher = retryOnFailure(dispatcher, properties.getRetry(), registry);
+        if (properties.getOrdering().isEnabled()) {
+            dispatcher = new OrderedEventDispatcher(dispatcher, properties.getOrdering().getLaneCount());
+        }
+        dispatcher = limitInFlight(dispatcher, properties.getBackpressure(), registry);
+        if (properties.getPriority().isEnabled()) {
+            // outside of the backpressure limit, so that bulk events cannot use up its permits
+            dispatcher = new PriorityEventDispatcher(dispatcher, properties.getPriority().getTopics(),
+                    properties.getPriority().getLanes(), registry);
+        }
+        if (properties.getRateLimiting().isEnabled()) {
+            dispatcher = new RateLimitingEventDispatcher(dispatcher, properties.getRateLimiting().getTopics(),
+                    registry);
+        }
+        dispatcher = spillOnFailure(dispatcher, properties.getSpillLog(), clientBuilder);
+        if (availableRegistry != null) {
+            dispatcher = new MeteredEventDispatcher(dispatcher, availableRegistry);
+        }
+
+        final List<PublishStage> stages = new ArrayList<>();
+        if (properties.getCoalescing().isEnabled()) {
+            stages.add(new CoalescingStage(properties.getCoalescing().getWindow()));
+        }
+        if (properties.getWorkedOnAggregation().isEnabled()) {
+            stages.add(new WorkedOnAggregationStage(properties.getWorkedOnAggregation().getWindow()));
+        }
+        if (properties.getSkillLevelCollapsing().isEnabled()) {
+            stages.add(new SkillLevelCollapsingStage(properties.getSkillLevelCollapsing().getWindow()));
+        }
+        if (properties.getChunking().isEnabled()) {
+            stages.add(new ChunkingStage(properties.getChunking().getDefaultChunkSize(),
+                    properties.getChunking().getTopics()));
+        }
+        if (properties.getClaimCheck().isEnabled()) {
+            stages.add(new ClaimCheckStage(blobStore.getIfAvailable(
+                    () -> createFileSystemBlobStore(properties.getClaimCheck().getDirectory()))));
+        }
+
+        final PartitionKeyExtractor partitionKeys = properties.getOrdering().isEnabled()
+                ? new PartitionKeyExtractor(properties.getOrdering().getPartitionKeys())
+                : PartitionKeyExtractor.NONE;
+
+        return new TopicPublisher(dispatcher, serializer, properties.getEncodings(),
+                createCompressor(properties.getCompression()), stages, partitionKeys);
+    }
+
+    /**
+     * Rejects combinations of settings that would break the guarantees of the publisher.
+     */
+    private static void validate(final TopicPublisherProperties properties) {
+        final boolean outbox = properties.getMode() == PublishMode.OUTBOX;
+        // windows are published by the thread that closes them, outside of the caller's transaction
+        if (outbox && properties.getCoalescing().isEnabled()) {
+            throw new IllegalStateException("dapr.publisher.coalescing cannot be enabled in outbox mode");
+        }
+        if (outbox && properties.getWorkedOnAggregation().isEnabled()) {
+            throw new IllegalStateException("dapr.publisher.worked-on-aggregation cannot be enabled in outbox mode");
+        }
+        // collapsed events of a transaction are published after its commit
+        if (outbox && properties.getSkillLevelCollapsing().isEnabled()) {
+            throw new IllegalStateException("dapr.publisher.skill-level-collapsing cannot be enabled in outbox mode");
+        }
+        // throttled events are written by the rate limiter, outside of the caller's transaction
+        if (outbox && properties.getRateLimiting().isEnabled()) {
+            throw new IllegalStateException("dapr.publisher.rate-limiting cannot be enabled in outbox mode");
+        }
+        if (properties.getPriority().isEnabled()) {
+            // queued events are written by whichever thread completes a publish, outside of the caller's transaction
+            if (outbox) {
+                throw new IllegalStateException("dapr.publisher.priority cannot be enabled in outbox mode");
+            }
+            final int laneConcurrency = Arrays.stream(PublishPriority.values())
+                    .mapToInt(priority -> properties.getPriority().getLanes()
+                            .getOrDefault(priority, new LaneBudget()).getMaxConcurrency())
+                    .sum();
+            if (properties.getBackpressure().isEnabled()
+                && laneConcurrency > properties.getBackpressure().getMaxInFlight()) {
+                throw new IllegalStateException("The concurrency budgets of the priority lanes (" + laneConcurrency
+                                                + ") exceed dapr.publisher.backpressure.max-in-flight ("
+                                                + properties.getBackpressure().getMaxInFlight() + ")");
+            }
+        }
+    }
+
+    private static BlobStore createFileSystemBlobStore(final Path directory) {
+        try {
+            return new FileSystemBlobStore(directory);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PayloadCompressor createCompressor(final TopicPublisherProperties.Compression compression) {
+        if (!compression.isEnabled()) {
+            return PayloadCompressor.DISABLED;
+        }
+        return new PayloadCompressor(Math.toIntExact(compression.getThreshold().toBytes()), compression.getLevel());
+    }
+
+    private static EventDispatcher createDispatcher(final TopicPublisherProperties properties,
+                                                    final DaprClientBuilder clientBuilder,
+                                                    final ObjectProvider<OutboxEventDispatcher> outboxEventDispatcher) {
+        return switch (properties.getMode()) {
+            case DIRECT -> new DirectEventDispatcher(clientBuilder.build());
+            case BATCHED -> new BatchingEventDispatcher(clientBuilder.buildPreviewClient(),
+                    properties.getBatching().getMaxBatchSize(),
+                    properties.getBatching().getLingerTime());
+            case OUTBOX -> outboxEventDispatcher.getObject();
+        };
+    }
+
+    private static EventDispatcher retryOnFailure(final EventDispatcher dispatcher,
+                                                  final TopicPublisherProperties.Retry retry,
+                                                  final MeterRegistry meterRegistry) {
+        if (!retry.isEnabled()) {
+            return dispatcher;
+        }
+        return new RetryingEventDispatcher(dispatcher,
+                retry.getDefaults(),
+                retry.getTopics(),
+                new CircuitBreaker(retry.getCircuitBreakerFailureThreshold(), retry.getCircuitBreakerOpenDuration()),
+                meterRegistry);
+    }
+
+    private static EventDispatcher limitInFlight(final EventDispatcher dispatcher,
+                                                 final TopicPublisherProperties.Backpressure backpressure,
+                                                 final MeterRegistry meterRegistry) {
+        if (!backpressure.isEnabled()) {
+            return dispatcher;
+        }
+        final SpillBuffer spillBuffer = backpressure.getOverflowPolicy() == OverflowPolicy.SPILL
+                ? new InMemorySpillBuffer(backpressure.getSpillBufferCapacity())
+                : null;
+        return new BackpressureEventDispatcher(dispatcher,
+                backpressure.getMaxInFlight(),
+                backpressure.getOverflowPolicy(),
+                backpressure.getBlockTimeout(),
+                spillBuffer,
+                meterRegistry);
+    }
+
+    private static EventDispatcher spillOnFailure(final EventDispatcher dispatcher,
+                                                  final TopicPublisherProperties.SpillLog spillLog,
+                                                  final DaprClientBuilder clientBuilder) throws IOException {
+        if (!spillLog.isEnabled()) {
+            return dispatcher;
+        }
+        final DaprClient healthCheckClient = clientBuilder.build();
+        return new SpillingEventDispatcher(dispatcher,
+                new DiskSpillLog(spillLog.getDirectory(),
+                        Math.toIntExact(spillLog.getSegmentSize().toBytes()),
+                        spillLog.getMaxSegments()),
+                () -> isSidecarHealthy(healthCheckClient, spillLog.getHealthCheckTimeout()),
+                spillLog.getReplayInterval());
+    }
+
+    private static boolean isSidecarHealthy(final DaprClient client, final Duration timeout) {
+        try {
+            client.waitForSidecar(Math.toIntExact(timeout.toMillis())).block();
+            return true;
+        } catch (final RuntimeException e) {
+            return false;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,408 @@
+package de.unistuttgart.iste.meitrex.common.config;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.EventEncoding;
+import de.unistuttgart.iste.meitrex.common.dapr.LaneBudget;
+import de.unistuttgart.iste.meitrex.common.dapr.OverflowPolicy;
+import de.unistuttgart.iste.meitrex.common.dapr.PublishMode;
+import de.unistuttgart.iste.meitrex.common.dapr.PublishPriority;
+import de.unistuttgart.iste.meitrex.common.dapr.RateLimit;
+import de.unistuttgart.iste.meitrex.common.dapr.RetryPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Configuration of the {@link de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher},
+ * bound from the properties with the prefix {@code dapr.publisher}.
+ */
+@Data
+@Configuration(proxyBeanMethods = false)
+@ConfigurationProperties(prefix = "dapr.publisher")
+public class TopicPublisherProperties {
+
+    /**
+     * How events are handed to the Dapr sidecar.
+     */
+    private PublishMode mode = PublishMode.DIRECT;
+
+    /**
+     * Encoding of the events per topic. Topics that are not listed are encoded as JSON.
+     */
+    private Map<DaprTopic, EventEncoding> encodings = new EnumMap<>(DaprTopic.class);
+
+    /**
+     * Compression of large payloads.
+     */
+    private final Compression compression = new Compression();
+
+    /**
+     * Merging of change events published in quick succession.
+     */
+    private final Coalescing coalescing = new Coalescing();
+
+    /**
+     * Aggregation of repeated media record worked on events.
+     */
+    private final WorkedOnAggregation workedOnAggregation = new WorkedOnAggregation();
+
+    /**
+     * Collapsing of repeated skill level changes into their net change.
+     */
+    private final SkillLevelCollapsing skillLevelCollapsing = new SkillLevelCollapsing();
+
+    /**
+     * Splitting of long id lists into several events.
+     */
+    private final Chunking chunking = new Chunking();
+
+    /**
+     * Storage of the files of submissions outside of the events.
+     */
+    private final ClaimCheck claimCheck = new ClaimCheck();
+
+    /**
+     * Settings used in {@link PublishMode#BATCHED} mode.
+     */
+    private final Batching batching = new Batching();
+
+    /**
+     * Settings used in {@link PublishMode#OUTBOX} mode.
+     */
+    private final Outbox outbox = new Outbox();
+
+    /**
+     * Limit of the publishes that are in flight at the same time.
+     */
+    private final Backpressure backpressure = new Backpressure();
+
+    /**
+     * Disk-backed log taking events whose publish failed.
+     */
+    private final SpillLog spillLog = new SpillLog();
+
+    /**
+     * Retries of failed publishes and the circuit breaker.
+     */
+    private final Retry retry = new Retry();
+
+    /**
+     * Publishing events with the same partition key in order.
+     */
+    private final Ordering ordering = new Ordering();
+
+    /**
+     * Separate queues and concurrency budgets for interactive and bulk topics.
+     */
+    private final Priority priority = new Priority();
+
+    /**
+     * Limits of the rate of events per topic.
+     */
+    private final RateLimiting rateLimiting = new RateLimiting();
+
+    @Data
+    public static class Compression {
+
+        /**
+         * Whether payloads larger than the threshold are compressed with gzip.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Minimum size of a serialized event to be compressed.
+         */
+        private DataSize threshold = DataSize.ofKilobytes(64);
+
+        /**
+         * Compression level from 1 (fastest) to 9 (smallest), -1 uses the default level of the JDK.
+         */
+        private int level = Deflater.DEFAULT_COMPRESSION;
+    }
+
+    @Data
+    public static class Coalescing {
+
+        /**
+         * Whether content, chapter and item change events of the same operation are merged within a window.
+         * Cannot be used in {@link PublishMode#OUTBOX} mode.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Time the change events of a topic are collected before the merged event is published.
+         */
+        private Duration window = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class WorkedOnAggregation {
+
+        /**
+         * Whether media record worked on events of the same user and media record are aggregated within a window.
+         * Cannot be used in {@link PublishMode#OUTBOX} mode.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Time the events are collected before the aggregated events are published.
+         */
+        private Duration window = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class SkillLevelCollapsing {
+
+        /**
+         * Whether skill level changes of the same user, skill and bloom level are collapsed.
+         * Changes published within a transaction are published after its commit.
+         * Cannot be used in {@link PublishMode#OUTBOX} mode.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Time the changes published outside of a transaction are collected before they are published.
+         */
+        private Duration window = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Chunking {
+
+        /**
+         * Whether the ids of chapter and content change events and the receivers of notifications are split
+         * into several events.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of ids in one event of topics without their own chunk size.
+         */
+        private int defaultChunkSize = 500;
+
+        /**
+         * Maximum number of ids in one event per topic.
+         */
+        private Map<DaprTopic, Integer> topics = new EnumMap<>(DaprTopic.class);
+    }
+
+    @Data
+    public static class ClaimCheck {
+
+        /**
+         * Whether the files of {@link de.unistuttgart.iste.meitrex.common.event.StudentCodeSubmittedEvent}s
+         * are stored in a blob store and only their hashes are published.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the file system blob store, used if the service does not provide its own
+         * {@link de.unistuttgart.iste.meitrex.common.dapr.claimcheck.BlobStore} bean.
+         * The directory must be shared with the consumers of the events.
+         */
+        private Path directory = Path.of("dapr-blob-store");
+    }
+
+    @Data
+    public static class Batching {
+
+        /**
+         * Maximum number of events of one topic that are sent in a single bulk publish request.
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * Maximum time an event is buffered before its batch is sent.
+         */
+        private Duration lingerTime = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Outbox {
+
+        /**
+         * Maximum number of events the relay fetches from the outbox table at once.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Delay between two runs of the relay.
+         */
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * Time after which the lease of the relaying instance expires if it is not renewed.
+         * Another instance takes over relaying once the lease has expired.
+         */
+        private Duration leaseDuration = Duration.ofSeconds(30);
+
+        /**
+         * Maximum time the relay waits for one publish request. Must be shorter than the lease duration.
+         */
+        private Duration publishTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Backpressure {
+
+        /**
+         * Whether the number of publishes in flight is limited.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of publishes in flight.
+         */
+        private int maxInFlight = 1000;
+
+        /**
+         * What happens to events that are published while the limit is reached.
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        /**
+         * Maximum time a caller is blocked with {@link OverflowPolicy#BLOCK} before the event is dropped.
+         */
+        private Duration blockTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Maximum number of events in the spill buffer used with {@link OverflowPolicy#SPILL}.
+         */
+        private int spillBufferCapacity = 10_000;
+    }
+
+    @Data
+    public static class SpillLog {
+
+        /**
+         * Whether events whose publish failed are written to the spill log.
+         * Combined with the overflow policy {@link OverflowPolicy#DROP}, overflowing events are written to it as well.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory the segment files of the spill log are stored in.
+         */
+        private Path directory = Path.of("dapr-spill-log");
+
+        /**
+         * Size of a single segment file.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Maximum number of segment files. Events are dropped when all segments are full.
+         */
+        private int maxSegments = 64;
+
+        /**
+         * Delay between two attempts to replay the spilled events.
+         */
+        private Duration replayInterval = Duration.ofSeconds(5);
+
+        /**
+         * Maximum time to wait for the sidecar when checking whether it is healthy before replaying.
+         */
+        private Duration healthCheckTimeout = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Retry {
+
+        /**
+         * Whether failed publishes are retried and a circuit breaker is used.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Retry policy of all topics without their own policy.
+         */
+        private RetryPolicy defaults = new RetryPolicy();
+
+        /**
+         * Retry policies of single topics. Values that are not set use the built-in defaults of {@link RetryPolicy}.
+         */
+        private Map<DaprTopic, RetryPolicy> topics = new EnumMap<>(DaprTopic.class);
+
+        /**
+         * Number of consecutive failures after which the circuit breaker opens.
+         */
+        private int circuitBreakerFailureThreshold = 10;
+
+        /**
+         * Time the open circuit breaker rejects publishes before it lets a single publish through.
+         */
+        private Duration circuitBreakerOpenDuration = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Ordering {
+
+        /**
+         * Whether events with the same partition key are published in order.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of lanes, i.e. the maximum number of partition keys published in parallel.
+         */
+        private int laneCount = 64;
+
+        /**
+         * Names of the properties of the events forming the partition key per topic.
+         * Events of topics that are not listed are published in any order.
+         */
+        private Map<DaprTopic, List<String>> partitionKeys = new EnumMap<>(Map.of(
+                DaprTopic.USER_PROGRESS_UPDATED, List.of("userId"),
+                DaprTopic.CONTENT_PROGRESSED, List.of("userId")));
+    }
+
+    @Data
+    public static class Priority {
+
+        /**
+         * Whether the events are published in separate lanes per {@link PublishPriority}.
+         * The sum of the concurrency budgets must not exceed the backpressure limit, if it is enabled.
+         * Cannot be used in {@link PublishMode#OUTBOX} mode.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Priority per topic. Topics that are not listed have the priority {@link PublishPriority#NORMAL}.
+         */
+        private Map<DaprTopic, PublishPriority> topics = new EnumMap<>(Map.of(
+                DaprTopic.NOTIFICATION_EVENT, PublishPriority.INTERACTIVE,
+                DaprTopic.ASKED_TUTOR_A_QUESTION, PublishPriority.INTERACTIVE,
+                DaprTopic.MEDIA_RECORD_WORKED_ON, PublishPriority.BULK));
+
+        /**
+         * Queue capacity and concurrency budget per priority.
+         * Values that are not set use the built-in defaults of {@link LaneBudget}.
+         */
+        private Map<PublishPriority, LaneBudget> lanes = new EnumMap<>(PublishPriority.class);
+    }
+
+    @Data
+    public static class RateLimiting {
+
+        /**
+         * Whether the rate of the events of the listed topics is limited.
+         * Cannot be used in {@link PublishMode#OUTBOX} mode.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Rate limit per topic. Topics that are not listed are not limited.
+         * Values that are not set use the built-in defaults of {@link RateLimit}.
+         */
+        private Map<DaprTopic, RateLimit> topics = new EnumMap<>(DaprTopic.class);
+    }
+}
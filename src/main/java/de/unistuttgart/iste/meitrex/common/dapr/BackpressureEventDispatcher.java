@@ -0,0 +1,182 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dispatcher that limits the number of publishes of its delegate that are in flight at the same time.
+ * <p>
+ * If the limit is reached, the {@link OverflowPolicy} decides whether the caller is blocked,
+ * the event is dropped or the event is stored in a {@link SpillBuffer}.
+ * The number of publishes in flight is exposed as the gauge {@code dapr.publisher.inflight}.
+ */
+@Slf4j
+public class BackpressureEventDispatcher implements EventDispatcher {
+
+    private final EventDispatcher delegate;
+    private final int maxInFlight;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final SpillBuffer spillBuffer;
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore permits;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * @param delegate       the dispatcher that publishes the events
+     * @param maxInFlight    maximum number of publishes in flight
+     * @param overflowPolicy what to do with events that are published while the limit is reached
+     * @param blockTimeout   maximum time a caller is blocked with {@link OverflowPolicy#BLOCK}
+     * @param spillBuffer    buffer used with {@link OverflowPolicy#SPILL}, may be {@code null} for other policies
+     * @param meterRegistry  registry the metrics are registered in
+     */
+    public BackpressureEventDispatcher(final EventDispatcher delegate,
+                                       final int maxInFlight,
+                                       final OverflowPolicy overflowPolicy,
+                                       final Duration blockTimeout,
+                                       final SpillBuffer spillBuffer,
+                                       final MeterRegistry meterRegistry) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1, but was " + maxInFlight);
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL && spillBuffer == null) {
+            throw new IllegalArgumentException("A spill buffer is required for overflow policy SPILL");
+        }
+        this.delegate = delegate;
+        this.maxInFlight = maxInFlight;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = blockTimeout;
+        this.spillBuffer = spillBuffer;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxInFlight);
+
+        Gauge.builder("dapr.publisher.inflight", this, BackpressureEventDispatcher::getInFlightCount)
+                .description("Number of events that are currently being published")
+                .register(meterRegistry);
+        if (spillBuffer != null) {
+            Gauge.builder("dapr.publisher.spill.size", spillBuffer, SpillBuffer::size)
+                    .description("Number of events waiting in the spill buffer")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        // events must not overtake events that are already waiting in the spill buffer
+        if (overflowPolicy == OverflowPolicy.SPILL && !spillBuffer.isEmpty()) {
+            return spill(event);
+        }
+        if (permits.tryAcquire()) {
+            return send(event);
+        }
+        return switch (overflowPolicy) {
+            case BLOCK -> block(event);
+            case DROP -> drop(event);
+            case SPILL -> spill(event);
+        };
+    }
+
+    /**
+     * @return the number of publishes that are currently in flight
+     */
+    public int getInFlightCount() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+        if (spillBuffer != null && !spillBuffer.isEmpty()) {
+            log.warn("Closing publisher with {} events left in the spill buffer", spillBuffer.size());
+        }
+    }
+
+    private CompletableFuture<Void> block(final OutgoingEvent event) {
+        try {
+            if (permits.tryAcquire(blockTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return send(event);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return drop(event);
+    }
+
+    private CompletableFuture<Void> drop(final OutgoingEvent event) {
+        meterRegistry.counter("dapr.publisher.dropped", "topic", event.getTopic().getTopic()).increment();
+        return CompletableFuture.failedFuture(new EventPublishException(
+                "Too many events in flight, dropped event for daprTopic " + event.getTopic().getTopic()));
+    }
+
+    /**
+     * Stores the event in the spill buffer. The returned future completes as soon as the event is buffered,
+     * errors while publishing it later are only logged.
+     */
+    private CompletableFuture<Void> spill(final OutgoingEvent event) {
+        if (!spillBuffer.offer(event)) {
+            return drop(event);
+        }
+        meterRegistry.counter("dapr.publisher.spilled", "topic", event.getTopic().getTopic()).increment();
+        // a publish might have completed while the event was added
+        drainSpillBuffer();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<Void> send(final OutgoingEvent event) {
+        final CompletableFuture<Void> future;
+        try {
+            future = delegate.dispatch(event);
+        } catch (final RuntimeException e) {
+            release();
+            throw e;
+        }
+        return future.whenComplete((response, error) -> release());
+    }
+
+    private void release() {
+        permits.release();
+        if (spillBuffer != null) {
+            drainSpillBuffer();
+        }
+    }
+
+    /**
+     * Publishes events from the spill buffer while permits are available.
+     * Only one thread drains the buffer at a time, so that nested calls from synchronously completing
+     * publishes do not recurse.
+     */
+    private void drainSpillBuffer() {
+        while (!spillBuffer.isEmpty() && permits.availablePermits() > 0 && draining.compareAndSet(false, true)) {
+            try {
+                while (!spillBuffer.isEmpty() && permits.tryAcquire()) {
+                    final OutgoingEvent event = spillBuffer.poll();
+                    if (event == null) {
+                        permits.release();
+                        break;
+                    }
+                    send(event).whenComplete((response, error) -> {
+                        if (error != null) {
+                            log.error("Error while publishing spilled message to daprTopic {}: {}",
+                                    event.getTopic().getTopic(), error.getMessage());
+                        }
+                    });
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+}
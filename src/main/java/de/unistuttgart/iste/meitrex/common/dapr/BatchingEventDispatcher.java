@@ -0,0 +1,165 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishEntry;
+import io.dapr.client.domain.BulkPublishRequest;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher that buffers events per {@link DaprTopic} and sends them using the Dapr bulk publish API.
+ * <p>
+ * The buffer of a topic is flushed as soon as it contains {@code maxBatchSize} events
+ * or when the oldest buffered event has waited for {@code lingerTime}, whichever happens first.
+ * {@link #flush()} sends all buffered events immediately.
+ */
+@Slf4j
+public class BatchingEventDispatcher implements EventDispatcher {
+
+    private final DaprPreviewClient client;
+    private final int maxBatchSize;
+    private final Duration lingerTime;
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<DaprTopic, TopicBuffer> buffers = new EnumMap<>(DaprTopic.class);
+
+    /**
+     * @param client       the client used to send the bulk publish requests
+     * @param maxBatchSize maximum number of events sent in one request
+     * @param lingerTime   maximum time an event is buffered before it is sent
+     */
+    public BatchingEventDispatcher(final DaprPreviewClient client, final int maxBatchSize, final Duration lingerTime) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1, but was " + maxBatchSize);
+        }
+        this.client = client;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerTime = lingerTime;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("dapr-batch-flusher").daemon().factory());
+
+        for (final DaprTopic topic : DaprTopic.values()) {
+            buffers.put(topic, new TopicBuffer(topic));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        final PendingEvent pendingEvent = new PendingEvent(event, new CompletableFuture<>());
+        buffers.get(event.getTopic()).add(pendingEvent);
+        return pendingEvent.future();
+    }
+
+    @Override
+    public void flush() {
+        buffers.values().forEach(TopicBuffer::flush);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private void send(final DaprTopic topic, final List<PendingEvent> batch) {
+        final List<BulkPublishEntry<byte[]>> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            final OutgoingEvent event = batch.get(i).event();
+            entries.add(new BulkPublishEntry<>(String.valueOf(i), event.getPayload(), event.getContentType(),
+                    event.getMetadata()));
+        }
+
+        log.debug("Sending batch of {} messages to daprTopic {}", batch.size(), topic.getTopic());
+        client.publishEvents(new BulkPublishRequest<>(TopicPublisher.PUBSUB_NAME, topic.getTopic(), entries))
+                .toFuture()
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        batch.forEach(pendingEvent -> pendingEvent.future().completeExceptionally(error));
+                    } else {
+                        complete(batch, response);
+                    }
+                });
+    }
+
+    private static void complete(final List<PendingEvent> batch, final BulkPublishResponse<byte[]> response) {
+        final Map<String, String> failedEntries = new HashMap<>();
+        if (response != null && response.getFailedEntries() != null) {
+            for (final BulkPublishResponseFailedEntry<byte[]> failedEntry : response.getFailedEntries()) {
+                failedEntries.put(failedEntry.getEntry().getEntryID(), failedEntry.getErrorMessage());
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            final String errorMessage = failedEntries.get(String.valueOf(i));
+            if (errorMessage == null) {
+                batch.get(i).future().complete(null);
+            } else {
+                batch.get(i).future().completeExceptionally(new EventPublishException(errorMessage));
+            }
+        }
+    }
+
+    private record PendingEvent(OutgoingEvent event, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Buffer of a single topic. All access to the buffered events is synchronized on the buffer itself,
+     * the requests are sent outside the lock.
+     */
+    private final class TopicBuffer {
+
+        private final DaprTopic topic;
+        private List<PendingEvent> pendingEvents;
+        private ScheduledFuture<?> lingerTimeout;
+
+        private TopicBuffer(final DaprTopic topic) {
+            this.topic = topic;
+            this.pendingEvents = new ArrayList<>();
+        }
+
+        private void add(final PendingEvent pendingEvent) {
+            final List<PendingEvent> batch;
+            synchronized (this) {
+                pendingEvents.add(pendingEvent);
+                if (pendingEvents.size() < maxBatchSize) {
+                    if (lingerTimeout == null) {
+                        lingerTimeout = scheduler.schedule(this::flush, lingerTime.toNanos(), TimeUnit.NANOSECONDS);
+                    }
+                    return;
+                }
+                batch = drain();
+            }
+            send(topic, batch);
+        }
+
+        private void flush() {
+            final List<PendingEvent> batch;
+            synchronized (this) {
+                if (pendingEvents.isEmpty()) {
+                    return;
+                }
+                batch = drain();
+            }
+            send(topic, batch);
+        }
+
+        private List<PendingEvent> drain() {
+            if (lingerTimeout != null) {
+                lingerTimeout.cancel(false);
+                lingerTimeout = null;
+            }
+            final List<PendingEvent> batch = pendingEvents;
+            pendingEvents = new ArrayList<>();
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.ChapterChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.ContentChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.NotificationEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link PublishStage} that splits events with long id lists into several events of bounded size.
+ * <p>
+ * The ids of {@link ChapterChangeEvent}s and {@link ContentChangeEvent}s and the receivers of
+ * {@link NotificationEvent}s are split into chunks. Every chunk is published as its own event with all other
+ * fields unchanged, so consumers can process the chunks concurrently. The chunks are published in parallel,
+ * the returned future completes when all chunks have been accepted.
+ */
+@Slf4j
+public class ChunkingStage implements PublishStage {
+
+    private final int defaultChunkSize;
+    private final Map<DaprTopic, Integer> topicChunkSizes;
+
+    /**
+     * @param defaultChunkSize maximum number of ids in one event of topics without their own chunk size
+     * @param topicChunkSizes  maximum number of ids in one event per topic
+     */
+    public ChunkingStage(final int defaultChunkSize, final Map<DaprTopic, Integer> topicChunkSizes) {
+        if (defaultChunkSize < 1 || topicChunkSizes.values().stream().anyMatch(size -> size < 1)) {
+            throw new IllegalArgumentException("Chunk sizes must be at least 1");
+        }
+        this.defaultChunkSize = defaultChunkSize;
+        this.topicChunkSizes = topicChunkSizes;
+    }
+
+    @Override
+    public CompletableFuture<Void> process(final Object event, final DaprTopic daprTopic, final Next next) {
+        final int chunkSize = topicChunkSizes.getOrDefault(daprTopic, defaultChunkSize);
+        final List<Object> chunks = switch (event) {
+            case ChapterChangeEvent e when exceeds(e.getChapterIds(), chunkSize) -> split(e.getChapterIds(), chunkSize,
+                    ids -> new ChapterChangeEvent(ids, e.getOperation()));
+            case ContentChangeEvent e when exceeds(e.getContentIds(), chunkSize) -> split(e.getContentIds(), chunkSize,
+                    ids -> new ContentChangeEvent(ids, e.getOperation()));
+            case NotificationEvent e when exceeds(e.getUserIds(), chunkSize) -> split(e.getUserIds(), chunkSize,
+                    ids -> NotificationEvent.builder()
+                            .courseId(e.getCourseId())
+                            .userIds(ids)
+                            .serverSource(e.getServerSource())
+                            .title(e.getTitle())
+                            .link(e.getLink())
+                            .message(e.getMessage())
+                            .timestamp(e.getTimestamp())
+                            .build());
+            case null, default -> null;
+        };
+        if (chunks == null) {
+            return next.publish(event, daprTopic);
+        }
+
+        log.debug("Split event for daprTopic {} into {} chunks", daprTopic.getTopic(), chunks.size());
+        return CompletableFuture.allOf(chunks.stream()
+                .map(chunk -> next.publish(chunk, daprTopic))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static boolean exceeds(final List<UUID> ids, final int chunkSize) {
+        return ids != null && ids.size() > chunkSize;
+    }
+
+    private static List<Object> split(final List<UUID> ids, final int chunkSize,
+                                      final Function<List<UUID>, Object> createChunk) {
+        final List<Object> chunks = new ArrayList<>((ids.size() + chunkSize - 1) / chunkSize);
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            chunks.add(createChunk.apply(new ArrayList<>(ids.subList(start, Math.min(start + chunkSize, ids.size())))));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,167 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.dapr.client.domain.CloudEvent;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Decodes the events a subscriber receives from Dapr, independent of the {@link EventEncoding}
+ * they were published with.
+ * <p>
+ * Dapr wraps every event in a cloud event. Events encoded as JSON are embedded in its {@code data} field.
+ * Events in a binary encoding are published as {@value OutgoingEvent#BINARY_CONTENT_TYPE}, which Dapr stores
+ * base64-encoded in the {@code data_base64} field. Their encoding is taken from the cloud event extension
+ * {@value OutgoingEvent#ENCODING_EXTENSION}. Events compressed by the {@link PayloadCompressor} are published the same
+ * way and are decompressed if the extension {@value PayloadCompressor#COMPRESSION_EXTENSION} is set.
+ * If the extensions are missing, e.g. because the cloud event has already been deserialized without its extensions,
+ * the compression and encoding are detected from the payload.
+ */
+@RequiredArgsConstructor
+public class CloudEventDecoder {
+
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final CustomDaprObjectSerializer serializer;
+
+    public CloudEventDecoder() {
+        this(new CustomDaprObjectSerializer());
+    }
+
+    /**
+     * Decodes the event contained in the raw body of a request sent by Dapr.
+     *
+     * @param cloudEvent the cloud event as received from Dapr
+     * @param clazz      the class of the event
+     * @return the decoded event
+     * @throws IOException if the cloud event or the event cannot be decoded
+     */
+    public <T> T decode(final byte[] cloudEvent, final Class<T> clazz) throws IOException {
+        return decode(readTree(cloudEvent), clazz);
+    }
+
+    /**
+     * Parses a request sent by Dapr as JSON tree, e.g. a batch delivered by the bulk subscribe API.
+     *
+     * @param body the body of the request
+     * @return the parsed body
+     * @throws IOException if the body is not valid JSON
+     */
+    public JsonNode readTree(final byte[] body) throws IOException {
+        return serializer.getMapper(EventEncoding.JSON).readTree(body);
+    }
+
+    /**
+     * Decodes the event contained in a cloud event that has been parsed as JSON tree,
+     * e.g. an entry of a batch delivered by the bulk subscribe API.
+     *
+     * @param envelope the cloud event as received from Dapr
+     * @param clazz    the class of the event
+     * @return the decoded event
+     * @throws IOException if the event cannot be decoded
+     */
+    public <T> T decode(final JsonNode envelope, final Class<T> clazz) throws IOException {
+        final String contentType = envelope.path("datacontenttype").asText(null);
+        final JsonNode binaryData = envelope.get("data_base64");
+        if (binaryData != null && !binaryData.isNull()) {
+            return decodePayload(binaryData.binaryValue(), contentType,
+                    envelope.path(OutgoingEvent.ENCODING_EXTENSION).asText(null),
+                    envelope.path(PayloadCompressor.COMPRESSION_EXTENSION).asText(null), clazz);
+        }
+        return serializer.getMapper(EventEncoding.JSON).treeToValue(envelope.get("data"), clazz);
+    }
+
+    /**
+     * Decodes the event contained in a cloud event that has already been deserialized,
+     * e.g. by a controller method with a parameter of type {@code CloudEvent<JsonNode>}.
+     *
+     * @param cloudEvent the cloud event as received from Dapr
+     * @param clazz      the class of the event
+     * @return the decoded event
+     * @throws IOException if the event cannot be decoded
+     */
+    public <T> T decode(final CloudEvent<?> cloudEvent, final Class<T> clazz) throws IOException {
+        if (cloudEvent.getBinaryData() != null) {
+            return decodePayload(cloudEvent.getBinaryData(), cloudEvent.getDatacontenttype(), clazz);
+        }
+        if (cloudEvent.getData() instanceof byte[] data) {
+            return decodePayload(data, cloudEvent.getDatacontenttype(), clazz);
+        }
+        return serializer.getMapper(EventEncoding.JSON).convertValue(cloudEvent.getData(), clazz);
+    }
+
+    /**
+     * Decodes a payload as published by the TopicPublisher.
+     *
+     * @param payload     the payload of the event
+     * @param contentType the content type the event was published with
+     * @param clazz       the class of the event
+     * @return the decoded event
+     * @throws IOException if the payload cannot be decoded
+     */
+    public <T> T decodePayload(final byte[] payload, final String contentType, final Class<T> clazz)
+            throws IOException {
+        return decodePayload(payload, contentType, null, null, clazz);
+    }
+
+    /**
+     * Decodes a payload as published by the TopicPublisher.
+     *
+     * @param payload     the payload of the event
+     * @param contentType the content type the event was published with
+     * @param encoding    the value of the {@value OutgoingEvent#ENCODING_EXTENSION} extension,
+     *                    {@code null} if the event has none
+     * @param compression the value of the {@value PayloadCompressor#COMPRESSION_EXTENSION} extension,
+     *                    {@code null} if the event has none
+     * @param clazz       the class of the event
+     * @return the decoded event
+     * @throws IOException if the payload cannot be decoded
+     */
+    public <T> T decodePayload(final byte[] payload, final String contentType, final String encoding,
+                               final String compression, final Class<T> clazz) throws IOException {
+        final boolean compressed = compression == null
+                ? isBinary(contentType) && isGzip(payload)
+                : PayloadCompressor.isCompressed(compression);
+        final byte[] decompressed = compressed ? PayloadCompressor.decompress(payload) : payload;
+        return serializer.deserialize(decompressed, clazz, getEncoding(decompressed, contentType, encoding));
+    }
+
+    private static EventEncoding getEncoding(final byte[] payload, final String contentType, final String encoding) {
+        if (encoding != null) {
+            return EventEncoding.fromExtensionValue(encoding);
+        }
+        if (isBinary(contentType)) {
+            return detectEncoding(payload);
+        }
+        return EventEncoding.fromContentType(contentType);
+    }
+
+    private static boolean isBinary(final String contentType) {
+        return contentType != null
+               && contentType.toLowerCase(Locale.ROOT).startsWith(OutgoingEvent.BINARY_CONTENT_TYPE);
+    }
+
+    private static boolean isGzip(final byte[] payload) {
+        return payload.length >= 2 && payload[0] == (byte) 0x1f && payload[1] == (byte) 0x8b;
+    }
+
+    /**
+     * Detects the encoding of a binary payload: Smile payloads start with the header {@code :)\n}, JSON payloads,
+     * which are only binary if compressed, start with an object or array, all other payloads are CBOR.
+     */
+    private static EventEncoding detectEncoding(final byte[] payload) {
+        if (payload.length >= SMILE_HEADER.length
+            && Arrays.equals(payload, 0, SMILE_HEADER.length, SMILE_HEADER, 0, SMILE_HEADER.length)) {
+            return EventEncoding.SMILE;
+        }
+        for (final byte b : payload) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{' || b == '[' ? EventEncoding.JSON : EventEncoding.CBOR;
+            }
+        }
+        return EventEncoding.CBOR;
+    }
+}
@@ -0,0 +1,238 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.ChapterChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.ContentChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.ItemChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link PublishStage} that merges change events published in quick succession.
+ * <p>
+ * The first {@link ContentChangeEvent}, {@link ChapterChangeEvent} or {@link ItemChangeEvent} of a topic opens a window.
+ * Until the window closes, all change events of the same topic and {@link CrudOperation} are collected.
+ * When it closes, a single event with the union of their ids is published.
+ * As an {@link ItemChangeEvent} only carries a single id, item changes are published once per distinct item.
+ * <p>
+ * A change event with a different operation or type closes the open window of its topic first.
+ * Closed windows are published one after another in the order they were closed, so the order of the operations
+ * is preserved even if several threads publish change events of the same topic.
+ * The futures of all merged events complete when the merged event has been accepted.
+ * After the stage has been closed, change events are passed on unchanged, after the windows closed before.
+ * <p>
+ * A window is published by the thread that closes it, which may be a scheduler thread. The
+ * {@link PublishMetadata} of the merged events, e.g. their publish time and trace context, therefore describe the
+ * end of the window, not the calls that published the changes, and the stage cannot be used in
+ * {@link PublishMode#OUTBOX} mode, where the events must be written within the transaction of the caller.
+ */
+@Slf4j
+public class CoalescingStage implements PublishStage {
+
+    private final Duration window;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-coalescing").daemon().factory());
+    private final Map<DaprTopic, TopicWindow> windows = new EnumMap<>(DaprTopic.class);
+    private volatile boolean closed;
+
+    /**
+     * @param window time the change events of a topic are collected before they are published
+     */
+    public CoalescingStage(final Duration window) {
+        this.window = window;
+        for (final DaprTopic topic : DaprTopic.values()) {
+            windows.put(topic, new TopicWindow(topic));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> process(final Object event, final DaprTopic daprTopic, final Next next) {
+        final Changes changes = Changes.of(event);
+        if (changes == null) {
+            return next.publish(event, daprTopic);
+        }
+        return windows.get(daprTopic).add(event, changes, next);
+    }
+
+    @Override
+    public void flush() {
+        windows.values().forEach(TopicWindow::flush);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+        scheduler.shutdown();
+    }
+
+    /**
+     * The ids and the operation of a change event.
+     */
+    private record Changes(Class<?> type, CrudOperation operation, Collection<UUID> ids) {
+
+        private static Changes of(final Object event) {
+            return switch (event) {
+                case ContentChangeEvent e when e.getContentIds() != null ->
+                        new Changes(ContentChangeEvent.class, e.getOperation(), e.getContentIds());
+                case ChapterChangeEvent e when e.getChapterIds() != null ->
+                        new Changes(ChapterChangeEvent.class, e.getOperation(), e.getChapterIds());
+                case ItemChangeEvent e ->
+                        new Changes(ItemChangeEvent.class, e.getOperation(), Collections.singletonList(e.getItemId()));
+                case null, default -> null;
+            };
+        }
+
+        private List<Object> toEvents() {
+            if (type == ContentChangeEvent.class) {
+                return List.of(new ContentChangeEvent(new ArrayList<>(ids), operation));
+            }
+            if (type == ChapterChangeEvent.class) {
+                return List.of(new ChapterChangeEvent(new ArrayList<>(ids), operation));
+            }
+            return ids.stream()
+                    .<Object>map(id -> new ItemChangeEvent(id, operation))
+                    .toList();
+        }
+    }
+
+    /**
+     * Open window of a single topic. All access is synchronized on the window itself,
+     * the merged events are published outside the lock by one thread at a time.
+     */
+    private final class TopicWindow {
+
+        private final DaprTopic topic;
+
+        private Changes pending;
+        private List<CompletableFuture<Void>> futures;
+        private Next next;
+        private ScheduledFuture<?> timeout;
+
+        /**
+         * Closed windows that have not been published yet, in the order they were closed.
+         */
+        private final Queue<Runnable> closedWindows = new ArrayDeque<>();
+        private final AtomicBoolean publishing = new AtomicBoolean();
+
+        private TopicWindow(final DaprTopic topic) {
+            this.topic = topic;
+        }
+
+        private CompletableFuture<Void> add(final Object event, final Changes changes, final Next next) {
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            synchronized (this) {
+                if (closed) {
+                    if (pending != null) {
+                        closedWindows.add(drain());
+                    }
+                    // no window can be opened anymore, the event is passed on after the windows closed before
+                    closedWindows.add(() -> publishAll(List.of(event), next, List.of(future)));
+                } else {
+                    if (pending != null
+                        && (pending.type() != changes.type() || pending.operation() != changes.operation())) {
+                        closedWindows.add(drain());
+                    }
+                    if (pending == null) {
+                        pending = new Changes(changes.type(), changes.operation(), new LinkedHashSet<>());
+                        futures = new ArrayList<>();
+                        this.next = next;
+                        timeout = scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+                    }
+                    pending.ids().addAll(changes.ids());
+                    futures.add(future);
+                }
+            }
+            publishClosedWindows();
+            return future;
+        }
+
+        private void flush() {
+            synchronized (this) {
+                if (pending != null) {
+                    closedWindows.add(drain());
+                }
+            }
+            publishClosedWindows();
+        }
+
+        /**
+         * Publishes the closed windows in order. If another thread is already publishing them,
+         * it also publishes the windows closed by this thread.
+         */
+        private void publishClosedWindows() {
+            while (hasClosedWindows() && publishing.compareAndSet(false, true)) {
+                try {
+                    Runnable closedWindow;
+                    while ((closedWindow = pollClosedWindow()) != null) {
+                        closedWindow.run();
+                    }
+                } finally {
+                    publishing.set(false);
+                }
+            }
+        }
+
+        private synchronized boolean hasClosedWindows() {
+            return !closedWindows.isEmpty();
+        }
+
+        private synchronized Runnable pollClosedWindow() {
+            return closedWindows.poll();
+        }
+
+        /**
+         * Closes the open window. Must hold the lock.
+         *
+         * @return publishes the merged events of the closed window when run
+         */
+        private Runnable drain() {
+            timeout.cancel(false);
+            final Changes changes = pending;
+            final List<CompletableFuture<Void>> waiting = futures;
+            final Next publish = next;
+            pending = null;
+            futures = null;
+            next = null;
+            timeout = null;
+
+            return () -> {
+                log.debug("Merged {} change events to daprTopic {} with {} ids",
+                        waiting.size(), topic.getTopic(), changes.ids().size());
+                publishAll(changes.toEvents(), publish, waiting);
+            };
+        }
+
+        /**
+         * Publishes the events and completes the waiting futures once all of them have been accepted.
+         */
+        private void publishAll(final List<Object> events, final Next publish,
+                                final List<CompletableFuture<Void>> waiting) {
+            final CompletableFuture<?>[] published;
+            try {
+                published = events.stream()
+                        .map(event -> publish.publish(event, topic))
+                        .toArray(CompletableFuture[]::new);
+            } catch (final RuntimeException e) {
+                waiting.forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+            CompletableFuture.allOf(published).whenComplete((response, error) -> waiting.forEach(future -> {
+                if (error == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            }));
+        }
+    }
+}
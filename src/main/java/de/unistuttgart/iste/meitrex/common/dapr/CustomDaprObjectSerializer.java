@@ -1,22 +1,113 @@
 package de.unistuttgart.iste.meitrex.common.dapr;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import io.dapr.serializer.DefaultObjectSerializer;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Serializer used for the events published to and received from Dapr.
+ * <p>
+ * A typed {@link ObjectWriter} and {@link ObjectReader} is cached per class, so the serializers are only looked up
+ * once. Properties are accessed through generated lambdas of the {@link BlackbirdModule} instead of reflection, and
+ * the internal buffers of Jackson are taken from a shared pool instead of being allocated for each event.
+ * <p>
+ * Besides JSON, events can be encoded in the binary formats of {@link EventEncoding}.
+ * The methods of {@link io.dapr.serializer.DaprObjectSerializer} always use JSON.
+ */
 public class CustomDaprObjectSerializer extends DefaultObjectSerializer {
-    private static final ObjectMapper mapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule());
+    private static final Map<EventEncoding, Codec> codecs = new EnumMap<>(Map.of(
+            EventEncoding.JSON, new Codec(JsonFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.newConcurrentDequePool())
+                    .build()),
+            EventEncoding.CBOR, new Codec(CBORFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.newConcurrentDequePool())
+                    .build()),
+            EventEncoding.SMILE, new Codec(SmileFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.newConcurrentDequePool())
+                    .build())));
 
     @Override
     public byte[] serialize(Object state) throws IOException {
-        return mapper.writeValueAsBytes(state);
+        return serialize(state, EventEncoding.JSON);
+    }
+
+    /**
+     * Serializes an object in the given encoding.
+     * Byte arrays are passed through unchanged, as they contain events already serialized by the TopicPublisher.
+     *
+     * @param state    the object to serialize
+     * @param encoding the format to encode the object in
+     * @return the serialized object
+     * @throws IOException if the object cannot be serialized
+     */
+    public byte[] serialize(Object state, EventEncoding encoding) throws IOException {
+        if (state instanceof byte[] bytes) {
+            return bytes;
+        }
+        return codecs.get(encoding).serialize(state);
     }
 
     @Override
     public <T> T deserialize(byte[] content, Class<T> clazz) throws IOException {
-        return mapper.readValue(content, clazz);
+        return deserialize(content, clazz, EventEncoding.JSON);
+    }
+
+    /**
+     * Deserializes an object encoded in the given encoding.
+     *
+     * @param content  the serialized object
+     * @param clazz    the class of the object
+     * @param encoding the format the object is encoded in
+     * @return the deserialized object
+     * @throws IOException if the content cannot be deserialized
+     */
+    public <T> T deserialize(byte[] content, Class<T> clazz, EventEncoding encoding) throws IOException {
+        return codecs.get(encoding).deserialize(content, clazz);
+    }
+
+    /**
+     * Returns the mapper used for the given encoding, e.g. to read the envelope of an event.
+     */
+    ObjectMapper getMapper(EventEncoding encoding) {
+        return codecs.get(encoding).mapper;
+    }
+
+    /**
+     * Mapper of a single encoding with its cached writers and readers.
+     */
+    private static final class Codec {
+
+        private final ObjectMapper mapper;
+        private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+        private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+        private Codec(final JsonFactory factory) {
+            this.mapper = new ObjectMapper(factory)
+                    .registerModule(new JavaTimeModule())
+                    .registerModule(new BlackbirdModule());
+        }
+
+        private byte[] serialize(final Object state) throws IOException {
+            if (state == null) {
+                return mapper.writeValueAsBytes(null);
+            }
+            return writers.computeIfAbsent(state.getClass(), mapper::writerFor).writeValueAsBytes(state);
+        }
+
+        private <T> T deserialize(final byte[] content, final Class<T> clazz) throws IOException {
+            return readers.computeIfAbsent(clazz, mapper::readerFor).readValue(content);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.PublishEventRequest;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatcher that sends every event in its own publish request to the Dapr sidecar.
+ */
+@RequiredArgsConstructor
+public class DirectEventDispatcher implements EventDispatcher {
+
+    private final DaprClient client;
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        final PublishEventRequest request = new PublishEventRequest(TopicPublisher.PUBSUB_NAME,
+                event.getTopic().getTopic(), event.getPayload())
+                .setContentType(event.getContentType())
+                .setMetadata(event.getMetadata());
+        return client.publishEvent(request).toFuture();
+    }
+}
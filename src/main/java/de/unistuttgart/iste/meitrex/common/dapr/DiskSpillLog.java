@@ -0,0 +1,391 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only {@link SpillBuffer} that stores events in memory-mapped segment files.
+ * <p>
+ * Events are appended to the newest segment. When it is full, a new segment is created.
+ * Events are read from the oldest segment and marked as replayed in the file, so that they are not replayed again
+ * after a restart. Segments whose events have all been replayed are deleted.
+ * Only the oldest and the newest segment are accessed, so the memory used stays the same
+ * no matter how many events are spilled.
+ * <p>
+ * A record in a segment consists of its length, its state (pending or replayed),
+ * the name of its {@link DaprTopic}, the content type, the metadata and the payload of the event.
+ * The end of the written records is marked by a length of {@code 0}, a full segment is sealed with a length of {@code -1}.
+ * The topic, the content type and the encoded metadata are prefixed with their length as 16-bit value, so events
+ * whose topic, content type or metadata exceed {@value #MAX_FIELD_LENGTH} bytes are rejected.
+ */
+@Slf4j
+public class DiskSpillLog implements SpillBuffer, AutoCloseable {
+
+    private static final String SEGMENT_SUFFIX = ".spill";
+
+    private static final int END_OF_RECORDS = 0;
+    private static final int END_OF_SEGMENT = -1;
+
+    private static final int MAX_FIELD_LENGTH = Short.MAX_VALUE;
+
+    private static final byte PENDING = 0;
+    private static final byte REPLAYED = 1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    /**
+     * Segments ordered from oldest to newest. Events are read from the first and appended to the last segment.
+     */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentNumber;
+    private int size;
+
+    /**
+     * Opens the spill log in the given directory. Events left from a previous run are recovered.
+     *
+     * @param directory   directory the segment files are stored in
+     * @param segmentSize size of a segment file in bytes
+     * @param maxSegments maximum number of segment files, events are rejected when all segments are full
+     * @throws IOException if the directory or the existing segments cannot be read
+     */
+    public DiskSpillLog(final Path directory, final int segmentSize, final int maxSegments) throws IOException {
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("maxSegments must be at least 1, but was " + maxSegments);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    @Override
+    public synchronized boolean offer(final OutgoingEvent event) {
+        final byte[] topic = event.getTopic().name().getBytes(StandardCharsets.UTF_8);
+        final byte[] contentType = event.getContentType().getBytes(StandardCharsets.UTF_8);
+        final byte[] metadata = encodeMetadata(event.getMetadata());
+        if (topic.length > MAX_FIELD_LENGTH || contentType.length > MAX_FIELD_LENGTH
+            || metadata.length > MAX_FIELD_LENGTH) {
+            log.warn("Topic, content type or metadata of event for daprTopic {} exceed {} bytes, rejecting event",
+                    event.getTopic().getTopic(), MAX_FIELD_LENGTH);
+            return false;
+        }
+        final int recordLength = Byte.BYTES + Short.BYTES + topic.length + Short.BYTES + contentType.length
+                + Short.BYTES + metadata.length + event.getPayload().length;
+        // the record itself and the marker following it
+        final int requiredSpace = Integer.BYTES + recordLength + Integer.BYTES;
+
+        try {
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.remaining() < requiredSpace) {
+                if (segments.size() >= maxSegments) {
+                    log.warn("Spill log in {} is full, rejecting event for daprTopic {}",
+                            directory, event.getTopic().getTopic());
+                    return false;
+                }
+                if (segment != null) {
+                    segment.seal();
+                }
+                segment = createSegment(Math.max(segmentSize, requiredSpace));
+            }
+
+            segment.append(recordLength, topic, contentType, metadata, event.getPayload());
+            size++;
+            return true;
+        } catch (final IOException e) {
+            log.error("Error while writing event for daprTopic {} to spill log: {}",
+                    event.getTopic().getTopic(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized OutgoingEvent peek() {
+        final Segment segment = advanceToPendingRecord();
+        return segment == null ? null : segment.read();
+    }
+
+    @Override
+    public synchronized OutgoingEvent poll() {
+        final Segment segment = advanceToPendingRecord();
+        if (segment == null) {
+            return null;
+        }
+        final OutgoingEvent event = segment.read();
+        segment.markReplayed();
+        size--;
+        return event;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Writes all changes of the mapped segments to disk.
+     */
+    @Override
+    public synchronized void close() {
+        segments.forEach(segment -> segment.buffer.force());
+    }
+
+    /**
+     * Moves the read position to the next pending record and deletes segments that were replayed completely.
+     *
+     * @return the segment containing the next pending record or {@code null} if there is none
+     */
+    private Segment advanceToPendingRecord() {
+        while (!segments.isEmpty()) {
+            final Segment segment = segments.peekFirst();
+            if (segment.skipToPendingRecord()) {
+                return segment;
+            }
+            if (segment == segments.peekLast()) {
+                // the newest segment is kept for appending
+                return null;
+            }
+            segments.pollFirst();
+            delete(segment);
+        }
+        return null;
+    }
+
+    private void recover() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (final Path file : files) {
+            final String fileName = file.getFileName().toString();
+            final long number = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+            final Segment segment = new Segment(file, map(file, Files.size(file), StandardOpenOption.READ, StandardOpenOption.WRITE));
+            size += segment.recover();
+            segments.addLast(segment);
+            nextSegmentNumber = number + 1;
+        }
+
+        if (size > 0) {
+            log.info("Recovered {} events from spill log in {}", size, directory);
+        }
+    }
+
+    /**
+     * Encodes metadata as number of entries, followed by the length and bytes of every key and value.
+     * The lengths only fit into the encoding if the encoded metadata does not exceed {@value #MAX_FIELD_LENGTH} bytes.
+     */
+    private static byte[] encodeMetadata(final Map<String, String> metadata) {
+        final List<byte[]> parts = new ArrayList<>(metadata.size() * 2);
+        int length = Short.BYTES;
+        for (final Map.Entry<String, String> entry : metadata.entrySet()) {
+            for (final String part : List.of(entry.getKey(), entry.getValue())) {
+                final byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                parts.add(bytes);
+                length += Short.BYTES + bytes.length;
+            }
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putShort((short) metadata.size());
+        for (final byte[] part : parts) {
+            buffer.putShort((short) part.length);
+            buffer.put(part);
+        }
+        return buffer.array();
+    }
+
+    private static Map<String, String> decodeMetadata(final ByteBuffer buffer) {
+        final int count = buffer.getShort();
+        final Map<String, String> metadata = HashMap.newHashMap(count);
+        for (int i = 0; i < count; i++) {
+            metadata.put(readString(buffer), readString(buffer));
+        }
+        return metadata;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Segment createSegment(final int capacity) throws IOException {
+        final Path file = directory.resolve(String.format("%020d%s", nextSegmentNumber++, SEGMENT_SUFFIX));
+        final Segment segment = new Segment(file,
+                map(file, capacity, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(final Path file, final long capacity, final StandardOpenOption... options)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    private void delete(final Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (final IOException e) {
+            log.error("Error while deleting replayed spill log segment {}: {}", segment.file, e.getMessage());
+        }
+    }
+
+    /**
+     * A single memory-mapped segment file.
+     */
+    private static final class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int readPosition;
+        private int writePosition;
+
+        private Segment(final Path file, final MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Restores the read and write position of a segment written by a previous run.
+         *
+         * @return the number of pending records in the segment
+         */
+        private int recover() {
+            int pendingRecords = 0;
+            int position = 0;
+            int firstPendingPosition = -1;
+            while (position + Integer.BYTES <= buffer.capacity()) {
+                final int length = buffer.getInt(position);
+                if (length == END_OF_SEGMENT) {
+                    position = buffer.capacity();
+                    break;
+                }
+                if (length == END_OF_RECORDS) {
+                    break;
+                }
+                if (buffer.get(position + Integer.BYTES) == PENDING) {
+                    pendingRecords++;
+                    if (firstPendingPosition < 0) {
+                        firstPendingPosition = position;
+                    }
+                }
+                position += Integer.BYTES + length;
+            }
+            writePosition = position;
+            readPosition = firstPendingPosition < 0 ? position : firstPendingPosition;
+            return pendingRecords;
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        private void append(final int recordLength, final byte[] topic, final byte[] contentType,
+                            final byte[] metadata, final byte[] payload) {
+            final int start = writePosition;
+            int position = start + Integer.BYTES;
+            buffer.put(position, PENDING);
+            position += Byte.BYTES;
+            buffer.putShort(position, (short) topic.length);
+            position += Short.BYTES;
+            buffer.put(position, topic);
+            position += topic.length;
+            buffer.putShort(position, (short) contentType.length);
+            position += Short.BYTES;
+            buffer.put(position, contentType);
+            position += contentType.length;
+            buffer.putShort(position, (short) metadata.length);
+            position += Short.BYTES;
+            buffer.put(position, metadata);
+            position += metadata.length;
+            buffer.put(position, payload);
+            position += payload.length;
+
+            // the length is written last, so that an interrupted write is not mistaken for a record
+            buffer.putInt(position, END_OF_RECORDS);
+            buffer.putInt(start, recordLength);
+            writePosition = position;
+        }
+
+        private void seal() {
+            if (remaining() >= Integer.BYTES) {
+                buffer.putInt(writePosition, END_OF_SEGMENT);
+            }
+            writePosition = buffer.capacity();
+            buffer.force();
+        }
+
+        /**
+         * Moves the read position to the next pending record of this segment.
+         *
+         * @return {@code false} if there are no pending records left in this segment
+         */
+        private boolean skipToPendingRecord() {
+            while (readPosition + Integer.BYTES <= buffer.capacity()) {
+                final int length = buffer.getInt(readPosition);
+                if (length == END_OF_RECORDS || length == END_OF_SEGMENT) {
+                    return false;
+                }
+                if (buffer.get(readPosition + Integer.BYTES) == PENDING) {
+                    return true;
+                }
+                readPosition += Integer.BYTES + length;
+            }
+            return false;
+        }
+
+        private OutgoingEvent read() {
+            final int length = buffer.getInt(readPosition);
+            int position = readPosition + Integer.BYTES + Byte.BYTES;
+            final byte[] topic = new byte[buffer.getShort(position)];
+            position += Short.BYTES;
+            buffer.get(position, topic);
+            position += topic.length;
+            final byte[] contentType = new byte[buffer.getShort(position)];
+            position += Short.BYTES;
+            buffer.get(position, contentType);
+            position += contentType.length;
+            final byte[] metadata = new byte[buffer.getShort(position)];
+            position += Short.BYTES;
+            buffer.get(position, metadata);
+            position += metadata.length;
+            final byte[] payload = new byte[readPosition + Integer.BYTES + length - position];
+            buffer.get(position, payload);
+
+            return OutgoingEvent.builder()
+                    .topic(DaprTopic.valueOf(new String(topic, StandardCharsets.UTF_8)))
+                    .payload(payload)
+                    .contentType(new String(contentType, StandardCharsets.UTF_8))
+                    .metadata(decodeMetadata(ByteBuffer.wrap(metadata)))
+                    .build();
+        }
+
+        private void markReplayed() {
+            buffer.put(readPosition + Integer.BYTES, REPLAYED);
+            readPosition += Integer.BYTES + buffer.getInt(readPosition);
+        }
+    }
+}
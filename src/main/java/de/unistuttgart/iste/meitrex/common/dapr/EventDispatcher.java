@@ -0,0 +1,34 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Strategy used by the {@link TopicPublisher} to hand serialized events to the Dapr sidecar.
+ */
+public interface EventDispatcher extends AutoCloseable {
+
+    /**
+     * Dispatches the given event.
+     *
+     * @param event the serialized event
+     * @return a future that completes when the sidecar has accepted the event
+     * or completes exceptionally if publishing failed
+     */
+    CompletableFuture<Void> dispatch(OutgoingEvent event);
+
+    /**
+     * Sends all events that are buffered by this dispatcher.
+     * Dispatchers that do not buffer events do nothing.
+     */
+    default void flush() {
+        // nothing buffered by default
+    }
+
+    /**
+     * Flushes all buffered events and releases the resources of this dispatcher.
+     */
+    @Override
+    default void close() {
+        flush();
+    }
+}
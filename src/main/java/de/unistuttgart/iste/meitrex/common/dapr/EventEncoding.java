@@ -0,0 +1,89 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * Format the {@link TopicPublisher} encodes the events of a {@link DaprTopic} in.
+ * <p>
+ * The binary formats produce smaller payloads and are faster to parse than JSON, as UUIDs are encoded
+ * as 16 raw bytes and repeated field names are shortened.
+ * Dapr only passes binary payloads through unchanged if they are published as
+ * {@value OutgoingEvent#BINARY_CONTENT_TYPE}, so events in a binary format are published with this content type
+ * and their encoding is carried in the cloud event extension {@value OutgoingEvent#ENCODING_EXTENSION}.
+ * The {@link CloudEventDecoder} selects the format to decode an event in from this extension.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EventEncoding {
+
+    JSON(OutgoingEvent.JSON_CONTENT_TYPE),
+
+    /**
+     * Concise Binary Object Representation, see RFC 8949.
+     */
+    CBOR("application/cbor"),
+
+    /**
+     * The binary JSON format of Jackson.
+     */
+    SMILE("application/x-jackson-smile");
+
+    private final String contentType;
+
+    /**
+     * @return the content type events in this encoding are published with
+     */
+    public String getPublishedContentType() {
+        return this == JSON ? contentType : OutgoingEvent.BINARY_CONTENT_TYPE;
+    }
+
+    /**
+     * @return the name of the encoding as used in the {@value OutgoingEvent#ENCODING_EXTENSION} extension
+     */
+    public String getExtensionValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the encoding named in the {@value OutgoingEvent#ENCODING_EXTENSION} extension of a cloud event.
+     *
+     * @param value the value of the extension
+     * @return the encoding with the given name
+     * @throws IllegalArgumentException if the encoding is not supported
+     */
+    public static EventEncoding fromExtensionValue(final String value) {
+        for (final EventEncoding encoding : values()) {
+            if (encoding.getExtensionValue().equalsIgnoreCase(value.trim())) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported encoding " + value);
+    }
+
+    /**
+     * Returns the encoding of the given content type. Parameters of the content type, e.g. the charset, are ignored.
+     *
+     * @param contentType the content type, {@code null} is treated as JSON
+     * @return the encoding of the content type
+     * @throws IllegalArgumentException if the content type is not supported
+     */
+    public static EventEncoding fromContentType(final String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return JSON;
+        }
+        final int parametersStart = contentType.indexOf(';');
+        final String mediaType = (parametersStart < 0 ? contentType : contentType.substring(0, parametersStart)).trim();
+        for (final EventEncoding encoding : values()) {
+            if (encoding.contentType.equalsIgnoreCase(mediaType)) {
+                return encoding;
+            }
+        }
+        if (mediaType.toLowerCase().endsWith("+json")) {
+            return JSON;
+        }
+        throw new IllegalArgumentException("Unsupported content type " + contentType);
+    }
+}
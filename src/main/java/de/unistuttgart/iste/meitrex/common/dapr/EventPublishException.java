@@ -0,0 +1,15 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+/**
+ * Thrown when an event could not be published to its {@link DaprTopic}.
+ */
+public class EventPublishException extends RuntimeException {
+
+    public EventPublishException(final String message) {
+        super(message);
+    }
+
+    public EventPublishException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
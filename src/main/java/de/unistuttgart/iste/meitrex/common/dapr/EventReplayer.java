@@ -0,0 +1,129 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.iste.meitrex.common.dapr.listener.EventHandlingStatus;
+import de.unistuttgart.iste.meitrex.common.dapr.listener.EventListenerDispatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays events recorded by a {@link RecordingTopicPublisher} into consumers, e.g. to load-test them locally
+ * without Dapr.
+ * <p>
+ * Events are delivered with the same time between them as when they were recorded, divided by the speed-up.
+ * A speed-up of {@code 10} replays ten minutes of recorded events in one minute,
+ * {@link Double#POSITIVE_INFINITY} replays all events as fast as possible.
+ */
+@Slf4j
+public class EventReplayer implements AutoCloseable {
+
+    /**
+     * Receives the replayed events.
+     */
+    @FunctionalInterface
+    public interface Target {
+
+        /**
+         * @param event the replayed event
+         * @return a future completing when the event has been handled
+         */
+        CompletableFuture<?> deliver(RecordedEvent event);
+    }
+
+    private final Target target;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-event-replayer").daemon().factory());
+
+    /**
+     * @param target the consumer the events are delivered to
+     */
+    public EventReplayer(final Target target) {
+        this.target = target;
+    }
+
+    /**
+     * Creates a replayer that delivers the events to the {@link de.unistuttgart.iste.meitrex.common.dapr.listener.DaprEventListener}s
+     * of a service, wrapped in cloud events like Dapr does.
+     *
+     * @param dispatcher the dispatcher of the listeners
+     * @return the replayer
+     */
+    public static EventReplayer toListeners(final EventListenerDispatcher dispatcher) {
+        final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+        final ObjectMapper mapper = new ObjectMapper();
+        return new EventReplayer(event -> {
+            final byte[] body;
+            try {
+                final ObjectNode cloudEvent = mapper.createObjectNode()
+                        .put("id", PublishMetadata.create().get(OutgoingEvent.EVENT_ID_METADATA))
+                        .put("topic", event.topic().getTopic())
+                        .put("datacontenttype", OutgoingEvent.JSON_CONTENT_TYPE);
+                cloudEvent.set("data", mapper.readTree(serializer.serialize(event.event())));
+                body = mapper.writeValueAsBytes(cloudEvent);
+            } catch (final IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return dispatcher.dispatch(event.topic(), body).thenAccept(status -> {
+                if (status != EventHandlingStatus.SUCCESS) {
+                    log.warn("Replayed event {} of topic {} was not handled: {}",
+                            event.sequenceNo(), event.topic().getTopic(), status);
+                }
+            });
+        });
+    }
+
+    /**
+     * Replays the given events.
+     *
+     * @param events  the events to replay, ordered by their publish time
+     * @param speedUp factor by which the replay is faster than the recording, must be positive
+     * @return a future completing when all events have been handled,
+     * or completing exceptionally if at least one event could not be handled
+     */
+    public CompletableFuture<Void> replay(final List<RecordedEvent> events, final double speedUp) {
+        if (!(speedUp > 0)) {
+            throw new IllegalArgumentException("speedUp must be positive, but was " + speedUp);
+        }
+        if (events.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final long firstPublishedAt = events.getFirst().publishedAt().toEpochMilli();
+        final CompletableFuture<?>[] delivered = new CompletableFuture<?>[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            final RecordedEvent event = events.get(i);
+            final long delayNanos = (long) (Duration.ofMillis(event.publishedAt().toEpochMilli() - firstPublishedAt)
+                    .toNanos() / speedUp);
+            final CompletableFuture<Object> future = new CompletableFuture<>();
+            delivered[i] = future;
+            scheduler.schedule(() -> deliver(event, future), delayNanos, TimeUnit.NANOSECONDS);
+        }
+        return CompletableFuture.allOf(delivered);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void deliver(final RecordedEvent event, final CompletableFuture<Object> future) {
+        try {
+            target.deliver(event).whenComplete((result, error) -> {
+                if (error == null) {
+                    future.complete(result);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            });
+        } catch (final RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
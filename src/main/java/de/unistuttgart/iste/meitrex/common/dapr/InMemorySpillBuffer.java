@@ -0,0 +1,40 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link SpillBuffer} that keeps a bounded number of events on the heap.
+ * Events in this buffer are lost when the service stops.
+ */
+public class InMemorySpillBuffer implements SpillBuffer {
+
+    private final BlockingQueue<OutgoingEvent> events;
+
+    /**
+     * @param capacity maximum number of events in the buffer
+     */
+    public InMemorySpillBuffer(final int capacity) {
+        this.events = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public boolean offer(final OutgoingEvent event) {
+        return events.offer(event);
+    }
+
+    @Override
+    public OutgoingEvent peek() {
+        return events.peek();
+    }
+
+    @Override
+    public OutgoingEvent poll() {
+        return events.poll();
+    }
+
+    @Override
+    public int size() {
+        return events.size();
+    }
+}
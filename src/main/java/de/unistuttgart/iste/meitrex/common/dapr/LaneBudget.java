@@ -0,0 +1,28 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resources of the lane of a {@link PublishPriority}, see {@link PriorityEventDispatcher}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LaneBudget {
+
+    /**
+     * Maximum number of publishes of the lane in flight at the same time.
+     */
+    @Builder.Default
+    private int maxConcurrency = 64;
+
+    /**
+     * Maximum number of events waiting for a free publish slot. Events are rejected when the queue is full.
+     */
+    @Builder.Default
+    private int queueCapacity = 10_000;
+}
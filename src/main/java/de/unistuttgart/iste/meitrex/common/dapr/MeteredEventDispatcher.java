@@ -0,0 +1,99 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher that records metrics of the publishes of its delegate, tagged with the {@link DaprTopic}:
+ * <ul>
+ *     <li>{@code dapr.publisher.latency}: time until the publish completed</li>
+ *     <li>{@code dapr.publisher.payload.size}: size of the serialized events in bytes</li>
+ *     <li>{@code dapr.publisher.events}: number of published events, tagged with the outcome {@code success} or {@code failure}</li>
+ * </ul>
+ */
+public class MeteredEventDispatcher implements EventDispatcher {
+
+    private final EventDispatcher delegate;
+    private final Map<DaprTopic, TopicMeters> meters = new EnumMap<>(DaprTopic.class);
+
+    /**
+     * @param delegate      the dispatcher that publishes the events
+     * @param meterRegistry registry the metrics are registered in
+     */
+    public MeteredEventDispatcher(final EventDispatcher delegate, final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        for (final DaprTopic topic : DaprTopic.values()) {
+            meters.put(topic, new TopicMeters(topic, meterRegistry));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        final TopicMeters topicMeters = meters.get(event.getTopic());
+        topicMeters.payloadSize.record(event.getPayload().length);
+
+        final long start = System.nanoTime();
+        final CompletableFuture<Void> future;
+        try {
+            future = delegate.dispatch(event);
+        } catch (final RuntimeException e) {
+            topicMeters.failures.increment();
+            throw e;
+        }
+        return future.whenComplete((response, error) -> {
+            topicMeters.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                topicMeters.successes.increment();
+            } else {
+                topicMeters.failures.increment();
+            }
+        });
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static final class TopicMeters {
+
+        private final Timer latency;
+        private final DistributionSummary payloadSize;
+        private final Counter successes;
+        private final Counter failures;
+
+        private TopicMeters(final DaprTopic topic, final MeterRegistry meterRegistry) {
+            latency = Timer.builder("dapr.publisher.latency")
+                    .description("Time until a publish to the Dapr sidecar completed")
+                    .tag("topic", topic.getTopic())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            payloadSize = DistributionSummary.builder("dapr.publisher.payload.size")
+                    .description("Size of the serialized events")
+                    .baseUnit("bytes")
+                    .tag("topic", topic.getTopic())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            successes = Counter.builder("dapr.publisher.events")
+                    .description("Number of events published to the Dapr sidecar")
+                    .tags("topic", topic.getTopic(), "outcome", "success")
+                    .register(meterRegistry);
+            failures = Counter.builder("dapr.publisher.events")
+                    .description("Number of events published to the Dapr sidecar")
+                    .tags("topic", topic.getTopic(), "outcome", "failure")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatcher that publishes events with the same partition key in order, while events with different keys
+ * are published in parallel.
+ * <p>
+ * Events are assigned to a fixed number of lanes by the hash of their {@link OutgoingEvent#getPartitionKey()}.
+ * An event is handed to the delegate as soon as the previous event of its lane has completed, no matter
+ * whether it succeeded or failed. The lanes do not occupy threads while they wait, as the publishes themselves
+ * are asynchronous. Events without a partition key are handed to the delegate immediately.
+ */
+public class OrderedEventDispatcher implements EventDispatcher {
+
+    private final EventDispatcher delegate;
+    private final Lane[] lanes;
+
+    /**
+     * @param delegate  the dispatcher that publishes the events
+     * @param laneCount number of lanes, i.e. the maximum number of partition keys published in parallel
+     */
+    public OrderedEventDispatcher(final EventDispatcher delegate, final int laneCount) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("laneCount must be at least 1, but was " + laneCount);
+        }
+        this.delegate = delegate;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        if (event.getPartitionKey() == null) {
+            return delegate.dispatch(event);
+        }
+        return lanes[Math.floorMod(event.getPartitionKey().hashCode(), lanes.length)].enqueue(event);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * A single lane. The events of a lane are chained, so that every event is dispatched
+     * after the previous one has completed.
+     */
+    private final class Lane {
+
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        private synchronized CompletableFuture<Void> enqueue(final OutgoingEvent event) {
+            // a failed event must not stop the following events of the lane
+            final CompletableFuture<Void> result = tail
+                    .handle((response, error) -> null)
+                    .thenCompose(ignored -> delegate.dispatch(event));
+            tail = result;
+            return result;
+        }
+    }
+}
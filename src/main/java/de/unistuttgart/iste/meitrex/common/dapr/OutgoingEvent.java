@@ -0,0 +1,88 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * An event that has been serialized by the {@link TopicPublisher} and is ready to be handed
+ * to an {@link EventDispatcher}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class OutgoingEvent {
+
+    /**
+     * Content type of events serialized as JSON.
+     */
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    /**
+     * Content type of events in a binary {@link EventEncoding}. Dapr only embeds payloads of this content type
+     * as raw bytes in the cloud event, payloads of any other content type are embedded as string.
+     */
+    public static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * Name of the cloud event extension that holds the {@link EventEncoding} of a binary payload.
+     */
+    public static final String ENCODING_EXTENSION = "payloadencoding";
+
+    /**
+     * Metadata key of the {@link #ENCODING_EXTENSION}. Dapr adds metadata prefixed with {@code cloudevent.}
+     * as attribute to the cloud event the event is wrapped in.
+     */
+    public static final String ENCODING_METADATA = "cloudevent." + ENCODING_EXTENSION;
+
+    /**
+     * Metadata key of the event id. Dapr uses it as id of the cloud event the event is wrapped in.
+     */
+    public static final String EVENT_ID_METADATA = "cloudevent.id";
+
+    /**
+     * The topic the event is published to.
+     */
+    DaprTopic topic;
+
+    /**
+     * The serialized event.
+     */
+    byte[] payload;
+
+    /**
+     * Content type of the payload, see {@link EventEncoding}.
+     */
+    @Builder.Default
+    String contentType = JSON_CONTENT_TYPE;
+
+    /**
+     * Key of the events that must be published in order, {@code null} if the event can be published in any order.
+     * See {@link OrderedEventDispatcher}.
+     */
+    String partitionKey;
+
+    /**
+     * Metadata passed to the Dapr sidecar together with the event, e.g. the {@link #EVENT_ID_METADATA event id}.
+     */
+    @Builder.Default
+    Map<String, String> metadata = Map.of();
+
+    /**
+     * @return the unique id of the event, {@code null} if the event has no id
+     */
+    public String getEventId() {
+        return metadata.get(EVENT_ID_METADATA);
+    }
+
+    /**
+     * @return the encoding of the payload, taken from the {@link #ENCODING_METADATA encoding metadata}
+     * or from the content type if the event has no such metadata
+     */
+    public EventEncoding getEncoding() {
+        final String encoding = metadata.get(ENCODING_METADATA);
+        return encoding == null
+                ? EventEncoding.fromContentType(contentType)
+                : EventEncoding.fromExtensionValue(encoding);
+    }
+}
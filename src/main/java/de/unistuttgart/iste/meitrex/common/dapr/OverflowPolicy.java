@@ -0,0 +1,25 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+/**
+ * Determines what happens to an event that is published while the maximum number of publishes is in flight,
+ * see {@link BackpressureEventDispatcher}.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The caller is blocked until a publish completes or the block timeout elapses.
+     * If the timeout elapses, the event is dropped.
+     */
+    BLOCK,
+
+    /**
+     * The event is dropped and counted in the {@code dapr.publisher.dropped} metric.
+     */
+    DROP,
+
+    /**
+     * The event is stored in a {@link SpillBuffer} and published as soon as a publish completes.
+     * If the spill buffer is full, the event is dropped.
+     */
+    SPILL
+}
@@ -0,0 +1,75 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Determines the partition key of an event from the properties configured for its {@link DaprTopic},
+ * e.g. {@code userId} for {@link DaprTopic#USER_PROGRESS_UPDATED}.
+ * <p>
+ * Events with the same partition key are published in order by the {@link OrderedEventDispatcher}.
+ * If several properties are configured, the key consists of all their values.
+ */
+public class PartitionKeyExtractor {
+
+    /**
+     * Extractor that does not assign partition keys to any event.
+     */
+    public static final PartitionKeyExtractor NONE = new PartitionKeyExtractor(Map.of());
+
+    private final Map<DaprTopic, List<String>> properties;
+    private final Map<Class<?>, Map<String, Method>> getters = new ConcurrentHashMap<>();
+
+    /**
+     * @param properties the names of the properties forming the partition key per topic
+     */
+    public PartitionKeyExtractor(final Map<DaprTopic, List<String>> properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param event     the event to publish
+     * @param daprTopic the topic the event is published to
+     * @return the partition key of the event or {@code null} if the topic is not partitioned
+     * @throws IllegalArgumentException if the event does not have one of the configured properties
+     */
+    public String extract(final Object event, final DaprTopic daprTopic) {
+        final List<String> keyProperties = properties.get(daprTopic);
+        if (keyProperties == null || keyProperties.isEmpty() || event == null) {
+            return null;
+        }
+        if (keyProperties.size() == 1) {
+            return Objects.toString(read(event, keyProperties.getFirst()));
+        }
+        return keyProperties.stream()
+                .map(property -> Objects.toString(read(event, property)))
+                .collect(Collectors.joining(":"));
+    }
+
+    private Object read(final Object event, final String property) {
+        final Method getter = getters.computeIfAbsent(event.getClass(), clazz -> new ConcurrentHashMap<>())
+                .computeIfAbsent(property, name -> findGetter(event.getClass(), name));
+        try {
+            return getter.invoke(event);
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot read partition key " + property + " of "
+                                               + event.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Method findGetter(final Class<?> clazz, final String property) {
+        final PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(clazz, property);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            throw new IllegalArgumentException(clazz.getSimpleName() + " has no property " + property);
+        }
+        return descriptor.getReadMethod();
+    }
+}
@@ -0,0 +1,140 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the payload of large events with gzip.
+ * <p>
+ * Compressed events are published as {@value OutgoingEvent#BINARY_CONTENT_TYPE}, so that Dapr passes the compressed
+ * bytes through unchanged. The compression is carried in the {@value #COMPRESSION_METADATA} metadata and the
+ * {@link EventEncoding} of the compressed payload in the {@value OutgoingEvent#ENCODING_METADATA} metadata,
+ * which Dapr adds as extensions to the cloud event.
+ * The {@link CloudEventDecoder} decompresses these events automatically.
+ * Events smaller than the threshold are published unchanged, as compressing them costs more than it saves.
+ */
+public class PayloadCompressor {
+
+    /**
+     * Name of the cloud event extension that holds the compression of the payload.
+     */
+    public static final String COMPRESSION_EXTENSION = "payloadcompression";
+
+    /**
+     * Metadata key of the {@link #COMPRESSION_EXTENSION}.
+     */
+    public static final String COMPRESSION_METADATA = "cloudevent." + COMPRESSION_EXTENSION;
+
+    /**
+     * Value of the {@link #COMPRESSION_EXTENSION} of payloads compressed with gzip.
+     */
+    public static final String GZIP = "gzip";
+
+    /**
+     * Compressor that never compresses events.
+     */
+    public static final PayloadCompressor DISABLED = new PayloadCompressor(Integer.MAX_VALUE, Deflater.DEFAULT_COMPRESSION);
+
+    private final int threshold;
+    private final int level;
+
+    /**
+     * @param threshold minimum size of a payload in bytes to be compressed
+     * @param level     compression level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     *                  or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public PayloadCompressor(final int threshold, final int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level " + level);
+        }
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    /**
+     * Compresses the payload of the event if it is at least as large as the threshold.
+     *
+     * @param event the serialized event
+     * @return the event with the compressed payload, or the given event if it was not compressed
+     */
+    public OutgoingEvent compress(final OutgoingEvent event) {
+        final byte[] payload = event.getPayload();
+        if (payload.length < threshold || isCompressed(event)) {
+            return event;
+        }
+
+        final byte[] compressed = gzip(payload);
+        if (compressed.length >= payload.length) {
+            return event;
+        }
+        final Map<String, String> metadata = new HashMap<>(event.getMetadata());
+        metadata.put(OutgoingEvent.ENCODING_METADATA, event.getEncoding().getExtensionValue());
+        metadata.put(COMPRESSION_METADATA, GZIP);
+        return event.toBuilder()
+                .payload(compressed)
+                .contentType(OutgoingEvent.BINARY_CONTENT_TYPE)
+                .metadata(Map.copyOf(metadata))
+                .build();
+    }
+
+    /**
+     * @param event a serialized event
+     * @return whether the payload of the event is compressed
+     */
+    public static boolean isCompressed(final OutgoingEvent event) {
+        return isCompressed(event.getMetadata().get(COMPRESSION_METADATA));
+    }
+
+    /**
+     * @param compression the value of the {@value #COMPRESSION_EXTENSION} extension, {@code null} if there is none
+     * @return whether a payload with this compression is compressed
+     * @throws IllegalArgumentException if the compression is not supported
+     */
+    public static boolean isCompressed(final String compression) {
+        if (compression == null || compression.isBlank()) {
+            return false;
+        }
+        if (GZIP.equalsIgnoreCase(compression.trim())) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unsupported compression " + compression);
+    }
+
+    /**
+     * @param payload a payload compressed with gzip
+     * @return the decompressed payload
+     * @throws IOException if the payload is not a valid gzip stream
+     */
+    public static byte[] decompress(final byte[] payload) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private byte[] gzip(final byte[] payload) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new LeveledGZIPOutputStream(out, level)) {
+            gzip.write(payload);
+        } catch (final IOException e) {
+            // cannot happen, as the stream writes to memory
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        private LeveledGZIPOutputStream(final ByteArrayOutputStream out, final int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dispatcher that separates the events of the topics into lanes by their {@link PublishPriority}.
+ * <p>
+ * Every lane may have up to {@link LaneBudget#getMaxConcurrency()} publishes of its delegate in flight.
+ * Further events wait in a bounded queue of the lane and are published in order as soon as a publish of the same
+ * lane completes. Events are rejected with an {@link EventPublishException} when the queue is full.
+ * As the lanes do not share any budget, a burst of bulk events never delays interactive events.
+ * Queued events are dispatched on the thread that completed the previous publish, not the publishing thread,
+ * so the dispatcher cannot be used with the {@link de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxEventDispatcher}.
+ * <p>
+ * The number of queued and in-flight events per lane is exposed as the gauges {@code dapr.publisher.lane.queued}
+ * and {@code dapr.publisher.lane.inflight} with the tag {@code priority}.
+ */
+@Slf4j
+public class PriorityEventDispatcher implements EventDispatcher {
+
+    private final EventDispatcher delegate;
+    private final Map<DaprTopic, PublishPriority> topicPriorities;
+    private final MeterRegistry meterRegistry;
+    private final Map<PublishPriority, Lane> lanes = new EnumMap<>(PublishPriority.class);
+
+    /**
+     * @param delegate        the dispatcher that publishes the events
+     * @param topicPriorities priority per topic, topics that are not listed have the priority
+     *                        {@link PublishPriority#NORMAL}
+     * @param budgets         budget per priority, priorities that are not listed use the defaults of {@link LaneBudget}
+     * @param meterRegistry   registry the metrics are registered in
+     */
+    public PriorityEventDispatcher(final EventDispatcher delegate,
+                                   final Map<DaprTopic, PublishPriority> topicPriorities,
+                                   final Map<PublishPriority, LaneBudget> budgets,
+                                   final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.topicPriorities = topicPriorities;
+        this.meterRegistry = meterRegistry;
+
+        for (final PublishPriority priority : PublishPriority.values()) {
+            final LaneBudget budget = budgets.getOrDefault(priority, new LaneBudget());
+            if (budget.getMaxConcurrency() < 1 || budget.getQueueCapacity() < 0) {
+                throw new IllegalArgumentException("Invalid budget for priority " + priority + ": " + budget);
+            }
+            final Lane lane = new Lane(priority, budget);
+            lanes.put(priority, lane);
+
+            Gauge.builder("dapr.publisher.lane.queued", lane, Lane::getQueuedCount)
+                    .description("Number of events waiting in the lane of a priority")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+            Gauge.builder("dapr.publisher.lane.inflight", lane, Lane::getInFlightCount)
+                    .description("Number of events of a priority that are currently being published")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        return lanes.get(getPriority(event.getTopic())).dispatch(event);
+    }
+
+    /**
+     * @param topic the topic
+     * @return the priority of the events of the topic
+     */
+    public PublishPriority getPriority(final DaprTopic topic) {
+        return topicPriorities.getOrDefault(topic, PublishPriority.NORMAL);
+    }
+
+    /**
+     * @param priority the priority
+     * @return the number of events of the priority waiting for a free publish slot
+     */
+    public int getQueuedCount(final PublishPriority priority) {
+        return lanes.get(priority).getQueuedCount();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * Fails the events that are still queued and closes the delegate.
+     */
+    @Override
+    public void close() {
+        lanes.values().forEach(Lane::close);
+        delegate.close();
+    }
+
+    private record PendingEvent(OutgoingEvent event, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Lane of a single priority. The counters and the queue are guarded by the lane itself,
+     * the events are published outside the lock.
+     */
+    private final class Lane {
+
+        private final PublishPriority priority;
+        private final int maxConcurrency;
+        private final int queueCapacity;
+
+        private final Queue<PendingEvent> queue = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private int inFlight;
+
+        private Lane(final PublishPriority priority, final LaneBudget budget) {
+            this.priority = priority;
+            this.maxConcurrency = budget.getMaxConcurrency();
+            this.queueCapacity = budget.getQueueCapacity();
+        }
+
+        private CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+            final PendingEvent pendingEvent;
+            synchronized (this) {
+                // events must not overtake the events that are already queued
+                if (inFlight < maxConcurrency && queue.isEmpty()) {
+                    inFlight++;
+                    pendingEvent = null;
+                } else if (queue.size() < queueCapacity) {
+                    pendingEvent = new PendingEvent(event, new CompletableFuture<>());
+                    queue.add(pendingEvent);
+                } else {
+                    return reject(event);
+                }
+            }
+            if (pendingEvent == null) {
+                return send(event);
+            }
+            // a publish might have completed while the event was queued
+            drain();
+            return pendingEvent.future();
+        }
+
+        private synchronized int getQueuedCount() {
+            return queue.size();
+        }
+
+        private synchronized int getInFlightCount() {
+            return inFlight;
+        }
+
+        private CompletableFuture<Void> reject(final OutgoingEvent event) {
+            meterRegistry.counter("dapr.publisher.dropped", "topic", event.getTopic().getTopic()).increment();
+            return CompletableFuture.failedFuture(new EventPublishException(
+                    "Queue of priority " + priority + " is full, dropped event for daprTopic "
+                    + event.getTopic().getTopic()));
+        }
+
+        private CompletableFuture<Void> send(final OutgoingEvent event) {
+            final CompletableFuture<Void> future;
+            try {
+                future = delegate.dispatch(event);
+            } catch (final RuntimeException e) {
+                release();
+                throw e;
+            }
+            return future.whenComplete((response, error) -> release());
+        }
+
+        private void release() {
+            synchronized (this) {
+                inFlight--;
+            }
+            drain();
+        }
+
+        /**
+         * Publishes queued events while the lane has free publish slots.
+         * Only one thread drains the queue at a time, so that nested calls from synchronously completing
+         * publishes do not recurse.
+         */
+        private void drain() {
+            while (hasWork() && draining.compareAndSet(false, true)) {
+                try {
+                    PendingEvent next;
+                    while ((next = poll()) != null) {
+                        final PendingEvent pendingEvent = next;
+                        try {
+                            send(pendingEvent.event()).whenComplete((response, error) -> {
+                                if (error == null) {
+                                    pendingEvent.future().complete(null);
+                                } else {
+                                    pendingEvent.future().completeExceptionally(error);
+                                }
+                            });
+                        } catch (final RuntimeException e) {
+                            pendingEvent.future().completeExceptionally(e);
+                        }
+                    }
+                } finally {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private synchronized boolean hasWork() {
+            return !queue.isEmpty() && inFlight < maxConcurrency;
+        }
+
+        /**
+         * Takes the next queued event and reserves a publish slot for it.
+         */
+        private synchronized PendingEvent poll() {
+            if (inFlight >= maxConcurrency) {
+                return null;
+            }
+            final PendingEvent next = queue.poll();
+            if (next != null) {
+                inFlight++;
+            }
+            return next;
+        }
+
+        private void close() {
+            final List<PendingEvent> remaining;
+            synchronized (this) {
+                remaining = List.copyOf(queue);
+                queue.clear();
+            }
+            if (!remaining.isEmpty()) {
+                log.warn("Closing publisher with {} events left in the queue of priority {}",
+                        remaining.size(), priority);
+            }
+            remaining.forEach(pendingEvent -> pendingEvent.future().completeExceptionally(
+                    new EventPublishException("Publisher was closed before the event was published")));
+        }
+    }
+}
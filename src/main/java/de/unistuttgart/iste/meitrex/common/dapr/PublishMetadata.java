@@ -0,0 +1,137 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates the metadata the {@link TopicPublisher} attaches to every event:
+ * <ul>
+ *     <li>{@value OutgoingEvent#EVENT_ID_METADATA}: a time-ordered UUID (version 7), which Dapr uses as id of the
+ *     cloud event. Its first 48 bits are the publish time in milliseconds, so consumers can determine the publish
+ *     time from the id, see {@link #getPublishTime(String)}.</li>
+ *     <li>{@value #PUBLISHED_AT_METADATA}: the publish time as ISO-8601 timestamp, for pub/sub components that
+ *     forward metadata as message headers.</li>
+ *     <li>{@value #TRACEPARENT_METADATA}: a W3C trace context, which Dapr uses as trace context of the cloud event.
+ *     If the event is published while handling a request with a {@code traceparent} header, the event continues
+ *     the trace of the request, otherwise a new trace is started.</li>
+ *     <li>{@value OutgoingEvent#ENCODING_METADATA}: the {@link EventEncoding} of events in a binary format, which
+ *     Dapr adds as extension to the cloud event.</li>
+ * </ul>
+ */
+public final class PublishMetadata {
+
+    /**
+     * Metadata key of the W3C trace context of the event.
+     */
+    public static final String TRACEPARENT_METADATA = "cloudevent.traceparent";
+
+    /**
+     * Metadata key of the time the event was published.
+     */
+    public static final String PUBLISHED_AT_METADATA = "publishedAt";
+
+    private static final String TRACEPARENT_HEADER = "traceparent";
+    private static final Pattern TRACEPARENT = Pattern.compile("00-([0-9a-f]{32})-[0-9a-f]{16}-([0-9a-f]{2})");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private PublishMetadata() {
+        // utility class
+    }
+
+    /**
+     * @return the metadata of an event published now
+     */
+    public static Map<String, String> create() {
+        final long now = System.currentTimeMillis();
+        return Map.of(
+                OutgoingEvent.EVENT_ID_METADATA, newEventId(now).toString(),
+                PUBLISHED_AT_METADATA, Instant.ofEpochMilli(now).toString(),
+                TRACEPARENT_METADATA, newTraceparent(currentTraceparent()));
+    }
+
+    /**
+     * @param encoding the encoding of the event
+     * @return the metadata of an event in the given encoding published now
+     */
+    public static Map<String, String> create(final EventEncoding encoding) {
+        final Map<String, String> metadata = create();
+        if (encoding == EventEncoding.JSON) {
+            return metadata;
+        }
+        final Map<String, String> withEncoding = new HashMap<>(metadata);
+        withEncoding.put(OutgoingEvent.ENCODING_METADATA, encoding.getExtensionValue());
+        return Map.copyOf(withEncoding);
+    }
+
+    /**
+     * @param eventId the id of a cloud event
+     * @return the time the event was published or {@code null} if the id was not created by the TopicPublisher
+     */
+    public static Instant getPublishTime(final String eventId) {
+        if (eventId == null) {
+            return null;
+        }
+        final UUID uuid;
+        try {
+            uuid = UUID.fromString(eventId);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+        if (uuid.version() != 7) {
+            return null;
+        }
+        return Instant.ofEpochMilli(uuid.getMostSignificantBits() >>> 16);
+    }
+
+    /**
+     * Creates a UUID of version 7, consisting of the given time in milliseconds and random bits.
+     *
+     * @param epochMillis the time the event was published
+     * @return the id of the event
+     */
+    static UUID newEventId(final long epochMillis) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long mostSignificantBits = (epochMillis << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        final long leastSignificantBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Creates the trace context of a publish.
+     *
+     * @param parent the trace context of the current request or {@code null}
+     * @return a trace context with a new span id, continuing the trace of the parent if it is valid
+     */
+    static String newTraceparent(final String parent) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Matcher matcher = parent == null ? null : TRACEPARENT.matcher(parent);
+        final String traceId;
+        final String flags;
+        if (matcher != null && matcher.matches()) {
+            traceId = matcher.group(1);
+            flags = matcher.group(2);
+        } else {
+            traceId = HEX.toHexDigits(random.nextLong()) + HEX.toHexDigits(random.nextLong());
+            flags = "01";
+        }
+        return "00-" + traceId + "-" + HEX.toHexDigits(random.nextLong()) + "-" + flags;
+    }
+
+    private static String currentTraceparent() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getHeader(TRACEPARENT_HEADER);
+        }
+        return null;
+    }
+}
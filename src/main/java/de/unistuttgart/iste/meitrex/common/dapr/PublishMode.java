@@ -0,0 +1,25 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+/**
+ * Determines how the {@link TopicPublisher} hands events to the Dapr sidecar.
+ */
+public enum PublishMode {
+
+    /**
+     * Every event is published in its own request.
+     */
+    DIRECT,
+
+    /**
+     * Events are buffered per {@link DaprTopic} and sent using the Dapr bulk publish API,
+     * see {@link BatchingEventDispatcher}.
+     */
+    BATCHED,
+
+    /**
+     * Events are stored in an outbox table within the transaction of the caller
+     * and relayed to the sidecar in the background,
+     * see {@link de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxEventDispatcher}.
+     */
+    OUTBOX
+}
@@ -0,0 +1,24 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+/**
+ * Priority class of the events of a {@link DaprTopic}, see {@link PriorityEventDispatcher}.
+ * Every class has its own queue and concurrency budget, so events of one class never wait behind
+ * events of another class.
+ */
+public enum PublishPriority {
+
+    /**
+     * Events the user waits for, e.g. notifications and tutor questions.
+     */
+    INTERACTIVE,
+
+    /**
+     * Events of all topics without a configured priority.
+     */
+    NORMAL,
+
+    /**
+     * High-volume events that may be delayed, e.g. analytics events.
+     */
+    BULK
+}
@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stage the {@link TopicPublisher} passes every event through before it is serialized.
+ * <p>
+ * A stage can replace an event, split it into several events, hold it back and merge it with later events,
+ * or pass it on unchanged. Stages are applied in the order they are given to the publisher.
+ */
+public interface PublishStage extends AutoCloseable {
+
+    /**
+     * Processes the given event and passes the result on to the next stage.
+     *
+     * @param event     the event to publish
+     * @param daprTopic the topic the event is published to
+     * @param next      the remaining stages and the serialization of the publisher
+     * @return a future that completes when the event has been accepted
+     * or completes exceptionally if it could not be published
+     */
+    CompletableFuture<Void> process(Object event, DaprTopic daprTopic, Next next);
+
+    /**
+     * Passes on all events held back by this stage.
+     * Stages that do not hold back events do nothing.
+     */
+    default void flush() {
+        // nothing held back by default
+    }
+
+    /**
+     * Flushes all held back events and releases the resources of this stage.
+     */
+    @Override
+    default void close() {
+        flush();
+    }
+
+    /**
+     * The part of the publish pipeline following a stage.
+     */
+    @FunctionalInterface
+    interface Next {
+
+        CompletableFuture<Void> publish(Object event, DaprTopic daprTopic);
+    }
+}
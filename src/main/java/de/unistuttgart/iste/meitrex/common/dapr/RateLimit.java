@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token bucket limiting the rate of the events of a topic, see {@link RateLimitingEventDispatcher}.
+ * <p>
+ * The bucket holds up to {@code burst} tokens and is refilled with {@code eventsPerSecond} tokens per second.
+ * Every event takes one token, events that find the bucket empty wait in a queue of at most
+ * {@code queueCapacity} events.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimit {
+
+    /**
+     * Sustained number of events per second.
+     */
+    @Builder.Default
+    private double eventsPerSecond = 100;
+
+    /**
+     * Maximum number of events that are published at once after a quiet period.
+     */
+    @Builder.Default
+    private int burst = 100;
+
+    /**
+     * Maximum number of events waiting for a token. Events are rejected when the queue is full.
+     */
+    @Builder.Default
+    private int queueCapacity = 10_000;
+}
@@ -0,0 +1,282 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher that limits the rate of the events per {@link DaprTopic} with a token bucket, see {@link RateLimit}.
+ * <p>
+ * Events within the limit are passed to the delegate immediately. Events exceeding it are queued and the returned
+ * future completes once the event has been admitted and published, so bursts are smoothed without blocking the
+ * caller. A single scheduler thread admits the queued events at the rate of the tokens and hands them to a virtual
+ * thread, which passes them to the delegate in order, so a slow delegate never delays the admission of other topics.
+ * Events are rejected with an {@link EventPublishException} when the queue of their topic is full. Topics without a
+ * limit are not throttled.
+ * <p>
+ * Deferred events reach the delegate outside of the publishing thread, so the dispatcher cannot be used with the
+ * {@link de.unistuttgart.iste.meitrex.common.dapr.outbox.OutboxEventDispatcher}.
+ * <p>
+ * Deferred events are counted in {@code dapr.publisher.throttled}, the time they waited in the timer
+ * {@code dapr.publisher.throttle.delay} and the queued events in the gauge {@code dapr.publisher.throttle.queued},
+ * all tagged with the {@code topic}. Rejected events are counted in {@code dapr.publisher.dropped}.
+ */
+@Slf4j
+public class RateLimitingEventDispatcher implements EventDispatcher {
+
+    private final EventDispatcher delegate;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<DaprTopic, TopicLimiter> limiters = new EnumMap<>(DaprTopic.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-publish-throttle").daemon().factory());
+    private final ExecutorService publisher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dapr-publish-throttled-", 0).factory());
+
+    /**
+     * @param delegate      the dispatcher that publishes the events
+     * @param limits        rate limit per topic, topics that are not listed are not limited
+     * @param meterRegistry registry the metrics are registered in
+     */
+    public RateLimitingEventDispatcher(final EventDispatcher delegate,
+                                       final Map<DaprTopic, RateLimit> limits,
+                                       final MeterRegistry meterRegistry) {
+        this(delegate, limits, meterRegistry, Clock.systemUTC());
+    }
+
+    RateLimitingEventDispatcher(final EventDispatcher delegate,
+                                final Map<DaprTopic, RateLimit> limits,
+                                final MeterRegistry meterRegistry,
+                                final Clock clock) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        limits.forEach((topic, limit) -> {
+            if (!(limit.getEventsPerSecond() > 0) || limit.getBurst() < 1 || limit.getQueueCapacity() < 0) {
+                throw new IllegalArgumentException("Invalid rate limit for daprTopic " + topic.getTopic() + ": " + limit);
+            }
+            final TopicLimiter limiter = new TopicLimiter(topic, limit);
+            limiters.put(topic, limiter);
+            Gauge.builder("dapr.publisher.throttle.queued", limiter, TopicLimiter::getQueuedCount)
+                    .description("Number of events waiting for admission by the rate limiter")
+                    .tag("topic", topic.getTopic())
+                    .register(meterRegistry);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        final TopicLimiter limiter = limiters.get(event.getTopic());
+        if (limiter == null) {
+            return delegate.dispatch(event);
+        }
+        return limiter.dispatch(event);
+    }
+
+    /**
+     * @param topic the topic
+     * @return the number of events of the topic waiting for admission
+     */
+    public int getQueuedCount(final DaprTopic topic) {
+        final TopicLimiter limiter = limiters.get(topic);
+        return limiter == null ? 0 : limiter.getQueuedCount();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * Fails the events that are still waiting for admission and closes the delegate.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        limiters.values().forEach(TopicLimiter::close);
+        // waits until the admitted events have been passed to the delegate
+        publisher.close();
+        delegate.close();
+    }
+
+    private long nowNanos() {
+        final Instant now = clock.instant();
+        return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+    }
+
+    private record PendingEvent(OutgoingEvent event, CompletableFuture<Void> future, long queuedAt) {
+    }
+
+    /**
+     * Token bucket and queue of a single topic, guarded by the limiter itself.
+     * The events are published outside the lock.
+     */
+    private final class TopicLimiter {
+
+        private final DaprTopic topic;
+        private final double tokensPerNano;
+        private final int burst;
+        private final int queueCapacity;
+
+        private final Queue<PendingEvent> queue = new ArrayDeque<>();
+        private double tokens;
+        private long refilledAt;
+        private boolean drainScheduled;
+        /**
+         * Completes once the events admitted last have been passed to the delegate.
+         */
+        private CompletableFuture<Void> lastHandOff = CompletableFuture.completedFuture(null);
+
+        private TopicLimiter(final DaprTopic topic, final RateLimit limit) {
+            this.topic = topic;
+            this.tokensPerNano = limit.getEventsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+            this.burst = limit.getBurst();
+            this.queueCapacity = limit.getQueueCapacity();
+            this.tokens = burst;
+            this.refilledAt = nowNanos();
+        }
+
+        private CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+            final PendingEvent pendingEvent;
+            synchronized (this) {
+                refill();
+                // events must not overtake the events that are already queued or being handed to the delegate
+                if (queue.isEmpty() && lastHandOff.isDone() && tokens >= 1) {
+                    tokens--;
+                    pendingEvent = null;
+                } else if (queue.size() < queueCapacity) {
+                    pendingEvent = new PendingEvent(event, new CompletableFuture<>(), nowNanos());
+                    queue.add(pendingEvent);
+                    scheduleDrain();
+                } else {
+                    return reject(event);
+                }
+            }
+            if (pendingEvent == null) {
+                return delegate.dispatch(event);
+            }
+            meterRegistry.counter("dapr.publisher.throttled", "topic", topic.getTopic()).increment();
+            return pendingEvent.future();
+        }
+
+        private synchronized int getQueuedCount() {
+            return queue.size();
+        }
+
+        /**
+         * Admits the queued events for which tokens are available and schedules the next run if events are left.
+         * The admitted events are published after the events admitted before.
+         */
+        private void drain() {
+            final List<PendingEvent> admitted = new ArrayList<>();
+            synchronized (this) {
+                drainScheduled = false;
+                refill();
+                while (tokens >= 1 && !queue.isEmpty()) {
+                    tokens--;
+                    admitted.add(queue.poll());
+                }
+                if (!queue.isEmpty()) {
+                    scheduleDrain();
+                }
+                if (admitted.isEmpty()) {
+                    return;
+                }
+                try {
+                    lastHandOff = lastHandOff.thenRunAsync(() -> publish(admitted), publisher)
+                            .exceptionally(error -> {
+                                log.error("Error while publishing throttled events of daprTopic {}",
+                                        topic.getTopic(), error);
+                                return null;
+                            });
+                } catch (final RejectedExecutionException e) {
+                    admitted.forEach(pendingEvent -> pendingEvent.future().completeExceptionally(
+                            new EventPublishException("Publisher was closed before the event was published")));
+                }
+            }
+        }
+
+        private void publish(final List<PendingEvent> admitted) {
+            final long now = nowNanos();
+            for (final PendingEvent pendingEvent : admitted) {
+                meterRegistry.timer("dapr.publisher.throttle.delay", "topic", topic.getTopic())
+                        .record(Duration.ofNanos(now - pendingEvent.queuedAt()));
+                try {
+                    delegate.dispatch(pendingEvent.event()).whenComplete((response, error) -> {
+                        if (error == null) {
+                            pendingEvent.future().complete(null);
+                        } else {
+                            pendingEvent.future().completeExceptionally(error);
+                        }
+                    });
+                } catch (final RuntimeException e) {
+                    pendingEvent.future().completeExceptionally(e);
+                }
+            }
+        }
+
+        /**
+         * Schedules a run of {@link #drain()} for the time the next token is available. Must hold the lock.
+         */
+        private void scheduleDrain() {
+            if (drainScheduled) {
+                return;
+            }
+            final long delay = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+            try {
+                scheduler.schedule(this::drain, delay, TimeUnit.NANOSECONDS);
+                drainScheduled = true;
+            } catch (final RejectedExecutionException e) {
+                // the publisher is closing, the queued events are failed by close()
+                log.debug("Not draining rate limiter of daprTopic {}, the publisher is closing", topic.getTopic());
+            }
+        }
+
+        /**
+         * Adds the tokens accumulated since the last refill. Must hold the lock.
+         */
+        private void refill() {
+            final long now = nowNanos();
+            tokens = Math.min(burst, tokens + Math.max(0, now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+
+        private CompletableFuture<Void> reject(final OutgoingEvent event) {
+            meterRegistry.counter("dapr.publisher.dropped", "topic", topic.getTopic()).increment();
+            return CompletableFuture.failedFuture(new EventPublishException(
+                    "Rate limit queue is full, dropped event for daprTopic " + topic.getTopic()));
+        }
+
+        private void close() {
+            final List<PendingEvent> remaining;
+            synchronized (this) {
+                remaining = List.copyOf(queue);
+                queue.clear();
+            }
+            if (!remaining.isEmpty()) {
+                log.warn("Closing publisher with {} events of daprTopic {} waiting for admission",
+                        remaining.size(), topic.getTopic());
+            }
+            remaining.forEach(pendingEvent -> pendingEvent.future().completeExceptionally(
+                    new EventPublishException("Publisher was closed before the event was published")));
+        }
+    }
+}
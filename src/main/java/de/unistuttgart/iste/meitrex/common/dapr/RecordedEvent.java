@@ -0,0 +1,14 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import java.time.Instant;
+
+/**
+ * An event captured by a {@link RecordingTopicPublisher}.
+ *
+ * @param sequenceNo  position of the event in the order of all recorded events
+ * @param publishedAt the time the event was published
+ * @param topic       the topic the event was published to
+ * @param event       the event, not serialized
+ */
+public record RecordedEvent(long sequenceNo, Instant publishedAt, DaprTopic topic, Object event) {
+}
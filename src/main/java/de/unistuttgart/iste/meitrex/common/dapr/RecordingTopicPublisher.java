@@ -0,0 +1,120 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TopicPublisher that records the published events in memory instead of sending them to the Dapr sidecar.
+ * Intended for local development, tests and load tests of consumers, which can replay the recorded events
+ * with an {@link EventReplayer}.
+ * <p>
+ * Events are stored in a ring buffer of fixed capacity, the oldest events are overwritten when it is full.
+ * Recording does not block, so that the recorder does not slow down the publishing code under load.
+ */
+public class RecordingTopicPublisher extends TopicPublisher {
+
+    private final Clock clock;
+    private final AtomicReferenceArray<RecordedEvent> buffer;
+    private final AtomicLong recorded = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of events kept
+     */
+    public RecordingTopicPublisher(final int capacity) {
+        this(capacity, Clock.systemUTC());
+    }
+
+    RecordingTopicPublisher(final int capacity, final Clock clock) {
+        // events are recorded before they reach the dispatcher
+        super(event -> CompletableFuture.completedFuture(null), new CustomDaprObjectSerializer());
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, but was " + capacity);
+        }
+        this.clock = clock;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishEventAsync(final Object event, final DaprTopic daprTopic) {
+        final long sequenceNo = recorded.getAndIncrement();
+        buffer.set(index(sequenceNo), new RecordedEvent(sequenceNo, clock.instant(), daprTopic, event));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * @return all recorded events that have not been overwritten, oldest first
+     */
+    public List<RecordedEvent> getRecordedEvents() {
+        final long end = recorded.get();
+        final long start = Math.max(0, end - buffer.length());
+        final List<RecordedEvent> events = new ArrayList<>((int) (end - start));
+        for (long sequenceNo = start; sequenceNo < end; sequenceNo++) {
+            final RecordedEvent event = buffer.get(index(sequenceNo));
+            // skip slots that are still being written or have been overwritten in the meantime
+            if (event != null && event.sequenceNo() == sequenceNo) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @param topic the topic
+     * @return the recorded events of the topic, oldest first
+     */
+    public List<RecordedEvent> getRecordedEvents(final DaprTopic topic) {
+        return getRecordedEvents().stream()
+                .filter(event -> event.topic() == topic)
+                .toList();
+    }
+
+    /**
+     * @param eventType the class of the events
+     * @return the recorded events of the given class, oldest first
+     */
+    public <T> List<T> getEvents(final Class<T> eventType) {
+        return getRecordedEvents().stream()
+                .map(RecordedEvent::event)
+                .filter(eventType::isInstance)
+                .map(eventType::cast)
+                .toList();
+    }
+
+    /**
+     * @param topic     the topic
+     * @param eventType the class of the events
+     * @return the recorded events of the topic with the given class, oldest first
+     */
+    public <T> List<T> getEvents(final DaprTopic topic, final Class<T> eventType) {
+        return getRecordedEvents(topic).stream()
+                .map(RecordedEvent::event)
+                .filter(eventType::isInstance)
+                .map(eventType::cast)
+                .toList();
+    }
+
+    /**
+     * @return the number of events recorded since the last {@link #clear()}, including overwritten events
+     */
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    /**
+     * Removes all recorded events.
+     */
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+        recorded.set(0);
+    }
+
+    private int index(final long sequenceNo) {
+        return (int) (sequenceNo % buffer.length());
+    }
+}
@@ -0,0 +1,66 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Determines how often and with which delays a failed publish is retried, see {@link RetryingEventDispatcher}.
+ * <p>
+ * The delay before the n-th retry is {@code initialBackoff * multiplier^(n-1)}, capped at {@code maxBackoff}.
+ * A random part of up to {@code jitter} of the delay is subtracted,
+ * so that publishers that failed at the same time do not retry at the same time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryPolicy {
+
+    /**
+     * Maximum number of attempts, including the first one.
+     */
+    @Builder.Default
+    private int maxAttempts = 3;
+
+    /**
+     * Delay before the first retry.
+     */
+    @Builder.Default
+    private Duration initialBackoff = Duration.ofMillis(100);
+
+    /**
+     * Maximum delay between two attempts.
+     */
+    @Builder.Default
+    private Duration maxBackoff = Duration.ofSeconds(5);
+
+    /**
+     * Factor the delay is multiplied with after each retry.
+     */
+    @Builder.Default
+    private double multiplier = 2.0;
+
+    /**
+     * Fraction of the delay that is randomized, between 0 and 1.
+     */
+    @Builder.Default
+    private double jitter = 0.5;
+
+    /**
+     * Calculates the delay before the given retry.
+     *
+     * @param retry the number of the retry, starting at 1
+     * @return the delay before the retry
+     */
+    public Duration getBackoff(final int retry) {
+        final double exponentialBackoff = initialBackoff.toNanos() * Math.pow(multiplier, retry - 1.0);
+        final double cappedBackoff = Math.min(exponentialBackoff, maxBackoff.toNanos());
+        final double randomizedBackoff = cappedBackoff * (1 - jitter * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofNanos((long) randomizedBackoff);
+    }
+}
@@ -0,0 +1,123 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher that retries failed publishes of its delegate with exponential backoff and jitter
+ * and fails fast while its {@link CircuitBreaker} is open.
+ * <p>
+ * The {@link RetryPolicy} can be configured per {@link DaprTopic}. Retries are counted per topic in the metric
+ * {@code dapr.publisher.retries}, publishes rejected by the open breaker in {@code dapr.publisher.circuit.rejected}.
+ * The state of the breaker is exposed as the gauge {@code dapr.publisher.circuit.state}
+ * (0 = closed, 1 = half-open, 2 = open).
+ */
+@Slf4j
+public class RetryingEventDispatcher implements EventDispatcher {
+
+    private final EventDispatcher delegate;
+    private final RetryPolicy defaultPolicy;
+    private final Map<DaprTopic, RetryPolicy> topicPolicies;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-publish-retry").daemon().factory());
+
+    /**
+     * @param delegate       the dispatcher that publishes the events
+     * @param defaultPolicy  the retry policy of topics without their own policy
+     * @param topicPolicies  retry policies of single topics
+     * @param circuitBreaker the breaker shared by all topics
+     * @param meterRegistry  registry the metrics are registered in
+     */
+    public RetryingEventDispatcher(final EventDispatcher delegate,
+                                   final RetryPolicy defaultPolicy,
+                                   final Map<DaprTopic, RetryPolicy> topicPolicies,
+                                   final CircuitBreaker circuitBreaker,
+                                   final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.defaultPolicy = defaultPolicy;
+        this.topicPolicies = topicPolicies;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("dapr.publisher.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("State of the circuit breaker of the publisher (0 = closed, 1 = half-open, 2 = open)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        attempt(event, 1, result);
+        return result;
+    }
+
+    public CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        delegate.close();
+    }
+
+    private void attempt(final OutgoingEvent event, final int attempt, final CompletableFuture<Void> result) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            meterRegistry.counter("dapr.publisher.circuit.rejected", "topic", event.getTopic().getTopic()).increment();
+            result.completeExceptionally(new EventPublishException(
+                    "Circuit breaker is open, rejected event for daprTopic " + event.getTopic().getTopic()));
+            return;
+        }
+
+        final CompletableFuture<Void> future;
+        try {
+            future = delegate.dispatch(event);
+        } catch (final RuntimeException e) {
+            circuitBreaker.recordFailure();
+            result.completeExceptionally(e);
+            return;
+        }
+
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                circuitBreaker.recordSuccess();
+                result.complete(null);
+                return;
+            }
+
+            circuitBreaker.recordFailure();
+            final RetryPolicy policy = topicPolicies.getOrDefault(event.getTopic(), defaultPolicy);
+            if (attempt >= policy.getMaxAttempts()) {
+                result.completeExceptionally(error);
+                return;
+            }
+
+            final long backoff = policy.getBackoff(attempt).toNanos();
+            log.debug("Publishing to daprTopic {} failed, retrying in {} ms", event.getTopic().getTopic(),
+                    TimeUnit.NANOSECONDS.toMillis(backoff));
+            meterRegistry.counter("dapr.publisher.retries", "topic", event.getTopic().getTopic()).increment();
+            try {
+                scheduler.schedule(() -> attempt(event, attempt + 1, result), backoff, TimeUnit.NANOSECONDS);
+            } catch (final RejectedExecutionException e) {
+                // the publisher is closing
+                result.completeExceptionally(error);
+            }
+        });
+    }
+}
@@ -0,0 +1,279 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.skilllevels.UserSkillLevelChangedEvent;
+import de.unistuttgart.iste.meitrex.generated.dto.BloomLevel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PublishStage} that collapses several {@link UserSkillLevelChangedEvent}s of the same user, skill and
+ * bloom level into a single event with the {@code oldValue} of the first and the {@code newValue} of the last event.
+ * Collapsed events whose values are equal, i.e. whose changes cancel each other out, are not published at all.
+ * <p>
+ * Events published within a transaction are collected per transaction and published after it has been committed.
+ * If the transaction is rolled back, they are discarded. Transactions started with {@code REQUIRES_NEW} collect their
+ * events separately, as the collected events are held by the synchronization of the transaction, which is suspended
+ * together with it. The futures returned within a transaction complete as soon as the event has been collected,
+ * so that callers waiting for them within the transaction do not wait for its commit forever. Failures of the
+ * publish after the commit are logged. As the events are published after the commit, outside of the transaction,
+ * the stage cannot be used in {@link PublishMode#OUTBOX} mode.
+ * <p>
+ * Events published outside of a transaction are collected in a window which is opened by the first event.
+ * The window is published by the thread that closes it, so the {@link PublishMetadata} of its events describe the end
+ * of the window, not the call that published them. After the stage has been closed, these events are passed on
+ * unchanged.
+ * <p>
+ * The futures of the events collected in a window complete when the resulting event has been accepted.
+ * Events of other types are passed on unchanged.
+ */
+@Slf4j
+public class SkillLevelCollapsingStage implements PublishStage {
+
+    /**
+     * Difference below which the old and the new value are considered equal.
+     */
+    private static final float NET_ZERO_TOLERANCE = 1e-6f;
+
+    private final Duration window;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-skill-level-collapsing").daemon().factory());
+
+    private Buffer pending;
+    private ScheduledFuture<?> timeout;
+    private boolean closed;
+
+    /**
+     * @param window time the events published outside of a transaction are collected before they are published
+     */
+    public SkillLevelCollapsingStage(final Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    public CompletableFuture<Void> process(final Object event, final DaprTopic daprTopic, final Next next) {
+        if (!(event instanceof UserSkillLevelChangedEvent skillLevelEvent)
+            || daprTopic != DaprTopic.USER_SKILL_LEVEL_CHANGED) {
+            return next.publish(event, daprTopic);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionBuffer(next).add(skillLevelEvent, new CompletableFuture<>());
+            return CompletableFuture.completedFuture(null);
+        }
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (!closed) {
+                if (pending == null) {
+                    pending = new Buffer(next);
+                    timeout = scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                pending.add(skillLevelEvent, future);
+                return future;
+            }
+        }
+        // no window can be opened anymore
+        return next.publish(event, daprTopic);
+    }
+
+    /**
+     * Publishes the events collected outside of a transaction.
+     * Events of transactions that have not completed yet are published after the commit.
+     */
+    @Override
+    public void flush() {
+        final Buffer buffer;
+        synchronized (this) {
+            if (pending == null) {
+                return;
+            }
+            timeout.cancel(false);
+            buffer = pending;
+            pending = null;
+            timeout = null;
+        }
+        buffer.publish();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Returns the buffer of the current transaction, which is published after the transaction has been committed.
+     */
+    private Buffer transactionBuffer(final Next next) {
+        // only the synchronizations of the current transaction are visible, those of suspended ones are not
+        for (final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof TransactionBuffer transactionBuffer && transactionBuffer.owner == this) {
+                return transactionBuffer.buffer;
+            }
+        }
+        final TransactionBuffer transactionBuffer = new TransactionBuffer(this, new Buffer(next));
+        TransactionSynchronizationManager.registerSynchronization(transactionBuffer);
+        return transactionBuffer.buffer;
+    }
+
+    /**
+     * Holds the events collected within a transaction and publishes them after the commit.
+     */
+    private static final class TransactionBuffer implements TransactionSynchronization {
+
+        private final SkillLevelCollapsingStage owner;
+        private final Buffer buffer;
+
+        private TransactionBuffer(final SkillLevelCollapsingStage owner, final Buffer buffer) {
+            this.owner = owner;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void afterCommit() {
+            publish();
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            if (status == STATUS_COMMITTED) {
+                // events collected by the afterCommit callbacks of synchronizations running after this one
+                publish();
+            } else {
+                buffer.discard();
+            }
+        }
+
+        private void publish() {
+            try {
+                buffer.publish().exceptionally(error -> {
+                    log.error("Error while publishing skill level changes of a committed transaction: {}",
+                            error.getMessage());
+                    return null;
+                });
+            } catch (final RuntimeException e) {
+                // must not fail the caller, the transaction has already been committed
+                log.error("Error while publishing skill level changes of a committed transaction: {}",
+                        e.getMessage());
+            }
+        }
+    }
+
+    private record Key(UUID userId, UUID skillId, BloomLevel bloomLevel) {
+    }
+
+    /**
+     * The collapsed changes of a user, skill and bloom level.
+     */
+    private static final class Collapsed {
+
+        private final UserSkillLevelChangedEvent first;
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private float newValue;
+
+        private Collapsed(final UserSkillLevelChangedEvent first) {
+            this.first = first;
+        }
+
+        private boolean isNetZero() {
+            return Math.abs(newValue - first.getOldValue()) < NET_ZERO_TOLERANCE;
+        }
+
+        private UserSkillLevelChangedEvent toEvent() {
+            return UserSkillLevelChangedEvent.builder()
+                    .userId(first.getUserId())
+                    .skillId(first.getSkillId())
+                    .bloomLevel(first.getBloomLevel())
+                    .oldValue(first.getOldValue())
+                    .newValue(newValue)
+                    .build();
+        }
+    }
+
+    /**
+     * Changes collected in a window or a transaction. Access is synchronized on the buffer itself,
+     * the events are published outside the lock.
+     */
+    private static final class Buffer {
+
+        private final Next next;
+        private final Map<Key, Collapsed> changes = new LinkedHashMap<>();
+        private int receivedCount;
+
+        private Buffer(final Next next) {
+            this.next = next;
+        }
+
+        private synchronized void add(final UserSkillLevelChangedEvent event, final CompletableFuture<Void> future) {
+            final Collapsed collapsed = changes.computeIfAbsent(
+                    new Key(event.getUserId(), event.getSkillId(), event.getBloomLevel()),
+                    key -> new Collapsed(event));
+            collapsed.newValue = event.getNewValue();
+            collapsed.futures.add(future);
+            receivedCount++;
+        }
+
+        /**
+         * Publishes the collected changes.
+         *
+         * @return completes when all resulting events have been accepted
+         */
+        private CompletableFuture<Void> publish() {
+            final List<Collapsed> collapsed;
+            final int received;
+            synchronized (this) {
+                collapsed = List.copyOf(changes.values());
+                received = receivedCount;
+                changes.clear();
+                receivedCount = 0;
+            }
+            if (collapsed.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            final List<CompletableFuture<Void>> published = new ArrayList<>();
+            for (final Collapsed change : collapsed) {
+                if (change.isNetZero()) {
+                    change.futures.forEach(future -> future.complete(null));
+                    continue;
+                }
+                published.add(next.publish(change.toEvent(), DaprTopic.USER_SKILL_LEVEL_CHANGED)
+                        .whenComplete((response, error) -> change.futures.forEach(future -> {
+                            if (error == null) {
+                                future.complete(null);
+                            } else {
+                                future.completeExceptionally(error);
+                            }
+                        })));
+            }
+            log.debug("Collapsed {} skill level changes to {} events", received, published.size());
+            return CompletableFuture.allOf(published.toArray(CompletableFuture[]::new));
+        }
+
+        private void discard() {
+            final List<Collapsed> collapsed;
+            synchronized (this) {
+                collapsed = List.copyOf(changes.values());
+                changes.clear();
+            }
+            collapsed.forEach(change -> change.futures.forEach(future -> future.completeExceptionally(
+                    new EventPublishException("Transaction was rolled back, skill level change was not published"))));
+        }
+    }
+}
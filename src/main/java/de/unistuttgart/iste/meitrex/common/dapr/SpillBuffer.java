@@ -0,0 +1,40 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+/**
+ * Secondary buffer taking events that cannot be published right away.
+ * Events are returned in the order in which they were offered.
+ * Implementations must be thread-safe.
+ */
+public interface SpillBuffer {
+
+    /**
+     * Adds the event to the end of the buffer.
+     *
+     * @param event the event to add
+     * @return {@code false} if the buffer is full and the event was not added
+     */
+    boolean offer(OutgoingEvent event);
+
+    /**
+     * Returns the oldest event without removing it from the buffer.
+     *
+     * @return the oldest event or {@code null} if the buffer is empty
+     */
+    OutgoingEvent peek();
+
+    /**
+     * Removes the oldest event from the buffer.
+     *
+     * @return the oldest event or {@code null} if the buffer is empty
+     */
+    OutgoingEvent poll();
+
+    /**
+     * @return the number of events in the buffer
+     */
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
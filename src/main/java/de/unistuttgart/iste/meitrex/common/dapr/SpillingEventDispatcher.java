@@ -0,0 +1,112 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Dispatcher that writes events whose publish failed to a {@link SpillBuffer}, usually a {@link DiskSpillLog},
+ * instead of losing them.
+ * <p>
+ * While the spill buffer contains events, new events are appended to it as well, so that they do not overtake
+ * the spilled ones. The spilled events are replayed in order as soon as the sidecar is healthy again.
+ * The future of a spilled event completes normally once the event has been written to the spill buffer.
+ */
+@Slf4j
+public class SpillingEventDispatcher implements EventDispatcher {
+
+    private final EventDispatcher delegate;
+    private final SpillBuffer spillBuffer;
+    private final BooleanSupplier sidecarHealthCheck;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-spill-replay").daemon().factory());
+
+    /**
+     * @param delegate           the dispatcher that publishes the events
+     * @param spillBuffer        the buffer failed events are written to
+     * @param sidecarHealthCheck returns {@code true} if the sidecar is able to accept events
+     * @param replayInterval     delay between two attempts to replay the spilled events
+     */
+    public SpillingEventDispatcher(final EventDispatcher delegate,
+                                   final SpillBuffer spillBuffer,
+                                   final BooleanSupplier sidecarHealthCheck,
+                                   final Duration replayInterval) {
+        this.delegate = delegate;
+        this.spillBuffer = spillBuffer;
+        this.sidecarHealthCheck = sidecarHealthCheck;
+
+        scheduler.scheduleWithFixedDelay(this::replay,
+                replayInterval.toMillis(), replayInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        if (!spillBuffer.isEmpty()) {
+            return spill(event);
+        }
+        return delegate.dispatch(event)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    log.warn("Error while publishing message to daprTopic {}, writing it to the spill log: {}",
+                            event.getTopic().getTopic(), error.getMessage());
+                    return spill(event);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        delegate.close();
+        if (spillBuffer instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (final Exception e) {
+                log.error("Error while closing spill log: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Publishes the spilled events in order until the buffer is empty or a publish fails.
+     * An event is only removed from the buffer after it has been published.
+     */
+    void replay() {
+        if (spillBuffer.isEmpty() || !sidecarHealthCheck.getAsBoolean()) {
+            return;
+        }
+
+        log.info("Replaying {} spilled events", spillBuffer.size());
+        try {
+            OutgoingEvent event;
+            while ((event = spillBuffer.peek()) != null) {
+                delegate.dispatch(event).join();
+                spillBuffer.poll();
+            }
+        } catch (final RuntimeException e) {
+            log.warn("Replaying spilled events stopped, {} events left: {}", spillBuffer.size(), e.getMessage());
+        }
+    }
+
+    private CompletableFuture<Void> spill(final OutgoingEvent event) {
+        if (spillBuffer.offer(event)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.failedFuture(new EventPublishException(
+                "Spill log is full, dropped event for daprTopic " + event.getTopic().getTopic()));
+    }
+}
@@ -4,25 +4,139 @@ import de.unistuttgart.iste.meitrex.common.event.*;
 import de.unistuttgart.iste.meitrex.common.event.skilllevels.SkillEntityChangedEvent;
 import de.unistuttgart.iste.meitrex.common.event.skilllevels.UserSkillLevelChangedEvent;
 import io.dapr.client.DaprClient;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The TopicPublisher for all services.
  * Contains a generic publishEvent method to publish the events in a unified way,
  * as well as methods for the various events that can be published.
+ * <p>
+ * Events are serialized by the publisher and handed to an {@link EventDispatcher},
+ * which decides how they are sent to the Dapr sidecar.
+ * The {@link EventEncoding} can be chosen per {@link DaprTopic}, topics without an encoding use JSON.
+ * Large payloads can be compressed by a {@link PayloadCompressor}.
+ * Before an event is serialized, it passes through the configured {@link PublishStage}s.
+ * Events can be assigned a partition key by a {@link PartitionKeyExtractor}, so they are published in order
+ * by an {@link OrderedEventDispatcher}.
+ * Every serialized event gets an {@link OutgoingEvent#getEventId() event id}, which is kept when the event
+ * is retried or replayed, so that consumers can recognize redelivered events. The id, the publish time and a
+ * trace context are attached as {@link PublishMetadata}, so that consumers can measure the end-to-end latency.
  */
 @Slf4j
-@RequiredArgsConstructor
-public class TopicPublisher {
+public class TopicPublisher implements AutoCloseable {
 
-    private static final String PUBSUB_NAME = "meitrex";
+    public static final String PUBSUB_NAME = "meitrex";
 
-    private final DaprClient client;
+    private final EventDispatcher dispatcher;
+    private final CustomDaprObjectSerializer serializer;
+    private final Map<DaprTopic, EventEncoding> encodings;
+    private final PayloadCompressor compressor;
+    private final List<PublishStage> stages;
+    private final PartitionKeyExtractor partitionKeys;
+    private final PublishStage.Next pipeline;
+
+    /**
+     * Creates a publisher that sends every event directly using the given client.
+     *
+     * @param client the client used to publish the events
+     */
+    public TopicPublisher(final DaprClient client) {
+        this(new DirectEventDispatcher(client), new CustomDaprObjectSerializer());
+    }
+
+    /**
+     * Creates a publisher that encodes all events as JSON.
+     *
+     * @param dispatcher the dispatcher used to send the serialized events
+     * @param serializer the serializer used to serialize the events
+     */
+    public TopicPublisher(final EventDispatcher dispatcher, final CustomDaprObjectSerializer serializer) {
+        this(dispatcher, serializer, Map.of());
+    }
+
+    /**
+     * Creates a publisher that does not compress events.
+     *
+     * @param dispatcher the dispatcher used to send the serialized events
+     * @param serializer the serializer used to serialize the events
+     * @param encodings  the encoding of the events per topic, topics without an encoding use JSON
+     */
+    public TopicPublisher(final EventDispatcher dispatcher,
+                          final CustomDaprObjectSerializer serializer,
+                          final Map<DaprTopic, EventEncoding> encodings) {
+        this(dispatcher, serializer, encodings, PayloadCompressor.DISABLED);
+    }
+
+    /**
+     * Creates a publisher without any {@link PublishStage}s.
+     *
+     * @param dispatcher the dispatcher used to send the serialized events
+     * @param serializer the serializer used to serialize the events
+     * @param encodings  the encoding of the events per topic, topics without an encoding use JSON
+     * @param compressor the compressor applied to the serialized events
+     */
+    public TopicPublisher(final EventDispatcher dispatcher,
+                          final CustomDaprObjectSerializer serializer,
+                          final Map<DaprTopic, EventEncoding> encodings,
+                          final PayloadCompressor compressor) {
+        this(dispatcher, serializer, encodings, compressor, List.of());
+    }
+
+    /**
+     * Creates a publisher that does not assign partition keys.
+     *
+     * @param dispatcher the dispatcher used to send the serialized events
+     * @param serializer the serializer used to serialize the events
+     * @param encodings  the encoding of the events per topic, topics without an encoding use JSON
+     * @param compressor the compressor applied to the serialized events
+     * @param stages     the stages the events pass through before they are serialized, in this order
+     */
+    public TopicPublisher(final EventDispatcher dispatcher,
+                          final CustomDaprObjectSerializer serializer,
+                          final Map<DaprTopic, EventEncoding> encodings,
+                          final PayloadCompressor compressor,
+                          final List<PublishStage> stages) {
+        this(dispatcher, serializer, encodings, compressor, stages, PartitionKeyExtractor.NONE);
+    }
+
+    /**
+     * @param dispatcher    the dispatcher used to send the serialized events
+     * @param serializer    the serializer used to serialize the events
+     * @param encodings     the encoding of the events per topic, topics without an encoding use JSON
+     * @param compressor    the compressor applied to the serialized events
+     * @param stages        the stages the events pass through before they are serialized, in this order
+     * @param partitionKeys the extractor of the partition keys of the events
+     */
+    public TopicPublisher(final EventDispatcher dispatcher,
+                          final CustomDaprObjectSerializer serializer,
+                          final Map<DaprTopic, EventEncoding> encodings,
+                          final PayloadCompressor compressor,
+                          final List<PublishStage> stages,
+                          final PartitionKeyExtractor partitionKeys) {
+        this.dispatcher = dispatcher;
+        this.serializer = serializer;
+        this.encodings = encodings;
+        this.compressor = compressor;
+        this.stages = List.copyOf(stages);
+        this.partitionKeys = partitionKeys;
+
+        PublishStage.Next next = this::serializeAndDispatch;
+        for (int i = this.stages.size() - 1; i >= 0; i--) {
+            final PublishStage stage = this.stages.get(i);
+            final PublishStage.Next downstream = next;
+            next = (event, daprTopic) -> stage.process(event, daprTopic, downstream);
+        }
+        this.pipeline = next;
+    }
 
     /**
      * Method used to publish dapr messages to a daprTopic
@@ -30,10 +144,93 @@ public class TopicPublisher {
      * @param dto message
      */
     protected void publishEvent(final Object dto, final DaprTopic daprTopic) {
-        client.publishEvent(PUBSUB_NAME, daprTopic.getTopic(), dto)
-                .doOnSuccess(response -> log.debug("Published message to daprTopic {}: {}", daprTopic.getTopic(), response))
-                .doOnError(error -> log.error("Error while publishing message to daprTopic {}: {}", daprTopic.getTopic(), error.getMessage()))
-                .subscribe();
+        publishEventAsync(dto, daprTopic);
+    }
+
+    /**
+     * Publishes an event to a daprTopic without waiting for the sidecar.
+     *
+     * @param event     the event to publish
+     * @param daprTopic the topic to publish the event to
+     * @return a future that completes when the event has been accepted
+     * or completes exceptionally if it could not be published
+     */
+    public CompletableFuture<Void> publishEventAsync(final Object event, final DaprTopic daprTopic) {
+        return pipeline.publish(event, daprTopic);
+    }
+
+    private CompletableFuture<Void> serializeAndDispatch(final Object event, final DaprTopic daprTopic) {
+        final EventEncoding encoding = encodings.getOrDefault(daprTopic, EventEncoding.JSON);
+        final byte[] payload;
+        final String partitionKey;
+        try {
+            payload = serializer.serialize(event, encoding);
+            partitionKey = partitionKeys.extract(event, daprTopic);
+        } catch (final IOException | IllegalArgumentException e) {
+            log.error("Error while serializing message for daprTopic {}: {}", daprTopic.getTopic(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+
+        final OutgoingEvent outgoingEvent = compressor.compress(OutgoingEvent.builder()
+                .topic(daprTopic)
+                .payload(payload)
+                .contentType(encoding.getPublishedContentType())
+                .partitionKey(partitionKey)
+                .metadata(PublishMetadata.create(encoding))
+                .build());
+
+        return dispatcher.dispatch(outgoingEvent)
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        log.debug("Published message to daprTopic {}", daprTopic.getTopic());
+                    } else {
+                        log.error("Error while publishing message to daprTopic {}: {}", daprTopic.getTopic(), error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Same as {@link #publishEventAsync(Object, DaprTopic)}, but the event is only published
+     * when the returned {@link Mono} is subscribed to.
+     *
+     * @param event     the event to publish
+     * @param daprTopic the topic to publish the event to
+     * @return a mono that completes when the event has been accepted
+     */
+    public Mono<Void> publishEventMono(final Object event, final DaprTopic daprTopic) {
+        return Mono.fromFuture(() -> publishEventAsync(event, daprTopic));
+    }
+
+    /**
+     * Publishes all given events to a daprTopic concurrently.
+     *
+     * @param events    the events to publish
+     * @param daprTopic the topic to publish the events to
+     * @return a future that completes when all events have been accepted
+     * or completes exceptionally if at least one event could not be published
+     */
+    public CompletableFuture<Void> publishAll(final Collection<?> events, final DaprTopic daprTopic) {
+        return CompletableFuture.allOf(events.stream()
+                .map(event -> publishEventAsync(event, daprTopic))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Sends all events that are currently buffered, e.g. when the publisher runs in {@link PublishMode#BATCHED} mode.
+     */
+    public void flush() {
+        // stages pass the held back events on to the following stages, so they are flushed in order
+        stages.forEach(PublishStage::flush);
+        dispatcher.flush();
+    }
+
+    /**
+     * Flushes all buffered events and releases the resources of the stages and the dispatcher.
+     */
+    @Override
+    public void close() {
+        stages.forEach(PublishStage::close);
+        dispatcher.close();
     }
 
     /**
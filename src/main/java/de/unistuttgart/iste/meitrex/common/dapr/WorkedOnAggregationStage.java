@@ -0,0 +1,127 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.MediaRecordWorkedOnEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PublishStage} that aggregates the {@link MediaRecordWorkedOnEvent}s sent repeatedly by media players
+ * while a user watches a video or reads a document.
+ * <p>
+ * The first event opens a window. Until the window closes, only the first event of every user and media record is
+ * kept, later events of the same user and media record are dropped. When the window closes, the kept events are
+ * published in the order they were received. As the first event of a user and media record is kept,
+ * {@link MediaRecordWorkedOnEvent#isWasAlreadyWorkedOn()} still tells whether it had been worked on before the window.
+ * <p>
+ * The futures of all aggregated events complete when the kept event has been accepted.
+ * Events of other types, and all events published after the stage has been closed, are passed on unchanged.
+ * <p>
+ * The window is published by the thread that closes it, usually a scheduler thread. The
+ * {@link PublishMetadata} of the kept events, e.g. their publish time and trace context, therefore describe the
+ * end of the window, not the call that published them, and the stage cannot be used in {@link PublishMode#OUTBOX}
+ * mode, where the events must be written within the transaction of the caller.
+ */
+@Slf4j
+public class WorkedOnAggregationStage implements PublishStage {
+
+    private final Duration window;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-worked-on-aggregation").daemon().factory());
+
+    private Map<Key, Aggregate> pending = new LinkedHashMap<>();
+    private int receivedCount;
+    private Next next;
+    private ScheduledFuture<?> timeout;
+    private boolean closed;
+
+    /**
+     * @param window time the events are collected before the aggregated events are published
+     */
+    public WorkedOnAggregationStage(final Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    public CompletableFuture<Void> process(final Object event, final DaprTopic daprTopic, final Next next) {
+        if (!(event instanceof MediaRecordWorkedOnEvent workedOnEvent)
+            || daprTopic != DaprTopic.MEDIA_RECORD_WORKED_ON) {
+            return next.publish(event, daprTopic);
+        }
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (!closed) {
+                if (timeout == null) {
+                    this.next = next;
+                    timeout = scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                pending.computeIfAbsent(new Key(workedOnEvent.getUserId(), workedOnEvent.getMediaRecordId()),
+                                key -> new Aggregate(workedOnEvent, new ArrayList<>()))
+                        .futures().add(future);
+                receivedCount++;
+                return future;
+            }
+        }
+        // no window can be opened anymore
+        return next.publish(event, daprTopic);
+    }
+
+    @Override
+    public void flush() {
+        final Map<Key, Aggregate> aggregates;
+        final int received;
+        final Next publish;
+        synchronized (this) {
+            if (timeout == null) {
+                return;
+            }
+            timeout.cancel(false);
+            aggregates = pending;
+            received = receivedCount;
+            publish = next;
+            pending = new LinkedHashMap<>();
+            receivedCount = 0;
+            next = null;
+            timeout = null;
+        }
+
+        log.debug("Aggregated {} media record worked on events to {} events", received, aggregates.size());
+        for (final Aggregate aggregate : aggregates.values()) {
+            publish.publish(aggregate.event(), DaprTopic.MEDIA_RECORD_WORKED_ON)
+                    .whenComplete((response, error) -> aggregate.futures().forEach(future -> {
+                        if (error == null) {
+                            future.complete(null);
+                        } else {
+                            future.completeExceptionally(error);
+                        }
+                    }));
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        scheduler.shutdown();
+    }
+
+    private record Key(UUID userId, UUID mediaRecordId) {
+    }
+
+    private record Aggregate(MediaRecordWorkedOnEvent event, List<CompletableFuture<Void>> futures) {
+    }
+}
@@ -0,0 +1,64 @@
+package de.unistuttgart.iste.meitrex.common.dapr.claimcheck;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed store for large parts of events, e.g. the files of a
+ * {@link de.unistuttgart.iste.meitrex.common.event.StudentCodeSubmittedEvent}.
+ * <p>
+ * Contents are stored under the hex-encoded SHA-256 hash of their bytes, so identical contents are only stored once.
+ * The store must be accessible by the publisher and all consumers of the events.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the given content, if it is not stored already.
+     *
+     * @param content the content to store
+     * @return the hash the content is stored under
+     * @throws IOException if the content cannot be stored
+     */
+    String put(byte[] content) throws IOException;
+
+    /**
+     * Reads the content stored under the given hash.
+     *
+     * @param hash the hash returned by {@link #put(byte[])}
+     * @return the stored content
+     * @throws IOException if no content is stored under the hash or it cannot be read
+     */
+    byte[] get(String hash) throws IOException;
+
+    /**
+     * @param hash a hash returned by {@link #put(byte[])}
+     * @return whether content is stored under the hash
+     * @throws IOException if the store cannot be accessed
+     */
+    boolean contains(String hash) throws IOException;
+
+    /**
+     * Computes the hash the given content is stored under.
+     *
+     * @param content the content
+     * @return the hex-encoded SHA-256 hash of the content
+     */
+    static String hash(final byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (final NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #hash(byte[])} for the UTF-8 bytes of a string.
+     */
+    static String hash(final String content) {
+        return hash(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package de.unistuttgart.iste.meitrex.common.dapr.claimcheck;
+
+import de.unistuttgart.iste.meitrex.common.event.StudentCodeSubmittedEvent;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives consumers access to the file contents of a {@link StudentCodeSubmittedEvent},
+ * no matter whether they are contained in the event or were moved to a {@link BlobStore} by the {@link ClaimCheckStage}.
+ */
+@RequiredArgsConstructor
+public class ClaimCheckResolver {
+
+    private final BlobStore blobStore;
+
+    /**
+     * Returns the files of the submission. Contents stored in the blob store are only fetched when they are accessed,
+     * and only once. Reading a content fails with an {@link UncheckedIOException} if it cannot be fetched.
+     *
+     * @param event the received event
+     * @return unmodifiable map of file paths to their contents
+     */
+    public Map<String, String> getFiles(final StudentCodeSubmittedEvent event) {
+        if (event.getFileHashes() == null || (event.getFiles() != null && !event.getFiles().isEmpty())) {
+            return event.getFiles();
+        }
+        return new LazyFileMap(event.getFileHashes());
+    }
+
+    /**
+     * Map that fetches the content of a file from the blob store the first time it is accessed.
+     */
+    private final class LazyFileMap extends AbstractMap<String, String> {
+
+        private final Map<String, String> fileHashes;
+        private final Map<String, String> contents = new ConcurrentHashMap<>();
+
+        private LazyFileMap(final Map<String, String> fileHashes) {
+            this.fileHashes = fileHashes;
+        }
+
+        @Override
+        public String get(final Object path) {
+            final String hash = fileHashes.get(path);
+            if (hash == null) {
+                return null;
+            }
+            return contents.computeIfAbsent((String) path, key -> fetch(hash));
+        }
+
+        @Override
+        public boolean containsKey(final Object path) {
+            return fileHashes.containsKey(path);
+        }
+
+        @Override
+        public int size() {
+            return fileHashes.size();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            // does not fetch any content
+            return Collections.unmodifiableSet(fileHashes.keySet());
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    final Iterator<String> paths = fileHashes.keySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return paths.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            // the content is fetched when the iteration reaches the file
+                            final String path = paths.next();
+                            return new SimpleImmutableEntry<>(path, get(path));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return fileHashes.size();
+                }
+            };
+        }
+
+        private String fetch(final String hash) {
+            try {
+                return new String(blobStore.get(hash), StandardCharsets.UTF_8);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Error while fetching file " + hash + " from the blob store", e);
+            }
+        }
+    }
+}
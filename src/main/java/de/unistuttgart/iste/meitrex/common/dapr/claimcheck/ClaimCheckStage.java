@@ -0,0 +1,49 @@
+package de.unistuttgart.iste.meitrex.common.dapr.claimcheck;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.PublishStage;
+import de.unistuttgart.iste.meitrex.common.event.StudentCodeSubmittedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link PublishStage} that moves the file contents of {@link StudentCodeSubmittedEvent}s to a {@link BlobStore}.
+ * <p>
+ * The published event only contains the hashes of the files in {@link StudentCodeSubmittedEvent#getFileHashes()}.
+ * Files that have been submitted before, e.g. unchanged library files, are already contained in the store
+ * and are neither stored nor transferred again. Consumers access the contents with a {@link ClaimCheckResolver}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ClaimCheckStage implements PublishStage {
+
+    private final BlobStore blobStore;
+
+    @Override
+    public CompletableFuture<Void> process(final Object event, final DaprTopic daprTopic, final Next next) {
+        if (!(event instanceof StudentCodeSubmittedEvent submission) || submission.getFiles() == null) {
+            return next.publish(event, daprTopic);
+        }
+
+        final Map<String, String> fileHashes = new LinkedHashMap<>();
+        try {
+            for (final Map.Entry<String, String> file : submission.getFiles().entrySet()) {
+                fileHashes.put(file.getKey(), blobStore.put(file.getValue().getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (final IOException e) {
+            log.error("Error while storing files of submission for daprTopic {}: {}", daprTopic.getTopic(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return next.publish(submission.toBuilder()
+                .files(Map.of())
+                .fileHashes(fileHashes)
+                .build(), daprTopic);
+    }
+}
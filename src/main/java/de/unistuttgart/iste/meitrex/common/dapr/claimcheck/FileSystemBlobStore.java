@@ -0,0 +1,74 @@
+package de.unistuttgart.iste.meitrex.common.dapr.claimcheck;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} that stores every content in its own file in a directory, e.g. on a volume shared by the services.
+ * <p>
+ * The files are distributed over subdirectories named after the first two characters of the hash,
+ * so that a single directory does not contain too many files.
+ * Contents are written to a temporary file first and then moved to their final name,
+ * so a reader never sees a partially written file.
+ */
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path directory;
+
+    /**
+     * @param directory the directory the contents are stored in
+     * @throws IOException if the directory cannot be created
+     */
+    public FileSystemBlobStore(final Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public String put(final byte[] content) throws IOException {
+        final String hash = BlobStore.hash(content);
+        final Path file = resolve(hash);
+        if (Files.exists(file)) {
+            return hash;
+        }
+
+        Files.createDirectories(file.getParent());
+        final Path temporaryFile = Files.createTempFile(file.getParent(), hash, ".tmp");
+        try {
+            Files.write(temporaryFile, content);
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final FileAlreadyExistsException e) {
+            // stored concurrently by another publisher
+            log.debug("Blob {} has been stored concurrently", hash);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        return hash;
+    }
+
+    @Override
+    public byte[] get(final String hash) throws IOException {
+        return Files.readAllBytes(resolve(hash));
+    }
+
+    @Override
+    public boolean contains(final String hash) {
+        return Files.exists(resolve(hash));
+    }
+
+    private Path resolve(final String hash) {
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash " + hash);
+        }
+        return directory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+}
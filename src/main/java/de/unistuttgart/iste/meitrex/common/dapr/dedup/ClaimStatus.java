@@ -0,0 +1,20 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+/**
+ * Result of claiming an event id at a {@link DeduplicationStore}.
+ */
+public enum ClaimStatus {
+    /**
+     * The id has been claimed, the event must be handled.
+     */
+    CLAIMED,
+    /**
+     * The event has already been handled and can be skipped.
+     */
+    DUPLICATE,
+    /**
+     * The event is being handled right now. It must not be skipped, as the handler might still fail,
+     * but redelivered later.
+     */
+    IN_PROGRESS
+}
@@ -0,0 +1,51 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+/**
+ * Remembers the ids of the events that have been handled, so that events redelivered by Dapr can be skipped.
+ * <p>
+ * Before an event is handled, its id is claimed. If the event has already been handled, it can be skipped.
+ * If it is being handled right now, it must be redelivered later. Once the event has been handled,
+ * the claim is confirmed. If handling the event fails, the claim is released, so that the event is handled
+ * again when it is redelivered:
+ * <pre>{@code
+ * boolean claimed = false;
+ * try {
+ *     ClaimStatus status = store.tryClaim(eventId);
+ *     if (status != ClaimStatus.CLAIMED) {
+ *         return status == ClaimStatus.DUPLICATE ? SUCCESS : RETRY;
+ *     }
+ *     claimed = true;
+ *     handle(event);
+ *     store.confirm(eventId);
+ * } catch (RuntimeException e) {
+ *     if (claimed) {
+ *         store.release(eventId);
+ *     }
+ *     throw e;
+ * }
+ * }</pre>
+ */
+public interface DeduplicationStore {
+
+    /**
+     * Claims an event id, if it has not been claimed before.
+     *
+     * @param eventId the id of the event
+     * @return whether the event must be handled, is a duplicate or is being handled right now
+     */
+    ClaimStatus tryClaim(String eventId);
+
+    /**
+     * Confirms the claim of an event id after the event has been handled.
+     *
+     * @param eventId the id of the event
+     */
+    void confirm(String eventId);
+
+    /**
+     * Releases the claim of an event id after the event could not be handled.
+     *
+     * @param eventId the id of the event
+     */
+    void release(String eventId);
+}
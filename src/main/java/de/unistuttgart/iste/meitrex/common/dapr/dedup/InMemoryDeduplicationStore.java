@@ -0,0 +1,122 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link DeduplicationStore} that remembers the event ids claimed within a time window in memory.
+ * <p>
+ * Ids are forgotten when the window has passed or, if more than the maximum number of ids are claimed within
+ * the window, in the order they were claimed. Duplicates delivered after an id has been forgotten are not
+ * recognized. Claiming and releasing ids takes constant time.
+ * <p>
+ * The claims are lost on a restart, so an event whose handler was interrupted by the restart is handled again
+ * when it is redelivered.
+ */
+public class InMemoryDeduplicationStore implements DeduplicationStore {
+
+    private final long windowMillis;
+    private final int maxEntries;
+    private final Clock clock;
+
+    /**
+     * The time every claimed id was claimed at.
+     */
+    private final Map<String, Long> claims = new ConcurrentHashMap<>();
+    /**
+     * The claims in the order they were made, used to forget the oldest claims.
+     */
+    private final Queue<Claim> claimOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedClaims = new AtomicInteger();
+    /**
+     * The claimed ids that have not been confirmed yet.
+     */
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param window     time an id is remembered after it has been claimed
+     * @param maxEntries maximum number of ids remembered at the same time
+     */
+    public InMemoryDeduplicationStore(final Duration window, final int maxEntries) {
+        this(window, maxEntries, Clock.systemUTC());
+    }
+
+    InMemoryDeduplicationStore(final Duration window, final int maxEntries, final Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1, but was " + maxEntries);
+        }
+        this.windowMillis = window.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public ClaimStatus tryClaim(final String eventId) {
+        final long now = clock.millis();
+        forgetExpiredClaims(now);
+        if (claims.putIfAbsent(eventId, now) != null) {
+            return inProgress.contains(eventId) ? ClaimStatus.IN_PROGRESS : ClaimStatus.DUPLICATE;
+        }
+        inProgress.add(eventId);
+        claimOrder.add(new Claim(eventId, now));
+        if (queuedClaims.incrementAndGet() > maxEntries) {
+            forgetOldestClaim();
+        }
+        return ClaimStatus.CLAIMED;
+    }
+
+    @Override
+    public void confirm(final String eventId) {
+        inProgress.remove(eventId);
+    }
+
+    @Override
+    public void release(final String eventId) {
+        // the queued claim is skipped when it is polled, as its time no longer matches
+        claims.remove(eventId);
+        inProgress.remove(eventId);
+    }
+
+    /**
+     * @param eventId the id of the event
+     * @return whether the id is currently claimed
+     */
+    public boolean contains(final String eventId) {
+        forgetExpiredClaims(clock.millis());
+        return claims.containsKey(eventId);
+    }
+
+    private void forgetExpiredClaims(final long now) {
+        Claim oldest = claimOrder.peek();
+        while (oldest != null && oldest.claimedAt() <= now - windowMillis) {
+            if (claimOrder.remove(oldest)) {
+                queuedClaims.decrementAndGet();
+                forget(oldest);
+            }
+            oldest = claimOrder.peek();
+        }
+    }
+
+    private void forgetOldestClaim() {
+        final Claim oldest = claimOrder.poll();
+        if (oldest != null) {
+            queuedClaims.decrementAndGet();
+            forget(oldest);
+        }
+    }
+
+    private void forget(final Claim claim) {
+        if (claims.remove(claim.eventId(), claim.claimedAt())) {
+            inProgress.remove(claim.eventId());
+        }
+    }
+
+    private record Claim(String eventId, long claimedAt) {
+    }
+}
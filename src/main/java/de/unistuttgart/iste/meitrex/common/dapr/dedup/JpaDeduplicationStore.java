@@ -0,0 +1,140 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DeduplicationStore} that stores the claimed event ids in a database table, so that duplicates are
+ * recognized after a restart and across all instances of a service.
+ * <p>
+ * An {@link InMemoryDeduplicationStore} is used as first tier: duplicates that are still remembered in memory
+ * are skipped without a database query. Ids are claimed by inserting them into the table, which fails if another
+ * instance has claimed the id before. The transaction template should start a new transaction
+ * ({@code PROPAGATION_REQUIRES_NEW}), so that the claim is visible to other instances immediately.
+ * <p>
+ * A claim is only a lease until it is confirmed after the event has been handled. If the handling instance crashes,
+ * the lease expires and the redelivered event is claimed and handled again, so that no event is lost.
+ * Redeliveries while the lease is valid are reported as {@link ClaimStatus#IN_PROGRESS}.
+ * Ids older than the retention are deleted periodically.
+ */
+@Slf4j
+public class JpaDeduplicationStore implements DeduplicationStore, AutoCloseable {
+
+    private final InMemoryDeduplicationStore cache;
+    private final ProcessedEventRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final Duration claimLease;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-dedup-cleanup").daemon().factory());
+
+    /**
+     * @param cache               the in-memory tier
+     * @param repository          the repository of the table of claimed ids
+     * @param transactionTemplate the template used to insert and delete ids
+     * @param retention           time after which ids are deleted from the table
+     * @param claimLease          time after which an unconfirmed claim expires
+     */
+    public JpaDeduplicationStore(final InMemoryDeduplicationStore cache,
+                                 final ProcessedEventRepository repository,
+                                 final TransactionTemplate transactionTemplate,
+                                 final Duration retention,
+                                 final Duration claimLease) {
+        this.cache = cache;
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.claimLease = claimLease;
+    }
+
+    /**
+     * Starts deleting expired ids in the background.
+     */
+    public void start() {
+        final long interval = Math.max(retention.toMillis() / 10, 1);
+        scheduler.scheduleWithFixedDelay(this::deleteExpiredClaims, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    @Override
+    public ClaimStatus tryClaim(final String eventId) {
+        final ClaimStatus cached = cache.tryClaim(eventId);
+        if (cached != ClaimStatus.CLAIMED) {
+            return cached;
+        }
+        final ClaimStatus status;
+        try {
+            status = claimInDatabase(eventId);
+        } catch (final RuntimeException e) {
+            cache.release(eventId);
+            throw e;
+        }
+        if (status == ClaimStatus.DUPLICATE) {
+            cache.confirm(eventId);
+        } else if (status == ClaimStatus.IN_PROGRESS) {
+            // the claim of the other instance might expire, so the database is asked again on the next delivery
+            cache.release(eventId);
+        }
+        return status;
+    }
+
+    private ClaimStatus claimInDatabase(final String eventId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                final OffsetDateTime now = OffsetDateTime.now();
+                repository.saveAndFlush(new ProcessedEventEntity(eventId, now, false, now.plus(claimLease)));
+            });
+            return ClaimStatus.CLAIMED;
+        } catch (final DataIntegrityViolationException e) {
+            // the id has been claimed before, by this instance before a restart or by another instance
+            return transactionTemplate.execute(status -> {
+                final OffsetDateTime now = OffsetDateTime.now();
+                if (repository.claimExpired(eventId, now, now.plus(claimLease)) > 0) {
+                    log.debug("Claim of event {} expired before it was confirmed, claiming it again", eventId);
+                    return ClaimStatus.CLAIMED;
+                }
+                return repository.findById(eventId)
+                        .filter(ProcessedEventEntity::isConfirmed)
+                        .map(entity -> ClaimStatus.DUPLICATE)
+                        .orElse(ClaimStatus.IN_PROGRESS);
+            });
+        }
+    }
+
+    @Override
+    public void confirm(final String eventId) {
+        transactionTemplate.executeWithoutResult(status -> repository.confirm(eventId, OffsetDateTime.now()));
+        cache.confirm(eventId);
+    }
+
+    @Override
+    public void release(final String eventId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.deleteById(eventId));
+        } finally {
+            cache.release(eventId);
+        }
+    }
+
+    void deleteExpiredClaims() {
+        try {
+            final Integer deleted = transactionTemplate.execute(status ->
+                    repository.deleteProcessedBefore(OffsetDateTime.now().minus(retention)));
+            log.debug("Deleted {} expired ids of processed events", deleted);
+        } catch (final RuntimeException e) {
+            log.error("Error while deleting expired ids of processed events: {}", e.getMessage());
+        }
+    }
+}
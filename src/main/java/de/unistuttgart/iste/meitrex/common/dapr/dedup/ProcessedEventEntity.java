@@ -0,0 +1,46 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The id of an event that has been claimed by the {@link JpaDeduplicationStore}.
+ * The claim is {@link #confirmed} once the event has been handled. Until then, it is only valid until
+ * {@link #leaseExpiresAt}, so that the event is handled again if the handling instance crashed.
+ */
+@Entity(name = "DaprProcessedEvent")
+@Table(name = "dapr_processed_event", indexes = @Index(columnList = "processedAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEventEntity implements Persistable<String> {
+
+    @Id
+    private String id;
+
+    /**
+     * Time the event was claimed, or handled once the claim is confirmed.
+     */
+    @Column(nullable = false)
+    private OffsetDateTime processedAt;
+
+    @Column(nullable = false)
+    private boolean confirmed;
+
+    @Column(nullable = false)
+    private OffsetDateTime leaseExpiresAt;
+
+    /**
+     * Entities are only created to be inserted, so saving an entity with an id that already exists fails
+     * instead of overwriting the existing row.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEventEntity, String> {
+
+    /**
+     * Claims an event again whose claim has neither been confirmed nor renewed before its lease expired.
+     *
+     * @param id             the id of the event
+     * @param now            the current time
+     * @param leaseExpiresAt the time the new lease expires
+     * @return the number of claimed events, 0 if the claim is confirmed or its lease has not expired
+     */
+    @Modifying
+    @Query("UPDATE DaprProcessedEvent e SET e.processedAt = :now, e.leaseExpiresAt = :leaseExpiresAt "
+           + "WHERE e.id = :id AND e.confirmed = false AND e.leaseExpiresAt <= :now")
+    int claimExpired(@Param("id") String id,
+                     @Param("now") OffsetDateTime now,
+                     @Param("leaseExpiresAt") OffsetDateTime leaseExpiresAt);
+
+    /**
+     * Confirms the claim of an event after it has been handled.
+     *
+     * @param id  the id of the event
+     * @param now the current time
+     * @return the number of confirmed claims
+     */
+    @Modifying
+    @Query("UPDATE DaprProcessedEvent e SET e.confirmed = true, e.processedAt = :now WHERE e.id = :id")
+    int confirm(@Param("id") String id, @Param("now") OffsetDateTime now);
+
+    /**
+     * Deletes the ids of all events processed before the given time.
+     *
+     * @param threshold the time before which the events were processed
+     * @return the number of deleted ids
+     */
+    @Modifying
+    @Query("DELETE FROM DaprProcessedEvent e WHERE e.processedAt < :threshold")
+    int deleteProcessedBefore(@Param("threshold") OffsetDateTime threshold);
+}
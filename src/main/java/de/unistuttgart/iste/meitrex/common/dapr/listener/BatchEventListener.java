@@ -0,0 +1,40 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+
+import java.util.List;
+
+/**
+ * Listener that receives the events of a topic in batches, using the bulk subscribe API of Dapr.
+ * Intended for high-volume topics, where handling one event per request is too slow,
+ * e.g. because all events of a batch can be written to the database at once.
+ * <p>
+ * Spring beans implementing this interface are subscribed automatically. The batch size is configured with
+ * {@code dapr.listener.bulk}. A topic can either have one batch listener or any number of
+ * {@link DaprEventListener}s.
+ *
+ * @param <T> the class the events are deserialized to
+ */
+public interface BatchEventListener<T> {
+
+    /**
+     * @return the topic to listen to
+     */
+    DaprTopic getTopic();
+
+    /**
+     * @return the class the events are deserialized to
+     */
+    Class<T> getEventType();
+
+    /**
+     * Handles a batch of events. Events that cannot be deserialized are dropped and not part of the batch.
+     * If this method throws an exception, all events of the batch are redelivered.
+     *
+     * @param events the events of the batch
+     * @return the status of every event, in the order of the events. Events with status
+     * {@link EventHandlingStatus#RETRY} are redelivered.
+     * @throws Exception if the batch could not be handled
+     */
+    List<EventHandlingStatus> handleBatch(List<T> events) throws Exception;
+}
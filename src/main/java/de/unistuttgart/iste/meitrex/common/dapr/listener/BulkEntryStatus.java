@@ -0,0 +1,10 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+/**
+ * Status of a single event of a batch delivered by the bulk subscribe API, as expected by Dapr.
+ *
+ * @param entryId the id Dapr assigned to the event in the batch
+ * @param status  the status of the event
+ */
+public record BulkEntryStatus(String entryId, EventHandlingStatus status) {
+}
@@ -0,0 +1,31 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Determines how Dapr groups the events of a topic into the batches delivered to a {@link BatchEventListener}.
+ * A batch is delivered as soon as it is full or the await duration has passed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSubscribeOptions {
+
+    /**
+     * Maximum number of events in one batch.
+     */
+    @Builder.Default
+    private int maxMessagesCount = 100;
+
+    /**
+     * Maximum time Dapr waits for further events before it delivers an incomplete batch.
+     */
+    @Builder.Default
+    private Duration maxAwaitDuration = Duration.ofSeconds(1);
+}
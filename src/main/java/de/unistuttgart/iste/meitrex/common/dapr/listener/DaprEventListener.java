@@ -0,0 +1,43 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a Spring bean as listener for the events of a {@link DaprTopic}.
+ * <p>
+ * The method must have exactly one parameter, the class the events are deserialized to, e.g.:
+ * <pre>{@code
+ * @DaprEventListener(DaprTopic.CONTENT_PROGRESSED)
+ * public void onContentProgressed(ContentProgressedEvent event) {
+ *     ...
+ * }
+ * }</pre>
+ * The topic is subscribed automatically. Listeners are invoked on virtual threads, with at most
+ * {@code dapr.listener.concurrency} events of a topic handled at the same time. If the method throws an
+ * exception, Dapr redelivers the event.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DaprEventListener {
+
+    /**
+     * @return the topic to listen to
+     */
+    DaprTopic value();
+
+    /**
+     * Whether events that have already been handled by this method are skipped when Dapr redelivers them.
+     * Events are recognized by the id of their cloud event, see
+     * {@link de.unistuttgart.iste.meitrex.common.dapr.dedup.DeduplicationStore}.
+     *
+     * @return whether redelivered events are skipped
+     */
+    boolean deduplicate() default false;
+}
@@ -0,0 +1,19 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+/**
+ * Result of handling an event, as understood by the Dapr sidecar.
+ */
+public enum EventHandlingStatus {
+    /**
+     * The event was handled.
+     */
+    SUCCESS,
+    /**
+     * The event could not be handled, but might be in a later attempt. Dapr redelivers it.
+     */
+    RETRY,
+    /**
+     * The event can never be handled, e.g. because it cannot be deserialized. Dapr drops it.
+     */
+    DROP
+}
@@ -0,0 +1,137 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.PublishMetadata;
+import io.dapr.client.domain.CloudEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of received events, tagged with the {@link DaprTopic}:
+ * <ul>
+ *     <li>{@code dapr.consumer.lag}: time from publishing an event until it is received</li>
+ *     <li>{@code dapr.listener.handler.duration}: time the listeners took to handle an event,
+ *     tagged with the outcome {@code success} or {@code failure}</li>
+ * </ul>
+ * The publish time is determined from the event id assigned by the TopicPublisher, see {@link PublishMetadata}.
+ * For events published by other publishers, the time of the cloud event set by Dapr is used, which only has a
+ * precision of seconds.
+ * <p>
+ * The {@link EventListenerDispatcher} records both metrics for all listeners. Services with their own subscription
+ * controllers can use the recorder directly.
+ */
+public class EventLatencyRecorder {
+
+    private final Clock clock;
+    private final Map<DaprTopic, TopicTimers> timers = new EnumMap<>(DaprTopic.class);
+
+    /**
+     * @param meterRegistry registry the metrics are registered in
+     */
+    public EventLatencyRecorder(final MeterRegistry meterRegistry) {
+        this(meterRegistry, Clock.systemUTC());
+    }
+
+    EventLatencyRecorder(final MeterRegistry meterRegistry, final Clock clock) {
+        this.clock = clock;
+        for (final DaprTopic topic : DaprTopic.values()) {
+            timers.put(topic, new TopicTimers(topic, meterRegistry));
+        }
+    }
+
+    /**
+     * Records the lag of an event received as cloud event.
+     *
+     * @param topic      the topic the event was received from
+     * @param cloudEvent the cloud event as received from Dapr
+     */
+    public void recordLag(final DaprTopic topic, final CloudEvent<?> cloudEvent) {
+        recordLag(topic, getPublishTime(cloudEvent.getId(),
+                cloudEvent.getTime() == null ? null : cloudEvent.getTime().toInstant()));
+    }
+
+    /**
+     * Records the lag of an event received as cloud event, parsed as JSON tree.
+     *
+     * @param topic      the topic the event was received from
+     * @param cloudEvent the cloud event as received from Dapr
+     */
+    public void recordLag(final DaprTopic topic, final JsonNode cloudEvent) {
+        recordLag(topic, getPublishTime(cloudEvent.path("id").asText(null), parseTime(cloudEvent.path("time"))));
+    }
+
+    /**
+     * @param topic       the topic the event was received from
+     * @param publishTime the time the event was published, ignored if {@code null}
+     */
+    public void recordLag(final DaprTopic topic, final Instant publishTime) {
+        if (publishTime == null) {
+            return;
+        }
+        // clocks of different hosts are not exactly in sync
+        final Duration lag = Duration.between(publishTime, clock.instant());
+        timers.get(topic).lag.record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    /**
+     * @param topic    the topic the event was received from
+     * @param nanos    the time the listeners took to handle the event in nanoseconds
+     * @param success  whether the event was handled successfully
+     */
+    public void recordHandlerDuration(final DaprTopic topic, final long nanos, final boolean success) {
+        final TopicTimers topicTimers = timers.get(topic);
+        (success ? topicTimers.handlerSuccesses : topicTimers.handlerFailures).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Instant getPublishTime(final String eventId, final Instant cloudEventTime) {
+        final Instant publishTime = PublishMetadata.getPublishTime(eventId);
+        return publishTime != null ? publishTime : cloudEventTime;
+    }
+
+    private static Instant parseTime(final JsonNode time) {
+        if (!time.isTextual()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(time.asText()).toInstant();
+        } catch (final DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class TopicTimers {
+
+        private final Timer lag;
+        private final Timer handlerSuccesses;
+        private final Timer handlerFailures;
+
+        private TopicTimers(final DaprTopic topic, final MeterRegistry meterRegistry) {
+            lag = Timer.builder("dapr.consumer.lag")
+                    .description("Time from publishing an event until it is received")
+                    .tag("topic", topic.getTopic())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            handlerSuccesses = handlerTimer(topic, "success", meterRegistry);
+            handlerFailures = handlerTimer(topic, "failure", meterRegistry);
+        }
+
+        private static Timer handlerTimer(final DaprTopic topic, final String outcome,
+                                          final MeterRegistry meterRegistry) {
+            return Timer.builder("dapr.listener.handler.duration")
+                    .description("Time the listeners took to handle a received event")
+                    .tags("topic", topic.getTopic(), "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
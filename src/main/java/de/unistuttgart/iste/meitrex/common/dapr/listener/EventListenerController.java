@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Receives the events of the topics subscribed by the {@link EventListenerRegistry} from the Dapr sidecar.
+ * <p>
+ * The request is completed asynchronously when the listeners have handled the event or batch, so that no servlet
+ * thread is blocked while the event waits for a free slot.
+ */
+@RestController
+@RequiredArgsConstructor
+public class EventListenerController {
+
+    private final EventListenerDispatcher dispatcher;
+
+    /**
+     * @param topic      the name of the {@link DaprTopic} the event was received from
+     * @param cloudEvent the cloud event sent by Dapr
+     * @return the status of the event, as expected by Dapr
+     */
+    @PostMapping(path = EventListenerRegistry.ROUTE_PREFIX + "{topic}")
+    public CompletableFuture<Map<String, String>> receive(@PathVariable("topic") final DaprTopic topic,
+                                                          @RequestBody final byte[] cloudEvent) {
+        return dispatcher.dispatch(topic, cloudEvent).thenApply(status -> Map.of("status", status.name()));
+    }
+
+    /**
+     * @param topic the name of the {@link DaprTopic} the batch was received from
+     * @param body  the batch sent by the bulk subscribe API of Dapr
+     * @return the status of every event of the batch, as expected by Dapr
+     */
+    @PostMapping(path = EventListenerRegistry.BULK_ROUTE_PREFIX + "{topic}")
+    public CompletableFuture<Map<String, List<BulkEntryStatus>>> receiveBulk(
+            @PathVariable("topic") final DaprTopic topic,
+            @RequestBody final byte[] body) {
+        return dispatcher.dispatchBulk(topic, body).thenApply(statuses -> Map.of("statuses", statuses));
+    }
+}
@@ -0,0 +1,316 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.unistuttgart.iste.meitrex.common.dapr.CloudEventDecoder;
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.OutgoingEvent;
+import de.unistuttgart.iste.meitrex.common.dapr.PayloadCompressor;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.ClaimStatus;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.DeduplicationStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hands received events to the {@link DaprEventListener}s and {@link BatchEventListener}s of their topic.
+ * <p>
+ * Every event, or batch of events, is handled on its own virtual thread. The number of events or batches of a
+ * topic that are handled at the same time is limited per topic, further events wait for a free slot.
+ * Listeners that {@link DaprEventListener#deduplicate() deduplicate} events are skipped for events they have
+ * already handled, recognized by the id of the cloud event.
+ * The lag and handling time of every event are recorded by the {@link EventLatencyRecorder}.
+ * Additionally, the following metrics are recorded, tagged with the {@link DaprTopic}:
+ * <ul>
+ *     <li>{@code dapr.listener.queue.depth}: number of events or batches waiting for a free slot</li>
+ *     <li>{@code dapr.listener.active}: number of events or batches currently being handled</li>
+ * </ul>
+ */
+@Slf4j
+public class EventListenerDispatcher implements AutoCloseable {
+
+    private final EventListenerRegistry registry;
+    private final CloudEventDecoder decoder;
+    private final DeduplicationStore deduplicationStore;
+    private final EventLatencyRecorder latencyRecorder;
+    private final Map<DaprTopic, TopicLimiter> limiters = new EnumMap<>(DaprTopic.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param registry           the registry of the listeners
+     * @param decoder            the decoder of the received cloud events
+     * @param deduplicationStore the store of the handled events, used for listeners that skip redelivered events
+     * @param latencyRecorder    the recorder of the lag and handling time of the events
+     * @param defaultConcurrency maximum number of events handled at the same time for topics without their own limit
+     * @param topicConcurrency   maximum number of events handled at the same time per topic
+     * @param meterRegistry      registry the metrics are registered in
+     */
+    public EventListenerDispatcher(final EventListenerRegistry registry,
+                                   final CloudEventDecoder decoder,
+                                   final DeduplicationStore deduplicationStore,
+                                   final EventLatencyRecorder latencyRecorder,
+                                   final int defaultConcurrency,
+                                   final Map<DaprTopic, Integer> topicConcurrency,
+                                   final MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.decoder = decoder;
+        this.deduplicationStore = deduplicationStore;
+        this.latencyRecorder = latencyRecorder;
+        for (final DaprTopic topic : DaprTopic.values()) {
+            final int concurrency = topicConcurrency.getOrDefault(topic, defaultConcurrency);
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Concurrency of topic " + topic.getTopic() + " must be at least 1");
+            }
+            limiters.put(topic, new TopicLimiter(topic, concurrency, latencyRecorder, meterRegistry));
+        }
+    }
+
+    /**
+     * Handles an event asynchronously.
+     *
+     * @param topic      the topic the event was received from
+     * @param cloudEvent the cloud event as received from Dapr
+     * @return a future completing with the status reported to Dapr
+     */
+    public CompletableFuture<EventHandlingStatus> dispatch(final DaprTopic topic, final byte[] cloudEvent) {
+        final List<EventListenerMethod> listeners = registry.getListeners(topic);
+        if (listeners.isEmpty()) {
+            log.warn("Received event of topic {} without listener", topic.getTopic());
+            return CompletableFuture.completedFuture(EventHandlingStatus.DROP);
+        }
+        final TopicLimiter limiter = limiters.get(topic);
+        limiter.waiting.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> limiter.run(
+                () -> handle(topic, cloudEvent, listeners),
+                status -> status == EventHandlingStatus.SUCCESS,
+                () -> EventHandlingStatus.RETRY), executor);
+    }
+
+    /**
+     * Handles a batch delivered by the bulk subscribe API asynchronously.
+     *
+     * @param topic the topic the batch was received from
+     * @param body  the batch as received from Dapr
+     * @return a future completing with the status of every entry of the batch, as reported to Dapr
+     */
+    public CompletableFuture<List<BulkEntryStatus>> dispatchBulk(final DaprTopic topic, final byte[] body) {
+        final JsonNode entries;
+        try {
+            entries = decoder.readTree(body).path("entries");
+        } catch (final IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException("Invalid bulk delivery", e));
+        }
+        final BatchEventListener<?> listener = registry.getBatchListener(topic);
+        if (listener == null) {
+            log.warn("Received batch of topic {} without batch listener", topic.getTopic());
+            return CompletableFuture.completedFuture(allWithStatus(entries, EventHandlingStatus.DROP));
+        }
+        final TopicLimiter limiter = limiters.get(topic);
+        limiter.waiting.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> limiter.run(
+                () -> handleBatch(topic, entries, listener),
+                statuses -> statuses.stream().noneMatch(status -> status.status() == EventHandlingStatus.RETRY),
+                () -> allWithStatus(entries, EventHandlingStatus.RETRY)), executor);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private EventHandlingStatus handle(final DaprTopic topic, final byte[] cloudEvent,
+                                       final List<EventListenerMethod> listeners) {
+        final JsonNode envelope;
+        try {
+            envelope = decoder.readTree(cloudEvent);
+        } catch (final IOException e) {
+            log.error("Dropping event of topic {} that is no valid cloud event", topic.getTopic(), e);
+            return EventHandlingStatus.DROP;
+        }
+        latencyRecorder.recordLag(topic, envelope);
+        final String eventId = envelope.path("id").asText(null);
+
+        // listeners taking the same class share the deserialized event
+        final Map<Class<?>, Object> events = new HashMap<>();
+        for (final EventListenerMethod listener : listeners) {
+            final Object event;
+            try {
+                event = events.containsKey(listener.eventType())
+                        ? events.get(listener.eventType())
+                        : decoder.decode(envelope, listener.eventType());
+            } catch (final IOException e) {
+                log.error("Dropping event of topic {} that cannot be decoded as {}",
+                        topic.getTopic(), listener.eventType().getSimpleName(), e);
+                return EventHandlingStatus.DROP;
+            }
+            events.put(listener.eventType(), event);
+
+            // every listener claims the event on its own, so that a retry only skips the listeners that succeeded
+            final String claim = listener.deduplicate() && eventId != null ? listener.name() + "/" + eventId : null;
+            boolean claimed = false;
+            try {
+                if (claim != null) {
+                    final ClaimStatus claimStatus = deduplicationStore.tryClaim(claim);
+                    if (claimStatus == ClaimStatus.DUPLICATE) {
+                        log.debug("Skipping redelivered event {} of topic {} for listener {}",
+                                eventId, topic.getTopic(), listener.name());
+                        continue;
+                    }
+                    if (claimStatus == ClaimStatus.IN_PROGRESS) {
+                        log.debug("Event {} of topic {} is being handled by listener {}, retrying later",
+                                eventId, topic.getTopic(), listener.name());
+                        return EventHandlingStatus.RETRY;
+                    }
+                    claimed = true;
+                }
+                listener.invoke(event);
+                if (claimed) {
+                    deduplicationStore.confirm(claim);
+                }
+            } catch (final Exception e) {
+                if (claimed) {
+                    deduplicationStore.release(claim);
+                }
+                log.error("Listener {} failed to handle event of topic {}", listener.name(), topic.getTopic(), e);
+                return EventHandlingStatus.RETRY;
+            }
+        }
+        return EventHandlingStatus.SUCCESS;
+    }
+
+    private <T> List<BulkEntryStatus> handleBatch(final DaprTopic topic, final JsonNode entries,
+                                                  final BatchEventListener<T> listener) {
+        final List<BulkEntryStatus> statuses = new ArrayList<>(entries.size());
+        final List<String> decodedEntryIds = new ArrayList<>(entries.size());
+        final List<T> events = new ArrayList<>(entries.size());
+        for (final JsonNode entry : entries) {
+            final String entryId = entry.path("entryId").asText();
+            try {
+                events.add(decodeEntry(topic, entry, listener.getEventType()));
+                decodedEntryIds.add(entryId);
+            } catch (final IOException e) {
+                log.error("Dropping event of topic {} that cannot be decoded as {}",
+                        topic.getTopic(), listener.getEventType().getSimpleName(), e);
+                statuses.add(new BulkEntryStatus(entryId, EventHandlingStatus.DROP));
+            }
+        }
+        if (events.isEmpty()) {
+            return statuses;
+        }
+
+        List<EventHandlingStatus> eventStatuses;
+        try {
+            eventStatuses = listener.handleBatch(Collections.unmodifiableList(events));
+            if (eventStatuses == null || eventStatuses.size() != events.size()) {
+                throw new IllegalStateException("Expected " + events.size() + " statuses, but got "
+                                                + (eventStatuses == null ? null : eventStatuses.size()));
+            }
+        } catch (final Exception e) {
+            log.error("Batch listener failed to handle {} events of topic {}", events.size(), topic.getTopic(), e);
+            eventStatuses = Collections.nCopies(events.size(), EventHandlingStatus.RETRY);
+        }
+        for (int i = 0; i < decodedEntryIds.size(); i++) {
+            statuses.add(new BulkEntryStatus(decodedEntryIds.get(i), eventStatuses.get(i)));
+        }
+        return statuses;
+    }
+
+    private <T> T decodeEntry(final DaprTopic topic, final JsonNode entry, final Class<T> clazz) throws IOException {
+        final JsonNode event = entry.path("event");
+        if (event.isObject()) {
+            latencyRecorder.recordLag(topic, event);
+            return decoder.decode(event, clazz);
+        }
+        // raw payloads are not wrapped in a cloud event, binary payloads are delivered base64-encoded
+        final String contentType = entry.path("contentType").asText(null);
+        final byte[] payload = event.isTextual() && !OutgoingEvent.BINARY_CONTENT_TYPE.equals(contentType)
+                ? event.asText().getBytes(StandardCharsets.UTF_8)
+                : event.binaryValue();
+        final JsonNode metadata = entry.path("metadata");
+        return decoder.decodePayload(payload, contentType,
+                metadata.path(OutgoingEvent.ENCODING_METADATA).asText(null),
+                metadata.path(PayloadCompressor.COMPRESSION_METADATA).asText(null), clazz);
+    }
+
+    private static List<BulkEntryStatus> allWithStatus(final JsonNode entries, final EventHandlingStatus status) {
+        final List<BulkEntryStatus> statuses = new ArrayList<>(entries.size());
+        for (final JsonNode entry : entries) {
+            statuses.add(new BulkEntryStatus(entry.path("entryId").asText(), status));
+        }
+        return statuses;
+    }
+
+    /**
+     * Limits the number of events of a topic handled at the same time.
+     */
+    private static final class TopicLimiter {
+
+        private final DaprTopic topic;
+        private final Semaphore permits;
+        private final EventLatencyRecorder latencyRecorder;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+
+        private TopicLimiter(final DaprTopic topic, final int concurrency, final EventLatencyRecorder latencyRecorder,
+                             final MeterRegistry meterRegistry) {
+            this.topic = topic;
+            this.permits = new Semaphore(concurrency);
+            this.latencyRecorder = latencyRecorder;
+            Gauge.builder("dapr.listener.queue.depth", waiting, AtomicInteger::get)
+                    .description("Number of received events waiting to be handled")
+                    .tag("topic", topic.getTopic())
+                    .register(meterRegistry);
+            Gauge.builder("dapr.listener.active", active, AtomicInteger::get)
+                    .description("Number of received events currently being handled")
+                    .tag("topic", topic.getTopic())
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Waits for a free slot and runs the handler.
+         *
+         * @param handler     the handler of the event
+         * @param isSuccess   whether the result of the handler counts as success in the metrics
+         * @param interrupted the result if the thread is interrupted while waiting
+         * @return the result of the handler
+         */
+        private <R> R run(final Supplier<R> handler, final Predicate<R> isSuccess, final Supplier<R> interrupted) {
+            try {
+                permits.acquire();
+            } catch (final InterruptedException e) {
+                waiting.decrementAndGet();
+                Thread.currentThread().interrupt();
+                return interrupted.get();
+            }
+            waiting.decrementAndGet();
+            active.incrementAndGet();
+            final long start = System.nanoTime();
+            boolean success = false;
+            try {
+                final R result = handler.get();
+                success = isSuccess.test(result);
+                return result;
+            } finally {
+                latencyRecorder.recordHandlerDuration(topic, System.nanoTime() - start, success);
+                active.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * A method annotated with {@link DaprEventListener}, bound to the bean it is invoked on.
+ *
+ * @param topic       the topic the method listens to
+ * @param bean        the bean the method is invoked on
+ * @param method      the listener method
+ * @param eventType   the class the events are deserialized to
+ * @param deduplicate whether redelivered events are skipped
+ */
+public record EventListenerMethod(DaprTopic topic, Object bean, Method method, Class<?> eventType,
+                                  boolean deduplicate) {
+
+    /**
+     * @return a name of the listener method that is unique within the service
+     */
+    public String name() {
+        return method.getDeclaringClass().getName() + "." + method.getName();
+    }
+
+    /**
+     * Invokes the listener method.
+     *
+     * @param event the deserialized event
+     * @throws Exception the exception thrown by the listener method
+     */
+    public void invoke(final Object event) throws Exception {
+        try {
+            method.invoke(bean, event);
+        } catch (final InvocationTargetException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
+import io.dapr.springboot.DaprRuntime;
+import io.dapr.springboot.DaprTopicBulkSubscribe;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Collects the methods annotated with {@link DaprEventListener} and the {@link BatchEventListener}s of all beans
+ * and subscribes their topics once all beans have been created.
+ * <p>
+ * The subscriptions are registered in the {@link DaprRuntime} of the Dapr Spring Boot integration,
+ * which reports them to the sidecar. Dapr delivers the events of a topic to the route
+ * {@code /dapr/listener/<topic>} or, for batch listeners, {@code /dapr/listener/bulk/<topic>},
+ * both served by the {@link EventListenerController}.
+ */
+@Slf4j
+public class EventListenerRegistry implements BeanPostProcessor, SmartInitializingSingleton {
+
+    /**
+     * Path the events are delivered to, followed by the name of the {@link DaprTopic}.
+     */
+    public static final String ROUTE_PREFIX = "/dapr/listener/";
+
+    /**
+     * Path the batches of the bulk subscriptions are delivered to, followed by the name of the {@link DaprTopic}.
+     */
+    public static final String BULK_ROUTE_PREFIX = ROUTE_PREFIX + "bulk/";
+
+    private final Function<DaprTopic, BulkSubscribeOptions> bulkSubscribeOptions;
+    private final Map<DaprTopic, List<EventListenerMethod>> listeners = new EnumMap<>(DaprTopic.class);
+    private final Map<DaprTopic, BatchEventListener<?>> batchListeners = new EnumMap<>(DaprTopic.class);
+
+    /**
+     * @param bulkSubscribeOptions the options of the bulk subscription per topic,
+     *                             only called after all beans have been created
+     */
+    public EventListenerRegistry(final Function<DaprTopic, BulkSubscribeOptions> bulkSubscribeOptions) {
+        this.bulkSubscribeOptions = bulkSubscribeOptions;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        final Class<?> targetClass = AopUtils.getTargetClass(bean);
+        final Map<Method, DaprEventListener> annotatedMethods = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<DaprEventListener>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, DaprEventListener.class));
+        annotatedMethods.forEach((method, annotation) -> register(bean, beanName, method, annotation));
+        if (bean instanceof BatchEventListener<?> batchListener) {
+            register(batchListener, beanName);
+        }
+        return bean;
+    }
+
+    /**
+     * Subscribes the topics of all registered listeners.
+     */
+    @Override
+    public synchronized void afterSingletonsInstantiated() {
+        listeners.keySet().forEach(topic -> subscribe(topic, ROUTE_PREFIX + topic.name(), null));
+        batchListeners.keySet().forEach(topic ->
+                subscribe(topic, BULK_ROUTE_PREFIX + topic.name(), bulkSubscribeOptions.apply(topic)));
+    }
+
+    /**
+     * @param topic the topic
+     * @return the listeners of the topic
+     */
+    public synchronized List<EventListenerMethod> getListeners(final DaprTopic topic) {
+        return List.copyOf(listeners.getOrDefault(topic, List.of()));
+    }
+
+    /**
+     * @param topic the topic
+     * @return the batch listener of the topic or {@code null} if the topic has no batch listener
+     */
+    public synchronized BatchEventListener<?> getBatchListener(final DaprTopic topic) {
+        return batchListeners.get(topic);
+    }
+
+    private synchronized void register(final Object bean, final String beanName,
+                                       final Method method, final DaprEventListener annotation) {
+        final DaprTopic topic = annotation.value();
+        if (method.getParameterCount() != 1) {
+            throw new IllegalStateException("Listener method " + beanName + "." + method.getName()
+                                            + " must have exactly one parameter, the event");
+        }
+        if (batchListeners.containsKey(topic)) {
+            throw new IllegalStateException("Topic " + topic.getTopic() + " already has a batch listener");
+        }
+        final Method invocableMethod = AopUtils.selectInvocableMethod(method, bean.getClass());
+        invocableMethod.trySetAccessible();
+
+        listeners.computeIfAbsent(topic, ignored -> new ArrayList<>())
+                .add(new EventListenerMethod(topic, bean, invocableMethod, method.getParameterTypes()[0],
+                        annotation.deduplicate()));
+        log.info("Registered {}.{} as listener of topic {}", beanName, method.getName(), topic.getTopic());
+    }
+
+    private synchronized void register(final BatchEventListener<?> batchListener, final String beanName) {
+        final DaprTopic topic = batchListener.getTopic();
+        if (listeners.containsKey(topic) || batchListeners.containsKey(topic)) {
+            throw new IllegalStateException("Topic " + topic.getTopic() + " already has a listener");
+        }
+        batchListeners.put(topic, batchListener);
+        log.info("Registered {} as batch listener of topic {}", beanName, topic.getTopic());
+    }
+
+    /**
+     * Registers the subscription of a topic. Overridden in tests, which run without the Dapr runtime.
+     *
+     * @param topic   the topic to subscribe
+     * @param route   the route the events are delivered to
+     * @param options the options of the bulk subscription or {@code null} if events are delivered one by one
+     */
+    void subscribe(final DaprTopic topic, final String route, final BulkSubscribeOptions options) {
+        DaprTopicBulkSubscribe bulkSubscribe = null;
+        if (options != null) {
+            bulkSubscribe = new DaprTopicBulkSubscribe(true);
+            bulkSubscribe.setMaxMessagesCount(options.getMaxMessagesCount());
+            bulkSubscribe.setMaxAwaitDurationMs(Math.toIntExact(options.getMaxAwaitDuration().toMillis()));
+        }
+        DaprRuntime.getInstance().addSubscribedTopic(TopicPublisher.PUBSUB_NAME, topic.getTopic(),
+                "", 0, route, Map.of(), bulkSubscribe);
+    }
+}
@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.meitrex.common.dapr.outbox;
+
+import de.unistuttgart.iste.meitrex.common.dapr.EventDispatcher;
+import de.unistuttgart.iste.meitrex.common.dapr.OutgoingEvent;
+import lombok.RequiredArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatcher that stores events in the outbox table instead of sending them to the sidecar.
+ * <p>
+ * The insert joins the transaction of the caller, if there is one. Events are therefore only published
+ * if the transaction of the caller commits. The {@link OutboxRelay} publishes the stored events in the background.
+ */
+@RequiredArgsConstructor
+public class OutboxEventDispatcher implements EventDispatcher {
+
+    private final OutboxEventRepository repository;
+
+    /**
+     * Stores the event in the outbox table.
+     *
+     * @param event the serialized event
+     * @return a completed future, as the event is published later by the {@link OutboxRelay}
+     */
+    @Override
+    public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+        repository.save(OutboxEventEntity.builder()
+                .topic(event.getTopic())
+                .payload(event.getPayload())
+                .contentType(event.getContentType())
+                .metadata(event.getMetadata())
+                .createdAt(OffsetDateTime.now())
+                .build());
+        return CompletableFuture.completedFuture(null);
+    }
+}
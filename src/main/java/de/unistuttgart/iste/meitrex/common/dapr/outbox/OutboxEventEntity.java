@@ -0,0 +1,50 @@
+package de.unistuttgart.iste.meitrex.common.dapr.outbox;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.persistence.IWithId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * A serialized event waiting in the outbox table until it is relayed to the Dapr sidecar.
+ * Events are relayed in the order of their ids.
+ */
+@Entity(name = "DaprOutboxEvent")
+@Table(name = "dapr_outbox_event")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventEntity implements IWithId<Long> {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private DaprTopic topic;
+
+    @Column(nullable = false)
+    private byte[] payload;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    /**
+     * Metadata of the event, see {@link de.unistuttgart.iste.meitrex.common.dapr.OutgoingEvent#getMetadata()}.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, String> metadata;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package de.unistuttgart.iste.meitrex.common.dapr.outbox;
+
+import de.unistuttgart.iste.meitrex.common.persistence.MeitrexRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends MeitrexRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Finds the oldest events in the outbox. The rows are not locked, only the holder of the
+     * {@link OutboxRelayLeaseEntity lease} may relay them.
+     *
+     * @param pageable the number of events to fetch
+     * @return the oldest events, ordered by their id
+     */
+    @Query("SELECT e FROM DaprOutboxEvent e ORDER BY e.id")
+    List<OutboxEventEntity> findPendingEvents(Pageable pageable);
+}
@@ -0,0 +1,238 @@
+package de.unistuttgart.iste.meitrex.common.dapr.outbox;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishEntry;
+import io.dapr.client.domain.BulkPublishRequest;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays the events stored by the {@link OutboxEventDispatcher} to the Dapr sidecar.
+ * <p>
+ * The relay periodically fetches the oldest events from the outbox table and publishes them in order.
+ * Consecutive events of the same topic are sent in one bulk publish request.
+ * Published events are deleted from the table. If an event cannot be published, relaying stops at this event
+ * and it is retried together with all following events in the next run, so that the order is preserved.
+ * <p>
+ * If several instances of a service are running, only the instance holding the
+ * {@link OutboxRelayLeaseEntity lease} relays events. The lease is renewed before every publish request and
+ * expires if its holder stops, so that another instance takes over.
+ * The publish requests are sent outside of any database transaction and are bounded by a timeout shorter than
+ * the lease, published events are deleted in a short transaction afterwards.
+ */
+@Slf4j
+public class OutboxRelay implements AutoCloseable {
+
+    static final String LEASE_NAME = "outbox-relay";
+
+    private final OutboxEventRepository repository;
+    private final OutboxRelayLeaseRepository leaseRepository;
+    private final DaprPreviewClient client;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration leaseDuration;
+    private final Duration publishTimeout;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dapr-outbox-relay").daemon().factory());
+
+    /**
+     * @param repository          the repository of the outbox table
+     * @param leaseRepository     the repository of the relay lease
+     * @param client              the client used to publish the events
+     * @param transactionTemplate the template used to acquire the lease and to delete the relayed events
+     * @param batchSize           maximum number of events fetched from the table at once
+     * @param pollInterval        delay between two runs of the relay
+     * @param leaseDuration       time after which the lease expires if it is not renewed
+     * @param publishTimeout      maximum time to wait for one publish request, must be shorter than the lease
+     */
+    public OutboxRelay(final OutboxEventRepository repository,
+                       final OutboxRelayLeaseRepository leaseRepository,
+                       final DaprPreviewClient client,
+                       final TransactionTemplate transactionTemplate,
+                       final int batchSize,
+                       final Duration pollInterval,
+                       final Duration leaseDuration,
+                       final Duration publishTimeout) {
+        if (publishTimeout.compareTo(leaseDuration) >= 0) {
+            throw new IllegalArgumentException("The publish timeout of the outbox relay must be shorter than its lease");
+        }
+        this.repository = repository;
+        this.leaseRepository = leaseRepository;
+        this.client = client;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.leaseDuration = leaseDuration;
+        this.publishTimeout = publishTimeout;
+    }
+
+    /**
+     * Starts relaying events in the background.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::relayPendingEvents,
+                pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            releaseLease();
+        } catch (final RuntimeException e) {
+            log.warn("Could not release the outbox relay lease: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relays batches of events until the outbox table is empty or an event could not be published.
+     */
+    void relayPendingEvents() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (final RuntimeException e) {
+            log.error("Error while relaying outbox events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes and deletes the oldest events of the outbox table.
+     * Does nothing if another relay holds the lease.
+     *
+     * @return the number of events that were published
+     */
+    int relayBatch() {
+        final List<OutboxEventEntity> events = repository.findPendingEvents(PageRequest.of(0, batchSize));
+
+        int relayed = 0;
+        int start = 0;
+        while (start < events.size()) {
+            final DaprTopic topic = events.get(start).getTopic();
+            int end = start + 1;
+            while (end < events.size() && events.get(end).getTopic() == topic) {
+                end++;
+            }
+
+            if (!acquireLease()) {
+                log.debug("Outbox relay lease is held by another instance");
+                break;
+            }
+
+            final List<OutboxEventEntity> run = events.subList(start, end);
+            final int published = publish(topic, run);
+            transactionTemplate.executeWithoutResult(status -> repository.deleteAllInBatch(run.subList(0, published)));
+            relayed += published;
+
+            if (published < run.size()) {
+                break;
+            }
+            start = end;
+        }
+        return relayed;
+    }
+
+    /**
+     * Publishes the given events of one topic.
+     *
+     * @return the number of leading events that were published successfully
+     */
+    private int publish(final DaprTopic topic, final List<OutboxEventEntity> events) {
+        final List<BulkPublishEntry<byte[]>> entries = events.stream()
+                .map(event -> new BulkPublishEntry<>(String.valueOf(event.getId()), event.getPayload(),
+                        event.getContentType(), event.getMetadata() == null ? Map.of() : event.getMetadata()))
+                .toList();
+
+        final BulkPublishResponse<byte[]> response;
+        try {
+            response = client.publishEvents(new BulkPublishRequest<>(TopicPublisher.PUBSUB_NAME, topic.getTopic(), entries))
+                    .block(publishTimeout);
+        } catch (final RuntimeException e) {
+            log.error("Error while relaying outbox events to daprTopic {}: {}", topic.getTopic(), e.getMessage());
+            return 0;
+        }
+
+        if (response == null || response.getFailedEntries() == null || response.getFailedEntries().isEmpty()) {
+            return events.size();
+        }
+
+        final Map<String, String> failedEntries = new HashMap<>();
+        for (final BulkPublishResponseFailedEntry<byte[]> failedEntry : response.getFailedEntries()) {
+            failedEntries.put(failedEntry.getEntry().getEntryID(), failedEntry.getErrorMessage());
+        }
+        for (int i = 0; i < events.size(); i++) {
+            final String errorMessage = failedEntries.get(String.valueOf(events.get(i).getId()));
+            if (errorMessage != null) {
+                log.error("Error while relaying outbox event {} to daprTopic {}: {}",
+                        events.get(i).getId(), topic.getTopic(), errorMessage);
+                return i;
+            }
+        }
+        return events.size();
+    }
+
+    /**
+     * Acquires or renews the lease of this relay.
+     *
+     * @return whether this relay holds the lease
+     */
+    boolean acquireLease() {
+        try {
+            return tryAcquireLease();
+        } catch (final DataIntegrityViolationException e) {
+            // another relay inserted the lease concurrently, it is locked on the second attempt
+            return tryAcquireLease();
+        }
+    }
+
+    private boolean tryAcquireLease() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            final OffsetDateTime now = OffsetDateTime.now();
+            final OutboxRelayLeaseEntity lease = leaseRepository.findForUpdate(LEASE_NAME)
+                    .orElseGet(() -> new OutboxRelayLeaseEntity(LEASE_NAME, null, now));
+
+            if (lease.getOwner() != null && !owner.equals(lease.getOwner()) && lease.getExpiresAt().isAfter(now)) {
+                return false;
+            }
+
+            lease.setOwner(owner);
+            lease.setExpiresAt(now.plus(leaseDuration));
+            leaseRepository.saveAndFlush(lease);
+            return true;
+        }));
+    }
+
+    /**
+     * Lets the lease of this relay expire immediately, so that another instance can take over.
+     */
+    private void releaseLease() {
+        transactionTemplate.executeWithoutResult(status -> leaseRepository.findForUpdate(LEASE_NAME)
+                .filter(lease -> owner.equals(lease.getOwner()))
+                .ifPresent(lease -> {
+                    lease.setOwner(null);
+                    leaseRepository.saveAndFlush(lease);
+                }));
+    }
+}
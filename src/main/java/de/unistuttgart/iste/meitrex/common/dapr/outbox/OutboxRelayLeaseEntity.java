@@ -0,0 +1,39 @@
+package de.unistuttgart.iste.meitrex.common.dapr.outbox;
+
+import de.unistuttgart.iste.meitrex.common.persistence.IWithId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Lease of the {@link OutboxRelay} allowed to relay the events of the outbox table.
+ * Only the holder of an unexpired lease relays events, so the events are published in order
+ * even if several instances of a service are running.
+ */
+@Entity(name = "DaprOutboxRelayLease")
+@Table(name = "dapr_outbox_relay_lease")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxRelayLeaseEntity implements IWithId<String> {
+
+    @Id
+    @Column(name = "lease_name")
+    private String id;
+
+    /**
+     * Id of the relay holding the lease.
+     */
+    private String owner;
+
+    @Column(nullable = false)
+    private OffsetDateTime expiresAt;
+}
@@ -0,0 +1,24 @@
+package de.unistuttgart.iste.meitrex.common.dapr.outbox;
+
+import de.unistuttgart.iste.meitrex.common.persistence.MeitrexRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxRelayLeaseRepository extends MeitrexRepository<OutboxRelayLeaseEntity, String> {
+
+    /**
+     * Finds a lease and locks it for the current transaction.
+     *
+     * @param name the name of the lease
+     * @return the lease or an empty optional if it has never been acquired
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM DaprOutboxRelayLease l WHERE l.id = :name")
+    Optional<OutboxRelayLeaseEntity> findForUpdate(@Param("name") String name);
+}
@@ -18,7 +18,7 @@ import java.util.UUID;
  * the submitted files.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class StudentCodeSubmittedEvent {
@@ -64,4 +64,11 @@ public class StudentCodeSubmittedEvent {
      * Name of the branch from which the code was submitted.
      */
     private String branch;
+
+    /**
+     * Map of file paths to the SHA-256 hashes of their contents.
+     * Set instead of {@link #files} if the publisher stores the file contents in a blob store (claim-check mode).
+     * Use a {@link de.unistuttgart.iste.meitrex.common.dapr.claimcheck.ClaimCheckResolver} to access the contents.
+     */
+    private Map<String, String> fileHashes;
 }
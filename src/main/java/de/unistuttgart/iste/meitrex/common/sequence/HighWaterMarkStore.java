@@ -0,0 +1,21 @@
+package de.unistuttgart.iste.meitrex.common.sequence;
+
+/**
+ * Persistent storage of the highest sequence number reserved so far per key.
+ * Used by the {@link SequenceAllocator} to reserve blocks of sequence numbers.
+ */
+@FunctionalInterface
+public interface HighWaterMarkStore {
+
+    /**
+     * Atomically raises the high-water mark of the given key by the given block size. The new high-water mark
+     * must be durable when this method returns, so that the block is never handed out twice, even after a restart
+     * or by another instance of the service.
+     *
+     * @param key       the key of the sequence, e.g. the id of a user
+     * @param blockSize the number of sequence numbers to reserve
+     * @return the high-water mark before the reservation. The numbers after it up to and including
+     * the returned value plus {@code blockSize} belong to the caller.
+     */
+    long reserve(String key, int blockSize);
+}
@@ -0,0 +1,43 @@
+package de.unistuttgart.iste.meitrex.common.sequence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+/**
+ * {@link HighWaterMarkStore} that keeps the high-water marks in a database table.
+ * <p>
+ * The row of a key is locked while its high-water mark is raised, so that several instances of a service
+ * can reserve blocks of the same key. The transaction template should start a new transaction
+ * ({@code PROPAGATION_REQUIRES_NEW}), so that a reserved block stays reserved even if the transaction
+ * of the caller is rolled back.
+ */
+@RequiredArgsConstructor
+public class JpaHighWaterMarkStore implements HighWaterMarkStore {
+
+    private final SequenceHighWaterMarkRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public long reserve(final String key, final int blockSize) {
+        try {
+            return reserveInTransaction(key, blockSize);
+        } catch (final DataIntegrityViolationException e) {
+            // another instance inserted the first high-water mark of the key concurrently, the retry locks its row
+            return reserveInTransaction(key, blockSize);
+        }
+    }
+
+    private long reserveInTransaction(final String key, final int blockSize) {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            final SequenceHighWaterMarkEntity entity = repository.findForUpdate(key)
+                    .orElseGet(() -> new SequenceHighWaterMarkEntity(key, 0));
+            final long highWaterMark = entity.getHighWaterMark();
+            entity.setHighWaterMark(highWaterMark + blockSize);
+            repository.saveAndFlush(entity);
+            return highWaterMark;
+        }));
+    }
+}
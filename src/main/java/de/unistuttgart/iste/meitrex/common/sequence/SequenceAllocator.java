@@ -0,0 +1,196 @@
+package de.unistuttgart.iste.meitrex.common.sequence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Allocates monotonically increasing sequence numbers per key, e.g. the sequence numbers of the
+ * {@link de.unistuttgart.iste.meitrex.common.event.UserProgressUpdatedEvent}s of a user.
+ * <p>
+ * The allocator uses the hi/lo algorithm: blocks of numbers are reserved from a {@link HighWaterMarkStore}
+ * and handed out from memory, so that the store is only accessed once per block and key. Numbers are taken
+ * from the current block with an atomic increment, no lock is held.
+ * If several threads exhaust a block at the same time, each of them reserves a new block, but only the first one
+ * is used and the others are discarded.
+ * <p>
+ * The blocks of at most {@code maxKeys} keys are kept in memory. If more keys are used, the blocks of the least
+ * recently used keys are evicted and a new block is reserved the next time the key is used. An evicted block is
+ * exhausted before it is removed, so that threads still holding it cannot hand out its numbers after numbers of
+ * the new block.
+ * <p>
+ * Sequence numbers are unique and increase with every call, also across restarts, as the high-water mark is
+ * persisted before any number of a block is handed out. They are not gapless: the unused numbers of a block
+ * are skipped after a restart or when the block is evicted, and the numbers of discarded blocks are never used.
+ */
+@Slf4j
+public class SequenceAllocator {
+
+    private static final int DEFAULT_MAX_KEYS = 10_000;
+
+    /**
+     * Marks a sequence whose key has been evicted.
+     */
+    private static final Block EVICTED = Block.exhausted();
+
+    private final HighWaterMarkStore store;
+    private final int blockSize;
+    private final int maxKeys;
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * @param store     the store the blocks are reserved from
+     * @param blockSize number of sequence numbers reserved at once
+     */
+    public SequenceAllocator(final HighWaterMarkStore store, final int blockSize) {
+        this(store, blockSize, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param store     the store the blocks are reserved from
+     * @param blockSize number of sequence numbers reserved at once
+     * @param maxKeys   maximum number of keys whose blocks are kept in memory
+     */
+    public SequenceAllocator(final HighWaterMarkStore store, final int blockSize, final int maxKeys) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be at least 1, but was " + blockSize);
+        }
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be at least 1, but was " + maxKeys);
+        }
+        this.store = store;
+        this.blockSize = blockSize;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @param userId the id of the user
+     * @return the next sequence number of the user
+     */
+    public long next(final UUID userId) {
+        return next(userId.toString());
+    }
+
+    /**
+     * @param key the key of the sequence
+     * @return the next sequence number of the key, greater than all numbers returned for this key before
+     */
+    public long next(final String key) {
+        Sequence sequence = getSequence(key);
+        while (true) {
+            final Block block = sequence.get();
+            if (block == EVICTED) {
+                // the key was evicted concurrently, its numbers are handed out from a new sequence
+                sequences.remove(key, sequence);
+                sequence = getSequence(key);
+                continue;
+            }
+            final long value = block.next.getAndIncrement();
+            if (value <= block.last) {
+                return value;
+            }
+            final long highWaterMark = store.reserve(key, blockSize);
+            // only replace the exhausted block, so that a block reserved later is never replaced by an earlier one
+            // and no block is installed in an evicted sequence
+            if (!sequence.compareAndSet(block, new Block(highWaterMark + 1, highWaterMark + blockSize))) {
+                log.debug("Discarding sequence block after {} of key {}, another block was reserved concurrently",
+                        highWaterMark, key);
+            }
+        }
+    }
+
+    private Sequence getSequence(final String key) {
+        Sequence sequence = sequences.get(key);
+        if (sequence == null) {
+            sequence = sequences.computeIfAbsent(key, ignored -> new Sequence());
+            if (sequences.size() > maxKeys) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        sequence.lastUsed = System.nanoTime();
+        return sequence;
+    }
+
+    /**
+     * Evicts the sequences of the least recently used keys, so that a quarter of {@code maxKeys} is free again.
+     * Only one thread evicts at a time, other threads continue without waiting.
+     */
+    private void evictLeastRecentlyUsed() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final int excess = sequences.size() - (maxKeys - maxKeys / 4);
+            if (excess <= 0) {
+                return;
+            }
+            // the last use is copied, as it changes concurrently and must not change while sorting
+            sequences.entrySet().stream()
+                    .map(entry -> new Candidate(entry.getKey(), entry.getValue(), entry.getValue().lastUsed))
+                    .sorted(Comparator.comparingLong(Candidate::lastUsed))
+                    .limit(excess)
+                    .forEach(candidate -> evict(candidate.key(), candidate.sequence()));
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Marks the sequence as evicted and exhausts its block before removing it, so that no number of the block is
+     * handed out once the key uses a new sequence.
+     */
+    private void evict(final String key, final Sequence sequence) {
+        sequence.getAndSet(EVICTED).exhaust();
+        sequences.remove(key, sequence);
+    }
+
+    private record Candidate(String key, Sequence sequence, long lastUsed) {
+    }
+
+    /**
+     * The current block of a key.
+     */
+    private static final class Sequence extends AtomicReference<Block> {
+
+        /**
+         * Time of the last use, only used to select the keys to evict.
+         */
+        private volatile long lastUsed = System.nanoTime();
+
+        private Sequence() {
+            super(Block.exhausted());
+        }
+    }
+
+    /**
+     * Numbers that were reserved, from the next number to hand out up to and including the last one.
+     */
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(final long first, final long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        /**
+         * Ensures that no further number is handed out from this block.
+         */
+        private void exhaust() {
+            next.accumulateAndGet(last + 1, Math::max);
+        }
+
+        private static Block exhausted() {
+            return new Block(1, 0);
+        }
+    }
+}
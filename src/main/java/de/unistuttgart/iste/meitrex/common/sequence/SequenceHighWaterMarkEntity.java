@@ -0,0 +1,30 @@
+package de.unistuttgart.iste.meitrex.common.sequence;
+
+import de.unistuttgart.iste.meitrex.common.persistence.IWithId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The highest sequence number reserved so far for a key.
+ */
+@Entity(name = "MeitrexSequenceHighWaterMark")
+@Table(name = "meitrex_sequence_high_water_mark")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SequenceHighWaterMarkEntity implements IWithId<String> {
+
+    @Id
+    @Column(name = "sequence_key")
+    private String id;
+
+    @Column(nullable = false)
+    private long highWaterMark;
+}
@@ -0,0 +1,24 @@
+package de.unistuttgart.iste.meitrex.common.sequence;
+
+import de.unistuttgart.iste.meitrex.common.persistence.MeitrexRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SequenceHighWaterMarkRepository extends MeitrexRepository<SequenceHighWaterMarkEntity, String> {
+
+    /**
+     * Finds the high-water mark of a key and locks it for the current transaction.
+     *
+     * @param key the key of the sequence
+     * @return the high-water mark or an empty optional if nothing was reserved for the key yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MeitrexSequenceHighWaterMark s WHERE s.id = :key")
+    Optional<SequenceHighWaterMarkEntity> findForUpdate(@Param("key") String key);
+}
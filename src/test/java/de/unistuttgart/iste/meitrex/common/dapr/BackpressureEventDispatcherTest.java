@@ -0,0 +1,140 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class BackpressureEventDispatcherTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingDispatcher delegate = new RecordingDispatcher();
+
+    @Test
+    void testInFlightCountIsTracked() {
+        // Arrange
+        final BackpressureEventDispatcher dispatcher = createDispatcher(OverflowPolicy.DROP, null);
+
+        // Act
+        dispatcher.dispatch(event());
+        dispatcher.dispatch(event());
+
+        // Assert
+        assertThat(dispatcher.getInFlightCount(), is(2));
+        assertThat(meterRegistry.get("dapr.publisher.inflight").gauge().value(), is(2.0));
+
+        delegate.completeAll();
+        assertThat(dispatcher.getInFlightCount(), is(0));
+    }
+
+    @Test
+    void testDropPolicyRejectsEventsAboveLimit() {
+        // Arrange
+        final BackpressureEventDispatcher dispatcher = createDispatcher(OverflowPolicy.DROP, null);
+        dispatcher.dispatch(event());
+        dispatcher.dispatch(event());
+
+        // Act
+        final CompletableFuture<Void> dropped = dispatcher.dispatch(event());
+
+        // Assert
+        assertThat(dropped.isCompletedExceptionally(), is(true));
+        assertThat(delegate.dispatched, hasSize(2));
+        assertThat(meterRegistry.get("dapr.publisher.dropped").counter().count(), is(1.0));
+    }
+
+    @Test
+    void testBlockPolicyDropsEventAfterTimeout() {
+        // Arrange
+        final BackpressureEventDispatcher dispatcher = createDispatcher(OverflowPolicy.BLOCK, null);
+        dispatcher.dispatch(event());
+        dispatcher.dispatch(event());
+
+        // Act
+        final CompletableFuture<Void> blocked = dispatcher.dispatch(event());
+
+        // Assert
+        assertThat(blocked.isCompletedExceptionally(), is(true));
+        assertThat(delegate.dispatched, hasSize(2));
+    }
+
+    @Test
+    void testSpillPolicyPublishesSpilledEventsInOrder() {
+        // Arrange
+        final BackpressureEventDispatcher dispatcher = createDispatcher(OverflowPolicy.SPILL, new InMemorySpillBuffer(10));
+        final OutgoingEvent first = event(1);
+        final OutgoingEvent second = event(2);
+        final OutgoingEvent third = event(3);
+        final OutgoingEvent fourth = event(4);
+
+        // Act
+        dispatcher.dispatch(first);
+        dispatcher.dispatch(second);
+        final CompletableFuture<Void> spilled = dispatcher.dispatch(third);
+        dispatcher.dispatch(fourth);
+
+        // Assert
+        assertThat(spilled.isDone(), is(true));
+        assertThat(delegate.dispatched, contains(first, second));
+
+        delegate.completeAll();
+        assertThat(delegate.dispatched, contains(first, second, third, fourth));
+    }
+
+    @Test
+    void testSpillPolicyDropsEventsWhenSpillBufferIsFull() {
+        // Arrange
+        final BackpressureEventDispatcher dispatcher = createDispatcher(OverflowPolicy.SPILL, new InMemorySpillBuffer(1));
+        dispatcher.dispatch(event());
+        dispatcher.dispatch(event());
+        dispatcher.dispatch(event());
+
+        // Act
+        final CompletableFuture<Void> dropped = dispatcher.dispatch(event());
+
+        // Assert
+        assertThat(dropped.isCompletedExceptionally(), is(true));
+    }
+
+    private BackpressureEventDispatcher createDispatcher(final OverflowPolicy overflowPolicy, final SpillBuffer spillBuffer) {
+        return new BackpressureEventDispatcher(delegate, 2, overflowPolicy, Duration.ofMillis(10), spillBuffer, meterRegistry);
+    }
+
+    private static OutgoingEvent event() {
+        return event(0);
+    }
+
+    private static OutgoingEvent event(final int number) {
+        return OutgoingEvent.builder().topic(DaprTopic.CONTENT_CHANGED).payload(new byte[]{(byte) number}).build();
+    }
+
+    /**
+     * Dispatcher that records all events and completes them only when requested.
+     */
+    private static class RecordingDispatcher implements EventDispatcher {
+
+        private final List<OutgoingEvent> dispatched = new ArrayList<>();
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<Void> dispatch(final OutgoingEvent event) {
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            dispatched.add(event);
+            pending.add(future);
+            return future;
+        }
+
+        private void completeAll() {
+            while (!pending.isEmpty()) {
+                pending.remove(0).complete(null);
+            }
+        }
+    }
+}
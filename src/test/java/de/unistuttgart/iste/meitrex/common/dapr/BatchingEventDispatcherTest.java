@@ -0,0 +1,120 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishEntry;
+import io.dapr.client.domain.BulkPublishRequest;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BatchingEventDispatcherTest {
+
+    private final DaprPreviewClient client = mock(DaprPreviewClient.class);
+
+    private BatchingEventDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    void testBatchIsSentWhenMaxBatchSizeIsReached() {
+        // Arrange
+        doReturn(Mono.just(new BulkPublishResponse<>())).when(client).publishEvents(any(BulkPublishRequest.class));
+        dispatcher = new BatchingEventDispatcher(client, 2, Duration.ofHours(1));
+
+        // Act
+        final CompletableFuture<Void> first = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        final CompletableFuture<Void> second = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+
+        // Assert
+        final BulkPublishRequest<?> request = captureRequest();
+        assertThat(request.getTopic(), is(DaprTopic.CONTENT_CHANGED.getTopic()));
+        assertThat(request.getEntries(), hasSize(2));
+        assertThat(first.isDone() && !first.isCompletedExceptionally(), is(true));
+        assertThat(second.isDone() && !second.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    void testBuffersArePerTopic() {
+        // Arrange
+        doReturn(Mono.just(new BulkPublishResponse<>())).when(client).publishEvents(any(BulkPublishRequest.class));
+        dispatcher = new BatchingEventDispatcher(client, 2, Duration.ofHours(1));
+
+        // Act
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        dispatcher.dispatch(event(DaprTopic.ITEM_CHANGED));
+
+        // Assert
+        verify(client, never()).publishEvents(any(BulkPublishRequest.class));
+    }
+
+    @Test
+    void testFlushSendsBufferedEvents() {
+        // Arrange
+        doReturn(Mono.just(new BulkPublishResponse<>())).when(client).publishEvents(any(BulkPublishRequest.class));
+        dispatcher = new BatchingEventDispatcher(client, 10, Duration.ofHours(1));
+        final CompletableFuture<Void> future = dispatcher.dispatch(event(DaprTopic.ITEM_CHANGED));
+
+        // Act
+        dispatcher.flush();
+
+        // Assert
+        assertThat(captureRequest().getEntries(), hasSize(1));
+        assertThat(future.isDone(), is(true));
+    }
+
+    @Test
+    void testBatchIsSentAfterLingerTime() {
+        // Arrange
+        doReturn(Mono.just(new BulkPublishResponse<>())).when(client).publishEvents(any(BulkPublishRequest.class));
+        dispatcher = new BatchingEventDispatcher(client, 10, Duration.ofMillis(10));
+
+        // Act
+        dispatcher.dispatch(event(DaprTopic.ITEM_CHANGED));
+
+        // Assert
+        verify(client, timeout(1000)).publishEvents(any(BulkPublishRequest.class));
+    }
+
+    @Test
+    void testFailedEntriesCompleteExceptionally() {
+        // Arrange
+        final BulkPublishEntry<byte[]> failedEntry = new BulkPublishEntry<>("1", new byte[0], "application/json");
+        doReturn(Mono.just(new BulkPublishResponse<>(List.of(new BulkPublishResponseFailedEntry<>(failedEntry, "error")))))
+                .when(client).publishEvents(any(BulkPublishRequest.class));
+        dispatcher = new BatchingEventDispatcher(client, 2, Duration.ofHours(1));
+
+        // Act
+        final CompletableFuture<Void> first = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        final CompletableFuture<Void> second = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+
+        // Assert
+        assertThat(first.isCompletedExceptionally(), is(false));
+        assertThat(second.isCompletedExceptionally(), is(true));
+    }
+
+    private BulkPublishRequest<?> captureRequest() {
+        final ArgumentCaptor<BulkPublishRequest> captor = ArgumentCaptor.forClass(BulkPublishRequest.class);
+        verify(client).publishEvents(captor.capture());
+        return captor.getValue();
+    }
+
+    private static OutgoingEvent event(final DaprTopic topic) {
+        return OutgoingEvent.builder().topic(topic).payload("{}".getBytes()).build();
+    }
+}
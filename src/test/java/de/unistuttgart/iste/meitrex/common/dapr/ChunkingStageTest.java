@@ -0,0 +1,102 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.ContentChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.NotificationEvent;
+import de.unistuttgart.iste.meitrex.common.event.ServerSource;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChunkingStageTest {
+
+    private final PublishStage.Next next = mock(PublishStage.Next.class);
+    private final ChunkingStage stage = new ChunkingStage(2, Map.of(DaprTopic.NOTIFICATION_EVENT, 3));
+
+    @Test
+    void testIdsAreSplitIntoChunks() {
+        // Arrange
+        final List<UUID> ids = randomIds(5);
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        final CompletableFuture<Void> future = stage.process(
+                new ContentChangeEvent(ids, CrudOperation.DELETE), DaprTopic.CONTENT_CHANGED, next);
+
+        // Assert
+        assertThat(future.isDone(), is(true));
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(next, times(3)).publish(captor.capture(), eq(DaprTopic.CONTENT_CHANGED));
+        assertThat(captor.getAllValues(), contains(
+                new ContentChangeEvent(ids.subList(0, 2), CrudOperation.DELETE),
+                new ContentChangeEvent(ids.subList(2, 4), CrudOperation.DELETE),
+                new ContentChangeEvent(ids.subList(4, 5), CrudOperation.DELETE)));
+    }
+
+    @Test
+    void testTopicChunkSizeIsUsedAndOtherFieldsAreKept() {
+        // Arrange
+        final NotificationEvent event = NotificationEvent.builder()
+                .courseId(UUID.randomUUID())
+                .userIds(randomIds(4))
+                .serverSource(ServerSource.COURSE)
+                .title("title")
+                .message("message")
+                .build();
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(event, DaprTopic.NOTIFICATION_EVENT, next);
+
+        // Assert
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(next, times(2)).publish(captor.capture(), eq(DaprTopic.NOTIFICATION_EVENT));
+        final NotificationEvent firstChunk = (NotificationEvent) captor.getAllValues().getFirst();
+        assertThat(firstChunk.getUserIds(), hasSize(3));
+        assertThat(firstChunk.getTitle(), is("title"));
+        assertThat(firstChunk.getCourseId(), is(event.getCourseId()));
+    }
+
+    @Test
+    void testFutureFailsIfOneChunkFails() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(
+                CompletableFuture.completedFuture(null),
+                CompletableFuture.failedFuture(new EventPublishException("error")));
+
+        // Act
+        final CompletableFuture<Void> future = stage.process(
+                new ContentChangeEvent(randomIds(3), CrudOperation.DELETE), DaprTopic.CONTENT_CHANGED, next);
+
+        // Assert
+        assertThat(future.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    void testSmallEventIsPassedOnUnchanged() {
+        // Arrange
+        final ContentChangeEvent event = new ContentChangeEvent(randomIds(2), CrudOperation.DELETE);
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(event, DaprTopic.CONTENT_CHANGED, next);
+
+        // Assert
+        verify(next).publish(same(event), eq(DaprTopic.CONTENT_CHANGED));
+    }
+
+    private static List<UUID> randomIds(final int count) {
+        return Stream.generate(UUID::randomUUID).limit(count).toList();
+    }
+}
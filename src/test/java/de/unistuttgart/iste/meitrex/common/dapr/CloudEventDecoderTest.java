@@ -0,0 +1,80 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.ItemChangeEvent;
+import io.dapr.client.domain.CloudEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CloudEventDecoderTest {
+
+    private final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+    private final CloudEventDecoder decoder = new CloudEventDecoder(serializer);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final ItemChangeEvent event = new ItemChangeEvent(UUID.randomUUID(), CrudOperation.UPDATE);
+
+    @Test
+    void testJsonEventIsDecoded() throws Exception {
+        // Arrange
+        final ObjectNode cloudEvent = StubDaprSidecar.toCloudEvent(publish(EventEncoding.JSON));
+
+        // Act
+        final ItemChangeEvent decoded = decoder.decode(mapper.writeValueAsBytes(cloudEvent), ItemChangeEvent.class);
+
+        // Assert
+        assertThat(cloudEvent.get("data").isObject(), is(true));
+        assertThat(decoded, is(event));
+    }
+
+    @Test
+    void testBinaryEventIsDecodedWithEncodingExtension() throws Exception {
+        // Arrange
+        final ObjectNode cloudEvent = StubDaprSidecar.toCloudEvent(publish(EventEncoding.SMILE));
+
+        // Act
+        final ItemChangeEvent decoded = decoder.decode(mapper.writeValueAsBytes(cloudEvent), ItemChangeEvent.class);
+
+        // Assert
+        assertThat(cloudEvent.get("datacontenttype").asText(), is(OutgoingEvent.BINARY_CONTENT_TYPE));
+        assertThat(cloudEvent.get(OutgoingEvent.ENCODING_EXTENSION).asText(), is("smile"));
+        assertThat(cloudEvent.has("data"), is(false));
+        assertThat(decoded, is(event));
+    }
+
+    @Test
+    void testDeserializedCloudEventWithoutExtensionIsDecoded() throws Exception {
+        // Arrange
+        final ObjectNode envelope = StubDaprSidecar.toCloudEvent(publish(EventEncoding.CBOR));
+        final CloudEvent<?> cloudEvent = mapper.copy()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .treeToValue(envelope, CloudEvent.class);
+
+        // Act
+        final ItemChangeEvent decoded = decoder.decode(cloudEvent, ItemChangeEvent.class);
+
+        // Assert
+        assertThat(decoded, is(event));
+    }
+
+    private OutgoingEvent publish(final EventEncoding encoding) {
+        final AtomicReference<OutgoingEvent> published = new AtomicReference<>();
+        final EventDispatcher dispatcher = outgoingEvent -> {
+            published.set(outgoingEvent);
+            return CompletableFuture.completedFuture(null);
+        };
+        new TopicPublisher(dispatcher, serializer, Map.of(DaprTopic.ITEM_CHANGED, encoding))
+                .publishEventAsync(event, DaprTopic.ITEM_CHANGED);
+        return published.get();
+    }
+}
@@ -0,0 +1,173 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.ContentChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CourseChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.ItemChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CoalescingStageTest {
+
+    private final PublishStage.Next next = mock(PublishStage.Next.class);
+    private final CoalescingStage stage = new CoalescingStage(Duration.ofMinutes(1));
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        stage.close();
+    }
+
+    @Test
+    void testChangesOfSameOperationAreMerged() {
+        // Arrange
+        final CompletableFuture<Void> published = new CompletableFuture<>();
+        when(next.publish(any(), any())).thenReturn(published);
+
+        // Act
+        final CompletableFuture<Void> firstFuture = stage.process(
+                new ContentChangeEvent(List.of(first, second), CrudOperation.UPDATE), DaprTopic.CONTENT_CHANGED, next);
+        final CompletableFuture<Void> secondFuture = stage.process(
+                new ContentChangeEvent(List.of(second, third), CrudOperation.UPDATE), DaprTopic.CONTENT_CHANGED, next);
+        stage.flush();
+
+        // Assert
+        verify(next, times(1)).publish(
+                new ContentChangeEvent(List.of(first, second, third), CrudOperation.UPDATE), DaprTopic.CONTENT_CHANGED);
+        assertThat(firstFuture.isDone(), is(false));
+        published.complete(null);
+        assertThat(firstFuture.isDone(), is(true));
+        assertThat(secondFuture.isDone(), is(true));
+    }
+
+    @Test
+    void testDifferentOperationClosesWindow() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(new ContentChangeEvent(List.of(first), CrudOperation.CREATE), DaprTopic.CONTENT_CHANGED, next);
+        stage.process(new ContentChangeEvent(List.of(first), CrudOperation.DELETE), DaprTopic.CONTENT_CHANGED, next);
+        stage.flush();
+
+        // Assert
+        final InOrder inOrder = inOrder(next);
+        inOrder.verify(next).publish(new ContentChangeEvent(List.of(first), CrudOperation.CREATE), DaprTopic.CONTENT_CHANGED);
+        inOrder.verify(next).publish(new ContentChangeEvent(List.of(first), CrudOperation.DELETE), DaprTopic.CONTENT_CHANGED);
+    }
+
+    @Test
+    void testClosedWindowsArePublishedInOrderAcrossThreads() throws Exception {
+        // Arrange
+        final CountDownLatch publishing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ContentChangeEvent firstWindow = new ContentChangeEvent(List.of(first), CrudOperation.UPDATE);
+        final ContentChangeEvent secondWindow = new ContentChangeEvent(List.of(second), CrudOperation.DELETE);
+        when(next.publish(any(), any())).thenAnswer(invocation -> {
+            if (firstWindow.equals(invocation.getArgument(0))) {
+                publishing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+        stage.process(firstWindow, DaprTopic.CONTENT_CHANGED, next);
+
+        // Act
+        // publishes the first window and blocks
+        final Thread publisher = Thread.ofVirtual().start(
+                () -> stage.process(secondWindow, DaprTopic.CONTENT_CHANGED, next));
+        assertThat(publishing.await(5, TimeUnit.SECONDS), is(true));
+        // closes the second window while the first one is still being published
+        stage.process(new ContentChangeEvent(List.of(third), CrudOperation.UPDATE), DaprTopic.CONTENT_CHANGED, next);
+
+        // Assert
+        verify(next, never()).publish(secondWindow, DaprTopic.CONTENT_CHANGED);
+        release.countDown();
+        publisher.join();
+
+        final InOrder inOrder = inOrder(next);
+        inOrder.verify(next).publish(firstWindow, DaprTopic.CONTENT_CHANGED);
+        inOrder.verify(next).publish(secondWindow, DaprTopic.CONTENT_CHANGED);
+    }
+
+    @Test
+    void testItemChangesAreDeduplicated() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(new ItemChangeEvent(first, CrudOperation.UPDATE), DaprTopic.ITEM_CHANGED, next);
+        stage.process(new ItemChangeEvent(first, CrudOperation.UPDATE), DaprTopic.ITEM_CHANGED, next);
+        stage.process(new ItemChangeEvent(second, CrudOperation.UPDATE), DaprTopic.ITEM_CHANGED, next);
+        stage.flush();
+
+        // Assert
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(next, times(2)).publish(captor.capture(), eq(DaprTopic.ITEM_CHANGED));
+        assertThat(captor.getAllValues(), contains(
+                new ItemChangeEvent(first, CrudOperation.UPDATE),
+                new ItemChangeEvent(second, CrudOperation.UPDATE)));
+    }
+
+    @Test
+    void testOtherEventsArePassedOn() {
+        // Arrange
+        final CourseChangeEvent event = new CourseChangeEvent(first, CrudOperation.UPDATE);
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(event, DaprTopic.COURSE_CHANGED, next);
+
+        // Assert
+        verify(next).publish(event, DaprTopic.COURSE_CHANGED);
+    }
+
+    @Test
+    void testWindowIsClosedAfterTimeout() {
+        // Arrange
+        final CoalescingStage shortWindowStage = new CoalescingStage(Duration.ofMillis(10));
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        final CompletableFuture<Void> future = shortWindowStage.process(
+                new ContentChangeEvent(List.of(first), CrudOperation.UPDATE), DaprTopic.CONTENT_CHANGED, next);
+
+        // Assert
+        future.join();
+        verify(next).publish(new ContentChangeEvent(List.of(first), CrudOperation.UPDATE), DaprTopic.CONTENT_CHANGED);
+        shortWindowStage.close();
+    }
+
+    @Test
+    void testChangesArePassedOnAfterClose() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        final ContentChangeEvent event = new ContentChangeEvent(List.of(first), CrudOperation.UPDATE);
+        stage.close();
+
+        // Act
+        final CompletableFuture<Void> future = stage.process(event, DaprTopic.CONTENT_CHANGED, next);
+
+        // Assert
+        verify(next).publish(event, DaprTopic.CONTENT_CHANGED);
+        assertThat(future.isDone(), is(true));
+    }
+}
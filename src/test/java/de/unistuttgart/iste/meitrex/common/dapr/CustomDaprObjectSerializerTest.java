@@ -0,0 +1,82 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.unistuttgart.iste.meitrex.common.event.ContentChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.ItemChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.NotificationEvent;
+import de.unistuttgart.iste.meitrex.common.event.ServerSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CustomDaprObjectSerializerTest {
+
+    private final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+
+    @Test
+    void testSerializedEventIsDeserializedUnchanged() throws Exception {
+        // Arrange
+        final NotificationEvent event = NotificationEvent.builder()
+                .courseId(UUID.randomUUID())
+                .userIds(List.of(UUID.randomUUID(), UUID.randomUUID()))
+                .serverSource(ServerSource.COURSE)
+                .title("title")
+                .link("/courses")
+                .message("message")
+                .timestamp(OffsetDateTime.of(2024, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+
+        // Act
+        final byte[] payload = serializer.serialize(event);
+
+        // Assert
+        assertThat(serializer.deserialize(payload, NotificationEvent.class), is(event));
+    }
+
+    @Test
+    void testOutputMatchesPlainObjectMapper() throws Exception {
+        // Arrange
+        final ObjectMapper plainMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        final ItemChangeEvent event = new ItemChangeEvent(UUID.randomUUID(), CrudOperation.UPDATE);
+
+        // Act
+        final byte[] payload = serializer.serialize(event);
+
+        // Assert
+        assertThat(plainMapper.readTree(payload), is(plainMapper.valueToTree(event)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = EventEncoding.class, names = {"CBOR", "SMILE"})
+    void testBinaryEncodingIsSmallerThanJson(final EventEncoding encoding) throws Exception {
+        // Arrange
+        final ContentChangeEvent event = new ContentChangeEvent(
+                List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()), CrudOperation.UPDATE);
+
+        // Act
+        final byte[] payload = serializer.serialize(event, encoding);
+
+        // Assert
+        assertThat(payload.length, is(lessThan(serializer.serialize(event).length)));
+        assertThat(serializer.deserialize(payload, ContentChangeEvent.class, encoding), is(event));
+    }
+
+    @Test
+    void testByteArraysArePassedThrough() throws Exception {
+        // Arrange
+        final byte[] payload = "{}".getBytes();
+
+        // Act & Assert
+        assertThat(serializer.serialize(payload), is(sameInstance(payload)));
+    }
+}
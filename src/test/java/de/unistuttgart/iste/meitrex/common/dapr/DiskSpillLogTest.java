@@ -0,0 +1,156 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class DiskSpillLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEventsArePolledInOrder() throws IOException {
+        // Arrange
+        final DiskSpillLog spillLog = new DiskSpillLog(directory, 1024, 4);
+        final OutgoingEvent first = event(DaprTopic.CONTENT_CHANGED, "first");
+        final OutgoingEvent second = event(DaprTopic.ITEM_CHANGED, "second").toBuilder()
+                .contentType(EventEncoding.CBOR.getContentType())
+                .metadata(Map.of(OutgoingEvent.EVENT_ID_METADATA, "event-id", "other", "value"))
+                .build();
+
+        // Act
+        spillLog.offer(first);
+        spillLog.offer(second);
+
+        // Assert
+        assertThat(spillLog.size(), is(2));
+        assertThat(spillLog.peek(), is(first));
+        assertThat(spillLog.poll(), is(first));
+        assertThat(spillLog.poll(), is(second));
+        assertThat(spillLog.poll(), is(nullValue()));
+        assertThat(spillLog.isEmpty(), is(true));
+    }
+
+    @Test
+    void testPendingEventsAreRecoveredAfterRestart() throws IOException {
+        // Arrange
+        final DiskSpillLog spillLog = new DiskSpillLog(directory, 1024, 4);
+        spillLog.offer(event(DaprTopic.CONTENT_CHANGED, "replayed"));
+        spillLog.offer(event(DaprTopic.CONTENT_CHANGED, "pending"));
+        spillLog.poll();
+        spillLog.close();
+
+        // Act
+        final DiskSpillLog recovered = new DiskSpillLog(directory, 1024, 4);
+
+        // Assert
+        assertThat(recovered.size(), is(1));
+        assertThat(recovered.poll(), is(event(DaprTopic.CONTENT_CHANGED, "pending")));
+
+        recovered.offer(event(DaprTopic.ITEM_CHANGED, "new"));
+        assertThat(recovered.poll(), is(event(DaprTopic.ITEM_CHANGED, "new")));
+    }
+
+    @Test
+    void testReplayedSegmentsAreDeleted() throws IOException {
+        // Arrange
+        final DiskSpillLog spillLog = new DiskSpillLog(directory, 64, 4);
+        for (int i = 0; i < 4; i++) {
+            spillLog.offer(event(DaprTopic.CONTENT_CHANGED, "event number " + i));
+        }
+        assertThat(countSegments(), is(4L));
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertThat(spillLog.poll(), is(event(DaprTopic.CONTENT_CHANGED, "event number " + i)));
+        }
+        spillLog.poll();
+
+        // Assert
+        assertThat(countSegments(), is(1L));
+    }
+
+    @Test
+    void testEventsAreRejectedWhenAllSegmentsAreFull() throws IOException {
+        // Arrange
+        final DiskSpillLog spillLog = new DiskSpillLog(directory, 64, 1);
+        spillLog.offer(event(DaprTopic.CONTENT_CHANGED, "event number 1"));
+
+        // Act
+        final boolean accepted = spillLog.offer(event(DaprTopic.CONTENT_CHANGED, "event number 2"));
+
+        // Assert
+        assertThat(accepted, is(false));
+        assertThat(spillLog.size(), is(1));
+    }
+
+    @Test
+    void testEventsLargerThanSegmentSizeAreAccepted() throws IOException {
+        // Arrange
+        final DiskSpillLog spillLog = new DiskSpillLog(directory, 64, 2);
+        final OutgoingEvent largeEvent = event(DaprTopic.STUDENT_CODE_SUBMITTED, "x".repeat(1000));
+
+        // Act
+        final boolean accepted = spillLog.offer(largeEvent);
+
+        // Assert
+        assertThat(accepted, is(true));
+        assertThat(spillLog.poll(), is(largeEvent));
+    }
+
+    @Test
+    void testEventsWithOversizedMetadataAreRejected() throws IOException {
+        // Arrange
+        final DiskSpillLog spillLog = new DiskSpillLog(directory, 1024, 2);
+        final OutgoingEvent largeMetadataEvent = event(DaprTopic.CONTENT_CHANGED, "large").toBuilder()
+                .metadata(Map.of(OutgoingEvent.EVENT_ID_METADATA, "event-id", "large", "x".repeat(40_000)))
+                .build();
+        final OutgoingEvent followingEvent = event(DaprTopic.CONTENT_CHANGED, "following");
+
+        // Act
+        final boolean accepted = spillLog.offer(largeMetadataEvent);
+        spillLog.offer(followingEvent);
+        spillLog.close();
+        final DiskSpillLog recovered = new DiskSpillLog(directory, 1024, 2);
+
+        // Assert
+        assertThat(accepted, is(false));
+        assertThat(recovered.size(), is(1));
+        assertThat(recovered.poll(), is(followingEvent));
+    }
+
+    @Test
+    void testEventsWithMetadataUpToFieldLimitAreAccepted() throws IOException {
+        // Arrange
+        final DiskSpillLog spillLog = new DiskSpillLog(directory, 1024, 2);
+        final OutgoingEvent event = event(DaprTopic.CONTENT_CHANGED, "large").toBuilder()
+                .metadata(Map.of("large", "x".repeat(30_000)))
+                .build();
+
+        // Act
+        final boolean accepted = spillLog.offer(event);
+
+        // Assert
+        assertThat(accepted, is(true));
+        assertThat(spillLog.poll(), is(event));
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static OutgoingEvent event(final DaprTopic topic, final String payload) {
+        return OutgoingEvent.builder().topic(topic).payload(payload.getBytes()).build();
+    }
+}
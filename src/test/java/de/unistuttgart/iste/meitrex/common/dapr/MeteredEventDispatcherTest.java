@@ -0,0 +1,55 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeteredEventDispatcherTest {
+
+    private final EventDispatcher delegate = mock(EventDispatcher.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeteredEventDispatcher dispatcher = new MeteredEventDispatcher(delegate, meterRegistry);
+
+    @Test
+    void testMetricsAreRecordedPerTopic() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(
+                CompletableFuture.completedFuture(null),
+                CompletableFuture.failedFuture(new EventPublishException("error")));
+
+        // Act
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED, 10));
+        dispatcher.dispatch(event(DaprTopic.ITEM_CHANGED, 30));
+
+        // Assert
+        assertThat(counter(DaprTopic.CONTENT_CHANGED, "success"), is(1.0));
+        assertThat(counter(DaprTopic.CONTENT_CHANGED, "failure"), is(0.0));
+        assertThat(counter(DaprTopic.ITEM_CHANGED, "failure"), is(1.0));
+
+        assertThat(meterRegistry.get("dapr.publisher.payload.size")
+                .tag("topic", DaprTopic.ITEM_CHANGED.getTopic())
+                .summary().totalAmount(), is(30.0));
+        assertThat(meterRegistry.get("dapr.publisher.latency")
+                .tag("topic", DaprTopic.CONTENT_CHANGED.getTopic())
+                .timer().count(), is(1L));
+    }
+
+    private double counter(final DaprTopic topic, final String outcome) {
+        return meterRegistry.get("dapr.publisher.events")
+                .tag("topic", topic.getTopic())
+                .tag("outcome", outcome)
+                .counter().count();
+    }
+
+    private static OutgoingEvent event(final DaprTopic topic, final int size) {
+        return OutgoingEvent.builder().topic(topic).payload(new byte[size]).build();
+    }
+}
@@ -0,0 +1,95 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.UserProgressUpdatedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderedEventDispatcherTest {
+
+    private final EventDispatcher delegate = mock(EventDispatcher.class);
+    private final OrderedEventDispatcher dispatcher = new OrderedEventDispatcher(delegate, 1);
+
+    @Test
+    void testEventsWithSameKeyWaitForPreviousEvent() {
+        // Arrange
+        final CompletableFuture<Void> firstPublish = new CompletableFuture<>();
+        when(delegate.dispatch(any())).thenReturn(firstPublish, CompletableFuture.completedFuture(null));
+        final OutgoingEvent first = event("user-1");
+        final OutgoingEvent second = event("user-1");
+
+        // Act
+        dispatcher.dispatch(first);
+        final CompletableFuture<Void> secondFuture = dispatcher.dispatch(second);
+
+        // Assert
+        verify(delegate, times(1)).dispatch(any());
+        firstPublish.complete(null);
+        verify(delegate).dispatch(second);
+        assertThat(secondFuture.isDone(), is(true));
+    }
+
+    @Test
+    void testFailedEventDoesNotBlockLane() {
+        // Arrange
+        final CompletableFuture<Void> firstPublish = new CompletableFuture<>();
+        when(delegate.dispatch(any())).thenReturn(firstPublish, CompletableFuture.completedFuture(null));
+
+        // Act
+        final CompletableFuture<Void> firstFuture = dispatcher.dispatch(event("user-1"));
+        final CompletableFuture<Void> secondFuture = dispatcher.dispatch(event("user-1"));
+        firstPublish.completeExceptionally(new EventPublishException("error"));
+
+        // Assert
+        assertThat(firstFuture.isCompletedExceptionally(), is(true));
+        assertThat(secondFuture.isCompletedExceptionally(), is(false));
+        assertThat(secondFuture.isDone(), is(true));
+    }
+
+    @Test
+    void testEventsWithoutKeyAreNotOrdered() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(new CompletableFuture<>());
+
+        // Act
+        dispatcher.dispatch(event(null));
+        dispatcher.dispatch(event(null));
+
+        // Assert
+        verify(delegate, times(2)).dispatch(any());
+    }
+
+    @Test
+    void testPartitionKeyIsExtractedFromConfiguredProperties() {
+        // Arrange
+        final UUID userId = UUID.randomUUID();
+        final UUID courseId = UUID.randomUUID();
+        final UserProgressUpdatedEvent event = UserProgressUpdatedEvent.builder()
+                .userId(userId)
+                .courseId(courseId)
+                .build();
+        final PartitionKeyExtractor extractor = new PartitionKeyExtractor(Map.of(
+                DaprTopic.USER_PROGRESS_UPDATED, List.of("userId", "courseId")));
+
+        // Act & Assert
+        assertThat(extractor.extract(event, DaprTopic.USER_PROGRESS_UPDATED), is(userId + ":" + courseId));
+        assertThat(extractor.extract(event, DaprTopic.CONTENT_PROGRESSED), is(nullValue()));
+    }
+
+    private static OutgoingEvent event(final String partitionKey) {
+        return OutgoingEvent.builder()
+                .topic(DaprTopic.USER_PROGRESS_UPDATED)
+                .payload(new byte[0])
+                .partitionKey(partitionKey)
+                .build();
+    }
+}
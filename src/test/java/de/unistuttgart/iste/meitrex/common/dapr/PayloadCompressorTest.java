@@ -0,0 +1,100 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.iste.meitrex.common.event.StudentCodeSubmittedEvent;
+import io.dapr.client.domain.CloudEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class PayloadCompressorTest {
+
+    private final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+    private final PayloadCompressor compressor = new PayloadCompressor(1024, Deflater.BEST_SPEED);
+
+    private final CloudEventDecoder decoder = new CloudEventDecoder(serializer);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final StudentCodeSubmittedEvent event = StudentCodeSubmittedEvent.builder()
+            .studentId(UUID.randomUUID())
+            .files(Map.of("src/Main.java", "System.out.println(\"Hello World\");\n".repeat(200)))
+            .build();
+
+    @Test
+    void testLargePayloadIsCompressedAndDecoded() throws Exception {
+        // Arrange
+        final OutgoingEvent outgoingEvent = event(serializer.serialize(event, EventEncoding.CBOR), EventEncoding.CBOR);
+
+        // Act
+        final OutgoingEvent compressed = compressor.compress(outgoingEvent);
+        final ObjectNode cloudEvent = StubDaprSidecar.toCloudEvent(compressed);
+
+        // Assert
+        assertThat(compressed.getContentType(), is(OutgoingEvent.BINARY_CONTENT_TYPE));
+        assertThat(compressed.getMetadata(), hasEntry(PayloadCompressor.COMPRESSION_METADATA, PayloadCompressor.GZIP));
+        assertThat(compressed.getMetadata(), hasEntry(OutgoingEvent.ENCODING_METADATA, "cbor"));
+        assertThat(compressed.getPayload().length, is(lessThan(outgoingEvent.getPayload().length)));
+        assertThat(cloudEvent.get(PayloadCompressor.COMPRESSION_EXTENSION).asText(), is(PayloadCompressor.GZIP));
+        assertThat(decoder.decode(mapper.writeValueAsBytes(cloudEvent), StudentCodeSubmittedEvent.class), is(event));
+    }
+
+    @Test
+    void testCompressedJsonIsDecodedWithoutExtensions() throws Exception {
+        // Arrange
+        final OutgoingEvent outgoingEvent = event(serializer.serialize(event), EventEncoding.JSON);
+        final ObjectNode envelope = StubDaprSidecar.toCloudEvent(compressor.compress(outgoingEvent));
+        final CloudEvent<?> cloudEvent = mapper.copy()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .treeToValue(envelope, CloudEvent.class);
+
+        // Act
+        final StudentCodeSubmittedEvent decoded = decoder.decode(cloudEvent, StudentCodeSubmittedEvent.class);
+
+        // Assert
+        assertThat(envelope.has("data_base64"), is(true));
+        assertThat(decoded, is(event));
+    }
+
+    @Test
+    void testSmallPayloadIsNotCompressed() {
+        // Arrange
+        final OutgoingEvent outgoingEvent = event("{}".getBytes(), EventEncoding.JSON);
+
+        // Act
+        final OutgoingEvent result = compressor.compress(outgoingEvent);
+
+        // Assert
+        assertThat(result, is(sameInstance(outgoingEvent)));
+    }
+
+    @Test
+    void testIncompressiblePayloadIsNotCompressed() {
+        // Arrange
+        final byte[] payload = new byte[2048];
+        new Random(42).nextBytes(payload);
+        final OutgoingEvent outgoingEvent = event(payload, EventEncoding.SMILE);
+
+        // Act
+        final OutgoingEvent result = compressor.compress(outgoingEvent);
+
+        // Assert
+        assertThat(result, is(sameInstance(outgoingEvent)));
+    }
+
+    private static OutgoingEvent event(final byte[] payload, final EventEncoding encoding) {
+        return OutgoingEvent.builder()
+                .topic(DaprTopic.STUDENT_CODE_SUBMITTED)
+                .payload(payload)
+                .contentType(encoding.getPublishedContentType())
+                .metadata(PublishMetadata.create(encoding))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PriorityEventDispatcherTest {
+
+    private final EventDispatcher delegate = mock(EventDispatcher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PriorityEventDispatcher dispatcher = new PriorityEventDispatcher(delegate,
+            Map.of(DaprTopic.NOTIFICATION_EVENT, PublishPriority.INTERACTIVE,
+                    DaprTopic.MEDIA_RECORD_WORKED_ON, PublishPriority.BULK),
+            Map.of(PublishPriority.BULK, new LaneBudget(1, 1)),
+            meterRegistry);
+
+    @Test
+    void testInteractiveEventDoesNotWaitBehindBulkEvents() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(new CompletableFuture<>());
+        final OutgoingEvent notification = event(DaprTopic.NOTIFICATION_EVENT);
+
+        // Act
+        dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+        dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+        dispatcher.dispatch(notification);
+
+        // Assert
+        verify(delegate).dispatch(notification);
+        assertThat(dispatcher.getQueuedCount(PublishPriority.BULK), is(1));
+        assertThat(meterRegistry.get("dapr.publisher.lane.queued").tag("priority", "BULK").gauge().value(), is(1.0));
+    }
+
+    @Test
+    void testQueuedEventIsPublishedWhenSlotIsFree() {
+        // Arrange
+        final CompletableFuture<Void> firstPublish = new CompletableFuture<>();
+        when(delegate.dispatch(any())).thenReturn(firstPublish, CompletableFuture.completedFuture(null));
+        final OutgoingEvent second = event(DaprTopic.MEDIA_RECORD_WORKED_ON);
+
+        // Act
+        dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+        final CompletableFuture<Void> secondFuture = dispatcher.dispatch(second);
+        verify(delegate, never()).dispatch(second);
+        firstPublish.complete(null);
+
+        // Assert
+        verify(delegate).dispatch(second);
+        assertThat(secondFuture.isDone(), is(true));
+        assertThat(dispatcher.getQueuedCount(PublishPriority.BULK), is(0));
+    }
+
+    @Test
+    void testEventIsRejectedWhenQueueIsFull() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(new CompletableFuture<>());
+
+        // Act
+        dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+        dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+        final CompletableFuture<Void> rejected = dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+
+        // Assert
+        assertThat(rejected.isCompletedExceptionally(), is(true));
+        assertThat(meterRegistry.get("dapr.publisher.dropped").counter().count(), is(1.0));
+    }
+
+    @Test
+    void testQueuedEventsFailOnClose() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(new CompletableFuture<>());
+        dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+        final CompletableFuture<Void> queued = dispatcher.dispatch(event(DaprTopic.MEDIA_RECORD_WORKED_ON));
+
+        // Act
+        dispatcher.close();
+
+        // Assert
+        assertThat(queued.isCompletedExceptionally(), is(true));
+        verify(delegate).close();
+    }
+
+    private static OutgoingEvent event(final DaprTopic topic) {
+        return OutgoingEvent.builder()
+                .topic(topic)
+                .payload(new byte[0])
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class PublishMetadataTest {
+
+    @Test
+    void testPublishTimeCanBeDeterminedFromEventId() {
+        // Arrange
+        final Instant publishTime = Instant.parse("2025-01-01T12:00:00.123Z");
+
+        // Act
+        final UUID eventId = PublishMetadata.newEventId(publishTime.toEpochMilli());
+
+        // Assert
+        assertThat(eventId.version(), is(7));
+        assertThat(PublishMetadata.getPublishTime(eventId.toString()), is(publishTime));
+    }
+
+    @Test
+    void testPublishTimeOfForeignEventIdIsUnknown() {
+        assertThat(PublishMetadata.getPublishTime(UUID.randomUUID().toString()), is(nullValue()));
+        assertThat(PublishMetadata.getPublishTime("not a uuid"), is(nullValue()));
+        assertThat(PublishMetadata.getPublishTime(null), is(nullValue()));
+    }
+
+    @Test
+    void testTraceOfParentIsContinued() {
+        // Arrange
+        final String parent = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+        // Act
+        final String traceparent = PublishMetadata.newTraceparent(parent);
+
+        // Assert
+        assertThat(traceparent, startsWith("00-0af7651916cd43dd8448eb211c80319c-"));
+        assertThat(traceparent, endsWith("-01"));
+        assertThat(traceparent, not(containsString("b7ad6b7169203331")));
+    }
+
+    @Test
+    void testNewTraceIsStartedWithoutValidParent() {
+        // Act
+        final String traceparent = PublishMetadata.newTraceparent("invalid");
+
+        // Assert
+        assertThat(traceparent, matchesPattern("00-[0-9a-f]{32}-[0-9a-f]{16}-01"));
+    }
+
+    @Test
+    void testMetadataContainsIdTimeAndTrace() {
+        // Act
+        final Map<String, String> metadata = PublishMetadata.create();
+
+        // Assert
+        assertThat(metadata, hasKey(OutgoingEvent.EVENT_ID_METADATA));
+        assertThat(metadata, hasKey(PublishMetadata.PUBLISHED_AT_METADATA));
+        assertThat(metadata, hasKey(PublishMetadata.TRACEPARENT_METADATA));
+        assertThat(PublishMetadata.getPublishTime(metadata.get(OutgoingEvent.EVENT_ID_METADATA)),
+                is(Instant.parse(metadata.get(PublishMetadata.PUBLISHED_AT_METADATA))));
+    }
+}
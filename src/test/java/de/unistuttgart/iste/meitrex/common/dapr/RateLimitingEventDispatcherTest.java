@@ -0,0 +1,146 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RateLimitingEventDispatcherTest {
+
+    private final EventDispatcher delegate = mock(EventDispatcher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private final RateLimitingEventDispatcher dispatcher = new RateLimitingEventDispatcher(delegate,
+            Map.of(DaprTopic.CONTENT_CHANGED, new RateLimit(10, 2, 1)),
+            meterRegistry, clock);
+
+    @Test
+    void testBurstIsPublishedImmediately() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        final CompletableFuture<Void> first = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        final CompletableFuture<Void> second = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+
+        // Assert
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(true));
+        verify(delegate, times(2)).dispatch(any());
+    }
+
+    @Test
+    void testEventExceedingLimitIsDeferredUntilTokenIsAvailable() throws Exception {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+
+        // Act
+        final CompletableFuture<Void> deferred = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+
+        // Assert
+        assertThat(deferred.isDone(), is(false));
+        assertThat(dispatcher.getQueuedCount(DaprTopic.CONTENT_CHANGED), is(1));
+        assertThat(meterRegistry.get("dapr.publisher.throttled").counter().count(), is(1.0));
+
+        clock.advance(Duration.ofMillis(100));
+        deferred.get(5, TimeUnit.SECONDS);
+        verify(delegate, times(3)).dispatch(any());
+        assertThat(meterRegistry.get("dapr.publisher.throttle.delay").timer().count(), is(1L));
+    }
+
+    @Test
+    void testDeferredEventIsPublishedOnVirtualThread() throws Exception {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        final CompletableFuture<Void> deferred = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        final CompletableFuture<Thread> publishingThread = new CompletableFuture<>();
+        when(delegate.dispatch(any())).thenAnswer(invocation -> {
+            publishingThread.complete(Thread.currentThread());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // Act
+        clock.advance(Duration.ofMillis(100));
+        deferred.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(publishingThread.get(5, TimeUnit.SECONDS).isVirtual(), is(true));
+    }
+
+    @Test
+    void testEventIsRejectedWhenQueueIsFull() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+        dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+
+        // Act
+        final CompletableFuture<Void> rejected = dispatcher.dispatch(event(DaprTopic.CONTENT_CHANGED));
+
+        // Assert
+        assertThat(rejected.isCompletedExceptionally(), is(true));
+        assertThat(meterRegistry.get("dapr.publisher.dropped").counter().count(), is(1.0));
+    }
+
+    @Test
+    void testTopicsWithoutLimitAreNotThrottled() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(event(DaprTopic.COURSE_CHANGED));
+        }
+
+        // Assert
+        verify(delegate, times(10)).dispatch(any());
+    }
+
+    private static OutgoingEvent event(final DaprTopic topic) {
+        return OutgoingEvent.builder()
+                .topic(topic)
+                .payload(new byte[0])
+                .build();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant instant = Instant.now();
+
+        private void advance(final Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.CourseChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.UserProgressUpdatedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecordingTopicPublisherTest {
+
+    private final Clock clock = mock(Clock.class);
+
+    @Test
+    void testEventsCanBeQueriedByTopicAndType() {
+        // Arrange
+        when(clock.instant()).thenReturn(Instant.EPOCH);
+        final RecordingTopicPublisher publisher = new RecordingTopicPublisher(10, clock);
+        final UUID courseId = UUID.randomUUID();
+        final UserProgressUpdatedEvent progressEvent = UserProgressUpdatedEvent.builder()
+                .userId(UUID.randomUUID())
+                .build();
+
+        // Act
+        publisher.notifyCourseChanges(courseId, CrudOperation.CREATE);
+        publisher.notifyUserProgressUpdated(progressEvent);
+
+        // Assert
+        assertThat(publisher.getRecordedEvents(), hasSize(2));
+        assertThat(publisher.getEvents(CourseChangeEvent.class),
+                contains(new CourseChangeEvent(courseId, CrudOperation.CREATE)));
+        assertThat(publisher.getEvents(DaprTopic.USER_PROGRESS_UPDATED, UserProgressUpdatedEvent.class),
+                contains(progressEvent));
+        assertThat(publisher.getRecordedEvents(DaprTopic.CONTENT_PROGRESSED), is(empty()));
+    }
+
+    @Test
+    void testOldestEventsAreOverwrittenWhenFull() {
+        // Arrange
+        when(clock.instant()).thenReturn(Instant.EPOCH);
+        final RecordingTopicPublisher publisher = new RecordingTopicPublisher(2, clock);
+
+        // Act
+        publisher.publishEventAsync("first", DaprTopic.COURSE_CHANGED);
+        publisher.publishEventAsync("second", DaprTopic.COURSE_CHANGED);
+        publisher.publishEventAsync("third", DaprTopic.COURSE_CHANGED);
+
+        // Assert
+        assertThat(publisher.getEvents(String.class), contains("second", "third"));
+        assertThat(publisher.getRecordedCount(), is(3L));
+
+        publisher.clear();
+        assertThat(publisher.getRecordedEvents(), is(empty()));
+    }
+
+    @Test
+    void testReplayKeepsOrderAndScaledTiming() throws Exception {
+        // Arrange
+        when(clock.instant()).thenReturn(Instant.EPOCH, Instant.EPOCH.plusSeconds(1), Instant.EPOCH.plusSeconds(2));
+        final RecordingTopicPublisher publisher = new RecordingTopicPublisher(10, clock);
+        publisher.publishEventAsync("first", DaprTopic.COURSE_CHANGED);
+        publisher.publishEventAsync("second", DaprTopic.COURSE_CHANGED);
+        publisher.publishEventAsync("third", DaprTopic.COURSE_CHANGED);
+        final List<Object> delivered = new CopyOnWriteArrayList<>();
+
+        try (final EventReplayer replayer = new EventReplayer(event -> {
+            delivered.add(event.event());
+            return CompletableFuture.completedFuture(null);
+        })) {
+            // Act
+            final long start = System.nanoTime();
+            replayer.replay(publisher.getRecordedEvents(), 20).get(5, TimeUnit.SECONDS);
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert
+            assertThat(delivered, contains("first", "second", "third"));
+            assertThat(elapsedMillis, is(both(greaterThanOrEqualTo(90L)).and(lessThan(2000L))));
+        }
+    }
+
+    @Test
+    void testReplayFailsIfTargetFails() {
+        // Arrange
+        final RecordedEvent event = new RecordedEvent(0, Instant.EPOCH, DaprTopic.COURSE_CHANGED, "event");
+
+        try (final EventReplayer replayer = new EventReplayer(
+                e -> CompletableFuture.failedFuture(new IllegalStateException("error")))) {
+            // Act
+            final CompletableFuture<Void> future = replayer.replay(List.of(event), Double.POSITIVE_INFINITY);
+
+            // Assert
+            assertThat(future.handle((result, error) -> error).join(), is(notNullValue()));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RetryingEventDispatcherTest {
+
+    private static final RetryPolicy FAST_RETRIES = RetryPolicy.builder()
+            .maxAttempts(3)
+            .initialBackoff(Duration.ofMillis(1))
+            .maxBackoff(Duration.ofMillis(5))
+            .build();
+
+    private final EventDispatcher delegate = mock(EventDispatcher.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RetryingEventDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void testFailedPublishIsRetried() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(
+                CompletableFuture.failedFuture(new EventPublishException("error")),
+                CompletableFuture.failedFuture(new EventPublishException("error")),
+                CompletableFuture.completedFuture(null));
+        dispatcher = createDispatcher(new CircuitBreaker(10, Duration.ofMinutes(1)));
+
+        // Act
+        dispatcher.dispatch(event()).join();
+
+        // Assert
+        verify(delegate, times(3)).dispatch(any());
+        assertThat(meterRegistry.get("dapr.publisher.retries").counter().count(), is(2.0));
+    }
+
+    @Test
+    void testPublishFailsAfterMaxAttempts() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.failedFuture(new EventPublishException("error")));
+        dispatcher = createDispatcher(new CircuitBreaker(10, Duration.ofMinutes(1)));
+
+        // Act
+        final CompletableFuture<Void> future = dispatcher.dispatch(event());
+
+        // Assert
+        assertThrows(CompletionException.class, future::join);
+        verify(delegate, times(3)).dispatch(any());
+    }
+
+    @Test
+    void testTopicPolicyOverridesDefaultPolicy() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.failedFuture(new EventPublishException("error")));
+        dispatcher = new RetryingEventDispatcher(delegate, FAST_RETRIES,
+                Map.of(DaprTopic.CONTENT_CHANGED, RetryPolicy.builder().maxAttempts(1).build()),
+                new CircuitBreaker(10, Duration.ofMinutes(1)), meterRegistry);
+
+        // Act
+        final CompletableFuture<Void> future = dispatcher.dispatch(event());
+
+        // Assert
+        assertThrows(CompletionException.class, future::join);
+        verify(delegate, times(1)).dispatch(any());
+    }
+
+    @Test
+    void testOpenCircuitBreakerFailsFast() {
+        // Arrange
+        when(delegate.dispatch(any())).thenReturn(CompletableFuture.failedFuture(new EventPublishException("error")));
+        dispatcher = createDispatcher(new CircuitBreaker(1, Duration.ofMinutes(1)));
+
+        // Act
+        final CompletableFuture<Void> first = dispatcher.dispatch(event());
+        final CompletableFuture<Void> second = dispatcher.dispatch(event());
+
+        // Assert
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        verify(delegate, times(1)).dispatch(any());
+        assertThat(meterRegistry.get("dapr.publisher.circuit.rejected").counter().count(), is(2.0));
+        assertThat(dispatcher.getCircuitBreakerState(), is(CircuitBreaker.State.OPEN));
+        assertThat(meterRegistry.get("dapr.publisher.circuit.state").gauge().value(), is(2.0));
+    }
+
+    @Test
+    void testCircuitBreakerClosesAfterSuccessfulProbe() {
+        // Arrange
+        final MutableClock clock = new MutableClock();
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofSeconds(10), clock);
+        circuitBreaker.recordFailure();
+
+        // Act & Assert
+        assertThat(circuitBreaker.tryAcquirePermission(), is(false));
+
+        clock.advance(Duration.ofSeconds(11));
+        assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(), is(false));
+
+        circuitBreaker.recordSuccess();
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+    }
+
+    @Test
+    void testBackoffGrowsExponentiallyUpToMaxBackoff() {
+        // Arrange
+        final RetryPolicy policy = RetryPolicy.builder()
+                .initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(300))
+                .multiplier(2.0)
+                .jitter(0.0)
+                .build();
+
+        // Act & Assert
+        assertThat(policy.getBackoff(1), is(Duration.ofMillis(100)));
+        assertThat(policy.getBackoff(2), is(Duration.ofMillis(200)));
+        assertThat(policy.getBackoff(3), is(Duration.ofMillis(300)));
+    }
+
+    private RetryingEventDispatcher createDispatcher(final CircuitBreaker circuitBreaker) {
+        return new RetryingEventDispatcher(delegate, FAST_RETRIES, Map.of(), circuitBreaker, meterRegistry);
+    }
+
+    private static OutgoingEvent event() {
+        return OutgoingEvent.builder().topic(DaprTopic.CONTENT_CHANGED).payload(new byte[0]).build();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.now();
+
+        private void advance(final Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+    }
+}
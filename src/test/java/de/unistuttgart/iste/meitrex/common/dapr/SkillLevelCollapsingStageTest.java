@@ -0,0 +1,156 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.skilllevels.UserSkillLevelChangedEvent;
+import de.unistuttgart.iste.meitrex.generated.dto.BloomLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SkillLevelCollapsingStageTest {
+
+    private final PublishStage.Next next = mock(PublishStage.Next.class);
+    private final SkillLevelCollapsingStage stage = new SkillLevelCollapsingStage(Duration.ofMinutes(1));
+
+    private final UUID user = UUID.randomUUID();
+    private final UUID skill = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        stage.close();
+    }
+
+    @Test
+    void testChangesAreCollapsedToFirstOldValueAndLastNewValue() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        final CompletableFuture<Void> firstFuture = stage.process(
+                change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        stage.process(change(BloomLevel.APPLY, 0.4f, 0.5f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        stage.process(change(BloomLevel.REMEMBER, 0.1f, 0.3f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        verify(next, never()).publish(any(), any());
+        stage.flush();
+
+        // Assert
+        verify(next).publish(change(BloomLevel.APPLY, 0.2f, 0.5f), DaprTopic.USER_SKILL_LEVEL_CHANGED);
+        verify(next).publish(change(BloomLevel.REMEMBER, 0.1f, 0.3f), DaprTopic.USER_SKILL_LEVEL_CHANGED);
+        verifyNoMoreInteractions(next);
+        assertThat(firstFuture.isDone(), is(true));
+    }
+
+    @Test
+    void testNetZeroChangesAreDropped() {
+        // Act
+        final CompletableFuture<Void> future = stage.process(
+                change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        stage.process(change(BloomLevel.APPLY, 0.4f, 0.2f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        stage.flush();
+
+        // Assert
+        verify(next, never()).publish(any(), any());
+        assertThat(future.isDone(), is(true));
+    }
+
+    @Test
+    void testChangesOfTransactionArePublishedAfterCommit() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        stage.process(change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        stage.process(change(BloomLevel.APPLY, 0.4f, 0.6f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        stage.flush();
+        verify(next, never()).publish(any(), any());
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        verify(next).publish(change(BloomLevel.APPLY, 0.2f, 0.6f), DaprTopic.USER_SKILL_LEVEL_CHANGED);
+    }
+
+    @Test
+    void testChangesOfRolledBackTransactionAreDiscarded() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        stage.process(change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+
+        // Act
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        verify(next, never()).publish(any(), any());
+    }
+
+    @Test
+    void testFutureWithinTransactionCompletesBeforeCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        final CompletableFuture<Void> future = stage.process(
+                change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+
+        // Assert
+        assertThat(future.isDone(), is(true));
+        verify(next, never()).publish(any(), any());
+    }
+
+    @Test
+    void testChangesOfInnerTransactionArePublishedSeparately() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        TransactionSynchronizationManager.initSynchronization();
+        stage.process(change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+
+        // Act
+        // REQUIRES_NEW suspends the synchronizations of the outer transaction
+        final List<TransactionSynchronization> outer = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        stage.process(change(BloomLevel.REMEMBER, 0.1f, 0.3f), DaprTopic.USER_SKILL_LEVEL_CHANGED, next);
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        verify(next).publish(change(BloomLevel.REMEMBER, 0.1f, 0.3f), DaprTopic.USER_SKILL_LEVEL_CHANGED);
+        verify(next, never()).publish(change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        outer.forEach(TransactionSynchronizationManager::registerSynchronization);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(next, never()).publish(change(BloomLevel.APPLY, 0.2f, 0.4f), DaprTopic.USER_SKILL_LEVEL_CHANGED);
+    }
+
+    private static void completeTransaction(final int status) {
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private UserSkillLevelChangedEvent change(final BloomLevel bloomLevel, final float oldValue, final float newValue) {
+        return UserSkillLevelChangedEvent.builder()
+                .userId(user)
+                .skillId(skill)
+                .bloomLevel(bloomLevel)
+                .oldValue(oldValue)
+                .newValue(newValue)
+                .build();
+    }
+}
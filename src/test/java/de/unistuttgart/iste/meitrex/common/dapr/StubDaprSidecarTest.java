@@ -0,0 +1,100 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StubDaprSidecarTest {
+
+    private final StubDaprSidecar sidecar = new StubDaprSidecar();
+    private final SyntheticEvents events = new SyntheticEvents(42, 10);
+    private final byte[] payload;
+
+    StubDaprSidecarTest() throws IOException {
+        payload = new CustomDaprObjectSerializer().serialize(events.create(DaprTopic.CONTENT_PROGRESSED));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sidecar.close();
+    }
+
+    @Test
+    void testEventsOfAllTopicsArePublished() {
+        // Arrange
+        final TopicPublisher publisher = new TopicPublisher(new DirectEventDispatcher(sidecar.createClient()),
+                new CustomDaprObjectSerializer());
+
+        // Act
+        for (final DaprTopic topic : DaprTopic.values()) {
+            publisher.publishEventAsync(events.create(topic), topic).join();
+        }
+
+        // Assert
+        assertThat(sidecar.getPublishedCount(), is((long) DaprTopic.values().length));
+        assertThat(sidecar.getPublishedCount(DaprTopic.USER_PROGRESS_UPDATED), is(1L));
+    }
+
+    @Test
+    void testInjectedErrorFailsPublish() {
+        // Arrange
+        sidecar.setErrorRate(1);
+        final DirectEventDispatcher dispatcher = new DirectEventDispatcher(sidecar.createClient());
+
+        // Act
+        final CompletableFuture<Void> future = dispatcher.dispatch(event());
+
+        // Assert
+        assertThrows(CompletionException.class, future::join);
+        assertThat(sidecar.getPublishedCount(), is(0L));
+    }
+
+    @Test
+    void testBulkPublishReportsFailedEntries() {
+        // Arrange
+        sidecar.setErrorRate(0.5);
+        final BatchingEventDispatcher dispatcher = new BatchingEventDispatcher(sidecar.createPreviewClient(),
+                100, Duration.ofSeconds(10));
+
+        // Act
+        final List<CompletableFuture<Void>> futures = IntStream.range(0, 50)
+                .mapToObj(i -> dispatcher.dispatch(event()))
+                .toList();
+        dispatcher.flush();
+        final long failed = futures.stream()
+                .filter(future -> future.handle((result, error) -> error != null).join())
+                .count();
+
+        // Assert
+        assertThat(sidecar.getRequestCount(), is(1L));
+        assertThat(failed, is(both(greaterThan(0L)).and(lessThan(50L))));
+        assertThat(sidecar.getPublishedCount(), is(50 - failed));
+    }
+
+    @Test
+    void testUnavailableSidecarFailsHealthCheck() {
+        // Arrange
+        sidecar.setUnavailable(true);
+        sidecar.setLatency(Duration.ofMillis(10));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> sidecar.createClient().waitForSidecar(1000).block());
+    }
+
+    private OutgoingEvent event() {
+        return OutgoingEvent.builder()
+                .topic(DaprTopic.CONTENT_PROGRESSED)
+                .payload(payload)
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.ItemChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TopicPublisherTest {
+
+    private final EventDispatcher dispatcher = mock(EventDispatcher.class);
+    private final CustomDaprObjectSerializer serializer = new CustomDaprObjectSerializer();
+    private final TopicPublisher topicPublisher = new TopicPublisher(dispatcher, serializer);
+
+    @Test
+    void testPublishEventAsyncDispatchesSerializedEvent() throws Exception {
+        // Arrange
+        final ItemChangeEvent event = new ItemChangeEvent(UUID.randomUUID(), CrudOperation.CREATE);
+        when(dispatcher.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        final CompletableFuture<Void> future = topicPublisher.publishEventAsync(event, DaprTopic.ITEM_CHANGED);
+
+        // Assert
+        assertThat(future.isDone(), is(true));
+
+        final ArgumentCaptor<OutgoingEvent> captor = ArgumentCaptor.forClass(OutgoingEvent.class);
+        verify(dispatcher).dispatch(captor.capture());
+        assertThat(captor.getValue().getTopic(), is(DaprTopic.ITEM_CHANGED));
+        assertThat(captor.getValue().getEventId(), is(notNullValue()));
+        assertThat(serializer.deserialize(captor.getValue().getPayload(), ItemChangeEvent.class), is(event));
+    }
+
+    @Test
+    void testTopicEncodingIsUsed() throws Exception {
+        // Arrange
+        final TopicPublisher cborPublisher = new TopicPublisher(dispatcher, serializer,
+                Map.of(DaprTopic.ITEM_CHANGED, EventEncoding.CBOR));
+        final ItemChangeEvent event = new ItemChangeEvent(UUID.randomUUID(), CrudOperation.CREATE);
+        when(dispatcher.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        cborPublisher.publishEventAsync(event, DaprTopic.ITEM_CHANGED);
+
+        // Assert
+        final ArgumentCaptor<OutgoingEvent> captor = ArgumentCaptor.forClass(OutgoingEvent.class);
+        verify(dispatcher).dispatch(captor.capture());
+        assertThat(captor.getValue().getContentType(), is(OutgoingEvent.BINARY_CONTENT_TYPE));
+        assertThat(captor.getValue().getMetadata(), hasEntry(OutgoingEvent.ENCODING_METADATA, "cbor"));
+        assertThat(serializer.deserialize(captor.getValue().getPayload(), ItemChangeEvent.class, EventEncoding.CBOR),
+                is(event));
+    }
+
+    @Test
+    void testStagesAreAppliedInOrder() throws Exception {
+        // Arrange
+        final ItemChangeEvent event = new ItemChangeEvent(UUID.randomUUID(), CrudOperation.CREATE);
+        final PublishStage replaceOperation = (dto, daprTopic, next) -> next.publish(
+                new ItemChangeEvent(((ItemChangeEvent) dto).getItemId(), CrudOperation.UPDATE), daprTopic);
+        final PublishStage redirectTopic = (dto, daprTopic, next) -> next.publish(dto, DaprTopic.CONTENT_CHANGED);
+        final TopicPublisher stagedPublisher = new TopicPublisher(dispatcher, serializer, Map.of(),
+                PayloadCompressor.DISABLED, List.of(replaceOperation, redirectTopic));
+        when(dispatcher.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stagedPublisher.publishEventAsync(event, DaprTopic.ITEM_CHANGED);
+
+        // Assert
+        final ArgumentCaptor<OutgoingEvent> captor = ArgumentCaptor.forClass(OutgoingEvent.class);
+        verify(dispatcher).dispatch(captor.capture());
+        assertThat(captor.getValue().getTopic(), is(DaprTopic.CONTENT_CHANGED));
+        assertThat(serializer.deserialize(captor.getValue().getPayload(), ItemChangeEvent.class).getOperation(),
+                is(CrudOperation.UPDATE));
+    }
+
+    @Test
+    void testPublishAllCompletesWhenAllEventsAreAccepted() {
+        // Arrange
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final CompletableFuture<Void> second = new CompletableFuture<>();
+        when(dispatcher.dispatch(any())).thenReturn(first, second);
+
+        // Act
+        final CompletableFuture<Void> future = topicPublisher.publishAll(
+                List.of(new ItemChangeEvent(UUID.randomUUID(), CrudOperation.CREATE),
+                        new ItemChangeEvent(UUID.randomUUID(), CrudOperation.DELETE)),
+                DaprTopic.ITEM_CHANGED);
+
+        // Assert
+        verify(dispatcher, times(2)).dispatch(any());
+        first.complete(null);
+        assertThat(future.isDone(), is(false));
+        second.complete(null);
+        assertThat(future.isDone(), is(true));
+    }
+
+    @Test
+    void testPublishAllFailsWhenOneEventFails() {
+        // Arrange
+        when(dispatcher.dispatch(any())).thenReturn(
+                CompletableFuture.completedFuture(null),
+                CompletableFuture.failedFuture(new EventPublishException("error")));
+
+        // Act
+        final CompletableFuture<Void> future = topicPublisher.publishAll(
+                List.of(new ItemChangeEvent(UUID.randomUUID(), CrudOperation.CREATE),
+                        new ItemChangeEvent(UUID.randomUUID(), CrudOperation.DELETE)),
+                DaprTopic.ITEM_CHANGED);
+
+        // Assert
+        assertThat(future.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    void testPublishEventMonoIsLazy() {
+        // Arrange
+        when(dispatcher.dispatch(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        final Mono<Void> mono = topicPublisher.publishEventMono(
+                new ItemChangeEvent(UUID.randomUUID(), CrudOperation.CREATE), DaprTopic.ITEM_CHANGED);
+
+        // Assert
+        verify(dispatcher, never()).dispatch(any());
+        mono.block();
+        verify(dispatcher).dispatch(any());
+    }
+}
@@ -0,0 +1,105 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.CourseChangeEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.common.event.MediaRecordWorkedOnEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WorkedOnAggregationStageTest {
+
+    private final PublishStage.Next next = mock(PublishStage.Next.class);
+    private final WorkedOnAggregationStage stage = new WorkedOnAggregationStage(Duration.ofMinutes(1));
+
+    private final UUID user = UUID.randomUUID();
+    private final UUID firstMediaRecord = UUID.randomUUID();
+    private final UUID secondMediaRecord = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        stage.close();
+    }
+
+    @Test
+    void testRepeatedEventsAreAggregatedPerUserAndMediaRecord() {
+        // Arrange
+        final CompletableFuture<Void> published = new CompletableFuture<>();
+        when(next.publish(any(), any())).thenReturn(published, CompletableFuture.completedFuture(null));
+
+        // Act
+        final CompletableFuture<Void> firstFuture = stage.process(
+                new MediaRecordWorkedOnEvent(user, firstMediaRecord, false), DaprTopic.MEDIA_RECORD_WORKED_ON, next);
+        stage.process(new MediaRecordWorkedOnEvent(user, secondMediaRecord, true),
+                DaprTopic.MEDIA_RECORD_WORKED_ON, next);
+        final CompletableFuture<Void> repeatedFuture = stage.process(
+                new MediaRecordWorkedOnEvent(user, firstMediaRecord, true), DaprTopic.MEDIA_RECORD_WORKED_ON, next);
+        verify(next, never()).publish(any(), any());
+        stage.flush();
+
+        // Assert
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(next, times(2)).publish(captor.capture(), eq(DaprTopic.MEDIA_RECORD_WORKED_ON));
+        assertThat(captor.getAllValues(), contains(
+                new MediaRecordWorkedOnEvent(user, firstMediaRecord, false),
+                new MediaRecordWorkedOnEvent(user, secondMediaRecord, true)));
+        assertThat(repeatedFuture.isDone(), is(false));
+        published.complete(null);
+        assertThat(firstFuture.isDone(), is(true));
+        assertThat(repeatedFuture.isDone(), is(true));
+    }
+
+    @Test
+    void testEventsArePublishedOnClose() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        final CompletableFuture<Void> future = stage.process(
+                new MediaRecordWorkedOnEvent(user, firstMediaRecord, false), DaprTopic.MEDIA_RECORD_WORKED_ON, next);
+
+        // Act
+        stage.close();
+
+        // Assert
+        verify(next).publish(new MediaRecordWorkedOnEvent(user, firstMediaRecord, false),
+                DaprTopic.MEDIA_RECORD_WORKED_ON);
+        assertThat(future.isDone(), is(true));
+    }
+
+    @Test
+    void testOtherEventsArePassedOn() {
+        // Arrange
+        final CourseChangeEvent event = new CourseChangeEvent(UUID.randomUUID(), CrudOperation.UPDATE);
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(event, DaprTopic.COURSE_CHANGED, next);
+
+        // Assert
+        verify(next).publish(same(event), eq(DaprTopic.COURSE_CHANGED));
+    }
+
+    @Test
+    void testEventsArePassedOnAfterClose() {
+        // Arrange
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        final MediaRecordWorkedOnEvent event = new MediaRecordWorkedOnEvent(user, firstMediaRecord, false);
+        stage.close();
+
+        // Act
+        final CompletableFuture<Void> future = stage.process(event, DaprTopic.MEDIA_RECORD_WORKED_ON, next);
+
+        // Assert
+        verify(next).publish(event, DaprTopic.MEDIA_RECORD_WORKED_ON);
+        assertThat(future.isDone(), is(true));
+    }
+}
@@ -0,0 +1,101 @@
+package de.unistuttgart.iste.meitrex.common.dapr.claimcheck;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.PublishStage;
+import de.unistuttgart.iste.meitrex.common.event.StudentCodeSubmittedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ClaimCheckStageTest {
+
+    @TempDir
+    Path directory;
+
+    private final PublishStage.Next next = mock(PublishStage.Next.class);
+
+    @Test
+    void testFilesAreReplacedByHashes() throws IOException {
+        // Arrange
+        final BlobStore blobStore = new FileSystemBlobStore(directory);
+        final ClaimCheckStage stage = new ClaimCheckStage(blobStore);
+        final StudentCodeSubmittedEvent event = submission(Map.of("Main.java", "class Main {}", "README.md", "# Readme"));
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(event, DaprTopic.STUDENT_CODE_SUBMITTED, next);
+
+        // Assert
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(next).publish(captor.capture(), eq(DaprTopic.STUDENT_CODE_SUBMITTED));
+        final StudentCodeSubmittedEvent published = (StudentCodeSubmittedEvent) captor.getValue();
+        assertThat(published.getFiles(), is(anEmptyMap()));
+        assertThat(published.getStudentId(), is(event.getStudentId()));
+        assertThat(published.getCommitSha(), is(event.getCommitSha()));
+        assertThat(published.getFileHashes(), hasEntry("Main.java", BlobStore.hash("class Main {}")));
+
+        final Map<String, String> files = new ClaimCheckResolver(blobStore).getFiles(published);
+        assertThat(files, is(event.getFiles()));
+    }
+
+    @Test
+    void testIdenticalFilesAreStoredOnce() throws IOException {
+        // Arrange
+        final ClaimCheckStage stage = new ClaimCheckStage(new FileSystemBlobStore(directory));
+        when(next.publish(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        stage.process(submission(Map.of("lib/Util.java", "class Util {}", "Main.java", "class Main {}")),
+                DaprTopic.STUDENT_CODE_SUBMITTED, next);
+        stage.process(submission(Map.of("lib/Util.java", "class Util {}", "Main.java", "class Main { int x; }")),
+                DaprTopic.STUDENT_CODE_SUBMITTED, next);
+
+        // Assert
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile).count(), is(3L));
+        }
+    }
+
+    @Test
+    void testResolverFetchesContentsLazily() throws IOException {
+        // Arrange
+        final BlobStore blobStore = mock(BlobStore.class);
+        final String hash = BlobStore.hash("class Main {}");
+        when(blobStore.get(hash)).thenReturn("class Main {}".getBytes());
+        final StudentCodeSubmittedEvent event = StudentCodeSubmittedEvent.builder()
+                .fileHashes(Map.of("Main.java", hash))
+                .build();
+
+        // Act
+        final Map<String, String> files = new ClaimCheckResolver(blobStore).getFiles(event);
+
+        // Assert
+        assertThat(files.keySet(), contains("Main.java"));
+        verify(blobStore, never()).get(any());
+        assertThat(files.get("Main.java"), is("class Main {}"));
+        assertThat(files.get("Main.java"), is("class Main {}"));
+        verify(blobStore, times(1)).get(hash);
+    }
+
+    private static StudentCodeSubmittedEvent submission(final Map<String, String> files) {
+        return StudentCodeSubmittedEvent.builder()
+                .studentId(UUID.randomUUID())
+                .assignmentId(UUID.randomUUID())
+                .files(files)
+                .build();
+    }
+}
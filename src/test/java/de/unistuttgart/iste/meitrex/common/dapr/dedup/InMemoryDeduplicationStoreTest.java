@@ -0,0 +1,87 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryDeduplicationStoreTest {
+
+    private final Clock clock = mock(Clock.class);
+
+    @Test
+    void testIdCanOnlyBeClaimedOnce() {
+        // Arrange
+        final InMemoryDeduplicationStore store = new InMemoryDeduplicationStore(Duration.ofMinutes(1), 10);
+
+        // Act & Assert
+        assertThat(store.tryClaim("event"), is(ClaimStatus.CLAIMED));
+        assertThat(store.tryClaim("event"), is(ClaimStatus.IN_PROGRESS));
+        assertThat(store.tryClaim("other event"), is(ClaimStatus.CLAIMED));
+    }
+
+    @Test
+    void testConfirmedIdIsDuplicate() {
+        // Arrange
+        final InMemoryDeduplicationStore store = new InMemoryDeduplicationStore(Duration.ofMinutes(1), 10);
+        store.tryClaim("event");
+
+        // Act
+        store.confirm("event");
+
+        // Assert
+        assertThat(store.tryClaim("event"), is(ClaimStatus.DUPLICATE));
+    }
+
+    @Test
+    void testReleasedIdCanBeClaimedAgain() {
+        // Arrange
+        final InMemoryDeduplicationStore store = new InMemoryDeduplicationStore(Duration.ofMinutes(1), 10);
+        store.tryClaim("event");
+
+        // Act
+        store.release("event");
+
+        // Assert
+        assertThat(store.tryClaim("event"), is(ClaimStatus.CLAIMED));
+    }
+
+    @Test
+    void testIdIsForgottenAfterWindow() {
+        // Arrange
+        final InMemoryDeduplicationStore store = new InMemoryDeduplicationStore(Duration.ofMinutes(1), 10, clock);
+        when(clock.millis()).thenReturn(0L);
+        store.tryClaim("event");
+
+        // Act
+        when(clock.millis()).thenReturn(Duration.ofMinutes(1).toMillis());
+
+        // Assert
+        assertThat(store.contains("event"), is(false));
+        assertThat(store.tryClaim("event"), is(ClaimStatus.CLAIMED));
+    }
+
+    @Test
+    void testOldestIdIsForgottenWhenFull() {
+        // Arrange
+        final InMemoryDeduplicationStore store = new InMemoryDeduplicationStore(Duration.ofMinutes(1), 2,
+                Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+
+        // Act
+        store.tryClaim("first");
+        store.tryClaim("second");
+        store.tryClaim("third");
+
+        // Assert
+        assertThat(store.contains("first"), is(false));
+        assertThat(store.contains("second"), is(true));
+        assertThat(store.contains("third"), is(true));
+    }
+}
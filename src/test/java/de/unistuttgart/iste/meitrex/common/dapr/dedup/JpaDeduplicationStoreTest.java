@@ -0,0 +1,129 @@
+package de.unistuttgart.iste.meitrex.common.dapr.dedup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JpaDeduplicationStoreTest {
+
+    private final ProcessedEventRepository repository = mock(ProcessedEventRepository.class);
+
+    private final JpaDeduplicationStore store = new JpaDeduplicationStore(
+            new InMemoryDeduplicationStore(Duration.ofMinutes(1), 100),
+            repository,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            Duration.ofDays(7),
+            Duration.ofMinutes(1));
+
+    @Test
+    void testNewIdIsClaimedWithLease() {
+        // Act
+        final ClaimStatus status = store.tryClaim("event");
+
+        // Assert
+        assertThat(status, is(ClaimStatus.CLAIMED));
+        verify(repository).saveAndFlush(argThat(entity -> entity.getId().equals("event")
+                                                           && !entity.isConfirmed()
+                                                           && entity.getLeaseExpiresAt().isAfter(OffsetDateTime.now())));
+    }
+
+    @Test
+    void testConfirmedIdIsDuplicate() {
+        // Arrange
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById("event")).thenReturn(Optional.of(
+                new ProcessedEventEntity("event", OffsetDateTime.now(), true, OffsetDateTime.now())));
+
+        // Act
+        final ClaimStatus first = store.tryClaim("event");
+        final ClaimStatus second = store.tryClaim("event");
+
+        // Assert
+        assertThat(first, is(ClaimStatus.DUPLICATE));
+        assertThat(second, is(ClaimStatus.DUPLICATE));
+        // the second duplicate is recognized by the in-memory tier
+        verify(repository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void testIdClaimedByAnotherInstanceIsInProgress() {
+        // Arrange
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById("event")).thenReturn(Optional.of(
+                new ProcessedEventEntity("event", OffsetDateTime.now(), false, OffsetDateTime.now().plusMinutes(1))));
+
+        // Act
+        final ClaimStatus first = store.tryClaim("event");
+        final ClaimStatus second = store.tryClaim("event");
+
+        // Assert
+        assertThat(first, is(ClaimStatus.IN_PROGRESS));
+        assertThat(second, is(ClaimStatus.IN_PROGRESS));
+        // the database is asked again, as the claim of the other instance might have expired
+        verify(repository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void testExpiredClaimIsClaimedAgain() {
+        // Arrange
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.claimExpired(eq("event"), any(), any())).thenReturn(1);
+
+        // Act
+        final ClaimStatus status = store.tryClaim("event");
+
+        // Assert
+        assertThat(status, is(ClaimStatus.CLAIMED));
+    }
+
+    @Test
+    void testFailedClaimIsReleasedFromCache() {
+        // Arrange
+        when(repository.saveAndFlush(any()))
+                .thenThrow(new QueryTimeoutException("database unavailable"))
+                .thenReturn(null);
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> store.tryClaim("event"));
+        assertThat(store.tryClaim("event"), is(ClaimStatus.CLAIMED));
+    }
+
+    @Test
+    void testConfirmedClaimIsStored() {
+        // Arrange
+        store.tryClaim("event");
+
+        // Act
+        store.confirm("event");
+
+        // Assert
+        verify(repository).confirm(eq("event"), any());
+        assertThat(store.tryClaim("event"), is(ClaimStatus.DUPLICATE));
+    }
+
+    @Test
+    void testReleasedClaimIsDeleted() {
+        // Arrange
+        store.tryClaim("event");
+
+        // Act
+        store.release("event");
+
+        // Assert
+        verify(repository).deleteById("event");
+        assertThat(store.tryClaim("event"), is(ClaimStatus.CLAIMED));
+    }
+}
@@ -0,0 +1,67 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.OutgoingEvent;
+import de.unistuttgart.iste.meitrex.common.dapr.PublishMetadata;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class EventLatencyRecorderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testLagIsDeterminedFromEventId() {
+        // Arrange
+        final Instant publishTime = Instant.now();
+        final EventLatencyRecorder recorder = new EventLatencyRecorder(meterRegistry,
+                Clock.fixed(publishTime.plusMillis(250), ZoneOffset.UTC));
+        final String eventId = PublishMetadata.create().get(OutgoingEvent.EVENT_ID_METADATA);
+        final ObjectNode cloudEvent = JsonNodeFactory.instance.objectNode()
+                .put("id", eventId)
+                .put("time", "2000-01-01T00:00:00Z");
+
+        // Act
+        recorder.recordLag(DaprTopic.CONTENT_PROGRESSED, cloudEvent);
+
+        // Assert
+        final Timer lag = lagTimer();
+        assertThat(lag.count(), is(1L));
+        final long expectedLag = 250 + publishTime.toEpochMilli()
+                                 - PublishMetadata.getPublishTime(eventId).toEpochMilli();
+        assertThat((long) lag.totalTime(TimeUnit.MILLISECONDS), is(expectedLag));
+    }
+
+    @Test
+    void testCloudEventTimeIsUsedForForeignEvents() {
+        // Arrange
+        final EventLatencyRecorder recorder = new EventLatencyRecorder(meterRegistry,
+                Clock.fixed(Instant.parse("2025-01-01T00:00:02Z"), ZoneOffset.UTC));
+        final ObjectNode cloudEvent = JsonNodeFactory.instance.objectNode()
+                .put("id", "foreign-id")
+                .put("time", "2025-01-01T00:00:00Z");
+
+        // Act
+        recorder.recordLag(DaprTopic.CONTENT_PROGRESSED, cloudEvent);
+
+        // Assert
+        assertThat(lagTimer().totalTime(TimeUnit.SECONDS), is(2.0));
+    }
+
+    private Timer lagTimer() {
+        return meterRegistry.get("dapr.consumer.lag")
+                .tag("topic", DaprTopic.CONTENT_PROGRESSED.getTopic())
+                .timer();
+    }
+}
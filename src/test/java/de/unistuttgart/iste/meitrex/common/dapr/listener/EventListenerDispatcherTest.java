@@ -0,0 +1,263 @@
+package de.unistuttgart.iste.meitrex.common.dapr.listener;
+
+import de.unistuttgart.iste.meitrex.common.dapr.CloudEventDecoder;
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.dedup.InMemoryDeduplicationStore;
+import de.unistuttgart.iste.meitrex.common.event.ItemChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventListenerDispatcherTest {
+
+    private final List<DaprTopic> subscribedTopics = new CopyOnWriteArrayList<>();
+    private final EventListenerRegistry registry = new EventListenerRegistry(topic -> new BulkSubscribeOptions()) {
+        @Override
+        void subscribe(final DaprTopic topic, final String route, final BulkSubscribeOptions options) {
+            subscribedTopics.add(topic);
+        }
+    };
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EventListenerDispatcher dispatcher = new EventListenerDispatcher(registry, new CloudEventDecoder(),
+            new InMemoryDeduplicationStore(Duration.ofMinutes(1), 100), new EventLatencyRecorder(meterRegistry),
+            10, Map.of(DaprTopic.ITEM_CHANGED, 1), meterRegistry);
+
+    private final UUID itemId = UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.close();
+    }
+
+    @Test
+    void testListenerReceivesDeserializedEvent() {
+        // Arrange
+        final ItemListener listener = new ItemListener();
+        registry.postProcessAfterInitialization(listener, "itemListener");
+        registry.afterSingletonsInstantiated();
+
+        // Act
+        final EventHandlingStatus status = dispatcher.dispatch(DaprTopic.ITEM_CHANGED, cloudEvent()).join();
+
+        // Assert
+        assertThat(status, is(EventHandlingStatus.SUCCESS));
+        assertThat(subscribedTopics, contains(DaprTopic.ITEM_CHANGED));
+        assertThat(listener.received, contains(hasProperty("itemId", is(itemId))));
+        assertThat(meterRegistry.get("dapr.listener.handler.duration")
+                .tags("topic", DaprTopic.ITEM_CHANGED.getTopic(), "outcome", "success")
+                .timer().count(), is(1L));
+    }
+
+    @Test
+    void testFailingListenerRequestsRetry() {
+        // Arrange
+        final ItemListener listener = new ItemListener();
+        listener.failure = new IllegalStateException("error");
+        registry.postProcessAfterInitialization(listener, "itemListener");
+
+        // Act
+        final EventHandlingStatus status = dispatcher.dispatch(DaprTopic.ITEM_CHANGED, cloudEvent()).join();
+
+        // Assert
+        assertThat(status, is(EventHandlingStatus.RETRY));
+    }
+
+    @Test
+    void testUndecodableEventIsDropped() {
+        // Arrange
+        registry.postProcessAfterInitialization(new ItemListener(), "itemListener");
+
+        // Act
+        final EventHandlingStatus status = dispatcher.dispatch(DaprTopic.ITEM_CHANGED,
+                "{\"data\": {\"itemId\": \"no-uuid\"}}".getBytes(StandardCharsets.UTF_8)).join();
+
+        // Assert
+        assertThat(status, is(EventHandlingStatus.DROP));
+    }
+
+    @Test
+    void testConcurrencyIsLimitedPerTopic() throws InterruptedException {
+        // Arrange
+        final ItemListener listener = new ItemListener();
+        listener.blocker = new CountDownLatch(1);
+        registry.postProcessAfterInitialization(listener, "itemListener");
+
+        // Act
+        final CompletableFuture<EventHandlingStatus> first = dispatcher.dispatch(DaprTopic.ITEM_CHANGED, cloudEvent());
+        final CompletableFuture<EventHandlingStatus> second = dispatcher.dispatch(DaprTopic.ITEM_CHANGED, cloudEvent());
+
+        // Assert
+        assertThat(listener.started.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(meterRegistry.get("dapr.listener.queue.depth")
+                .tag("topic", DaprTopic.ITEM_CHANGED.getTopic()).gauge().value(), is(1.0));
+        listener.blocker.countDown();
+        assertThat(first.join(), is(EventHandlingStatus.SUCCESS));
+        assertThat(second.join(), is(EventHandlingStatus.SUCCESS));
+        assertThat(listener.received, hasSize(2));
+    }
+
+    @Test
+    void testListenerWithoutEventParameterIsRejected() {
+        // Arrange
+        final Object invalidListener = new Object() {
+            @DaprEventListener(DaprTopic.ITEM_CHANGED)
+            public void onEvent() {
+                // no event parameter
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> registry.postProcessAfterInitialization(invalidListener, "invalidListener"));
+    }
+
+    @Test
+    void testRedeliveredEventIsSkippedByDeduplicatingListener() {
+        // Arrange
+        final DeduplicatingItemListener listener = new DeduplicatingItemListener();
+        registry.postProcessAfterInitialization(listener, "deduplicatingItemListener");
+        final byte[] event = ("{\"id\": \"event-1\", " + cloudEventJson(itemId).substring(1))
+                .getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        final EventHandlingStatus firstStatus = dispatcher.dispatch(DaprTopic.ITEM_CHANGED, event).join();
+        final EventHandlingStatus secondStatus = dispatcher.dispatch(DaprTopic.ITEM_CHANGED, event).join();
+
+        // Assert
+        assertThat(firstStatus, is(EventHandlingStatus.SUCCESS));
+        assertThat(secondStatus, is(EventHandlingStatus.SUCCESS));
+        assertThat(listener.received, hasSize(1));
+    }
+
+    @Test
+    void testBatchListenerReportsStatusPerEntry() {
+        // Arrange
+        final UUID secondItemId = UUID.randomUUID();
+        final ItemBatchListener listener = new ItemBatchListener(
+                List.of(EventHandlingStatus.SUCCESS, EventHandlingStatus.RETRY));
+        registry.postProcessAfterInitialization(listener, "itemBatchListener");
+        final String body = "{\"entries\": ["
+                            + "{\"entryId\": \"1\", \"event\": " + cloudEventJson(itemId) + "},"
+                            + "{\"entryId\": \"2\", \"event\": " + cloudEventJson("no-uuid") + "},"
+                            + "{\"entryId\": \"3\", \"event\": " + cloudEventJson(secondItemId) + "}]}";
+
+        // Act
+        final List<BulkEntryStatus> statuses = dispatcher.dispatchBulk(DaprTopic.ITEM_CHANGED,
+                body.getBytes(StandardCharsets.UTF_8)).join();
+
+        // Assert
+        assertThat(listener.received, contains(hasProperty("itemId", is(itemId)),
+                hasProperty("itemId", is(secondItemId))));
+        assertThat(statuses, containsInAnyOrder(
+                new BulkEntryStatus("1", EventHandlingStatus.SUCCESS),
+                new BulkEntryStatus("2", EventHandlingStatus.DROP),
+                new BulkEntryStatus("3", EventHandlingStatus.RETRY)));
+    }
+
+    @Test
+    void testFailingBatchListenerRequestsRetryOfAllEntries() {
+        // Arrange
+        registry.postProcessAfterInitialization(new ItemBatchListener(null), "itemBatchListener");
+        final String body = "{\"entries\": [{\"entryId\": \"1\", \"event\": " + cloudEventJson(itemId) + "}]}";
+
+        // Act
+        final List<BulkEntryStatus> statuses = dispatcher.dispatchBulk(DaprTopic.ITEM_CHANGED,
+                body.getBytes(StandardCharsets.UTF_8)).join();
+
+        // Assert
+        assertThat(statuses, contains(new BulkEntryStatus("1", EventHandlingStatus.RETRY)));
+    }
+
+    @Test
+    void testTopicCannotHaveBatchListenerAndListener() {
+        // Arrange
+        registry.postProcessAfterInitialization(new ItemListener(), "itemListener");
+        final ItemBatchListener batchListener = new ItemBatchListener(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> registry.postProcessAfterInitialization(batchListener, "itemBatchListener"));
+    }
+
+    private byte[] cloudEvent() {
+        return cloudEventJson(itemId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String cloudEventJson(final Object itemId) {
+        return "{\"datacontenttype\": \"application/json\", \"data\": {\"itemId\": \"" + itemId
+               + "\", \"operation\": \"UPDATE\"}}";
+    }
+
+    public static class ItemListener {
+
+        private final List<ItemChangeEvent> received = new CopyOnWriteArrayList<>();
+        private RuntimeException failure;
+        private CountDownLatch blocker;
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        @DaprEventListener(DaprTopic.ITEM_CHANGED)
+        public void onItemChanged(final ItemChangeEvent event) throws InterruptedException {
+            received.add(event);
+            started.countDown();
+            if (blocker != null) {
+                blocker.await();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    public static class DeduplicatingItemListener {
+
+        private final List<ItemChangeEvent> received = new CopyOnWriteArrayList<>();
+
+        @DaprEventListener(value = DaprTopic.ITEM_CHANGED, deduplicate = true)
+        public void onItemChanged(final ItemChangeEvent event) {
+            received.add(event);
+        }
+    }
+
+    public static class ItemBatchListener implements BatchEventListener<ItemChangeEvent> {
+
+        private final List<EventHandlingStatus> statuses;
+        private final List<ItemChangeEvent> received = new CopyOnWriteArrayList<>();
+
+        public ItemBatchListener(final List<EventHandlingStatus> statuses) {
+            this.statuses = statuses;
+        }
+
+        @Override
+        public DaprTopic getTopic() {
+            return DaprTopic.ITEM_CHANGED;
+        }
+
+        @Override
+        public Class<ItemChangeEvent> getEventType() {
+            return ItemChangeEvent.class;
+        }
+
+        @Override
+        public List<EventHandlingStatus> handleBatch(final List<ItemChangeEvent> events) {
+            received.addAll(events);
+            if (statuses == null) {
+                throw new IllegalStateException("error");
+            }
+            return statuses;
+        }
+    }
+}
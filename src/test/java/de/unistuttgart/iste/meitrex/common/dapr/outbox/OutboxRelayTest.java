@@ -0,0 +1,148 @@
+package de.unistuttgart.iste.meitrex.common.dapr.outbox;
+
+import de.unistuttgart.iste.meitrex.common.dapr.DaprTopic;
+import de.unistuttgart.iste.meitrex.common.dapr.OutgoingEvent;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishEntry;
+import io.dapr.client.domain.BulkPublishRequest;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final OutboxRelayLeaseRepository leaseRepository = mock(OutboxRelayLeaseRepository.class);
+    private final DaprPreviewClient client = mock(DaprPreviewClient.class);
+
+    private final OutboxRelay relay = new OutboxRelay(repository, leaseRepository, client,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), 10, Duration.ofSeconds(1),
+            Duration.ofSeconds(30), Duration.ofSeconds(10));
+
+    @Test
+    void testConsecutiveEventsOfSameTopicAreSentInOneRequest() {
+        // Arrange
+        final List<OutboxEventEntity> events = List.of(
+                event(1L, DaprTopic.CONTENT_CHANGED),
+                event(2L, DaprTopic.CONTENT_CHANGED),
+                event(3L, DaprTopic.ITEM_CHANGED));
+        when(repository.findPendingEvents(any(Pageable.class))).thenReturn(events);
+        doReturn(Mono.just(new BulkPublishResponse<>())).when(client).publishEvents(any(BulkPublishRequest.class));
+
+        // Act
+        final int relayed = relay.relayBatch();
+
+        // Assert
+        assertThat(relayed, is(3));
+
+        final ArgumentCaptor<BulkPublishRequest> captor = ArgumentCaptor.forClass(BulkPublishRequest.class);
+        verify(client, times(2)).publishEvents(captor.capture());
+        assertThat(captor.getAllValues().get(0).getTopic(), is(DaprTopic.CONTENT_CHANGED.getTopic()));
+        assertThat(captor.getAllValues().get(0).getEntries(), hasSize(2));
+        assertThat(captor.getAllValues().get(1).getTopic(), is(DaprTopic.ITEM_CHANGED.getTopic()));
+
+        verify(repository).deleteAllInBatch(events.subList(0, 2));
+        verify(repository).deleteAllInBatch(events.subList(2, 3));
+    }
+
+    @Test
+    void testRelayStopsAtFirstFailedEvent() {
+        // Arrange
+        final List<OutboxEventEntity> events = List.of(
+                event(1L, DaprTopic.CONTENT_CHANGED),
+                event(2L, DaprTopic.CONTENT_CHANGED),
+                event(3L, DaprTopic.ITEM_CHANGED));
+        when(repository.findPendingEvents(any(Pageable.class))).thenReturn(events);
+
+        final BulkPublishEntry<byte[]> failedEntry = new BulkPublishEntry<>("2", new byte[0], "application/json");
+        doReturn(Mono.just(new BulkPublishResponse<>(List.of(new BulkPublishResponseFailedEntry<>(failedEntry, "error")))))
+                .when(client).publishEvents(any(BulkPublishRequest.class));
+
+        // Act
+        final int relayed = relay.relayBatch();
+
+        // Assert
+        assertThat(relayed, is(1));
+        verify(client, times(1)).publishEvents(any(BulkPublishRequest.class));
+        verify(repository).deleteAllInBatch(events.subList(0, 1));
+    }
+
+    @Test
+    void testNothingIsDeletedWhenSidecarIsUnavailable() {
+        // Arrange
+        final List<OutboxEventEntity> events = List.of(event(1L, DaprTopic.CONTENT_CHANGED));
+        when(repository.findPendingEvents(any(Pageable.class))).thenReturn(events);
+        doReturn(Mono.error(new IllegalStateException("sidecar unavailable")))
+                .when(client).publishEvents(any(BulkPublishRequest.class));
+
+        // Act
+        final int relayed = relay.relayBatch();
+
+        // Assert
+        assertThat(relayed, is(0));
+        verify(repository).deleteAllInBatch(List.of());
+    }
+
+    @Test
+    void testNothingIsPublishedWhileAnotherRelayHoldsTheLease() {
+        // Arrange
+        when(repository.findPendingEvents(any(Pageable.class))).thenReturn(List.of(event(1L, DaprTopic.CONTENT_CHANGED)));
+        when(leaseRepository.findForUpdate(OutboxRelay.LEASE_NAME)).thenReturn(Optional.of(
+                new OutboxRelayLeaseEntity(OutboxRelay.LEASE_NAME, "other-relay", OffsetDateTime.now().plusSeconds(30))));
+
+        // Act
+        final int relayed = relay.relayBatch();
+
+        // Assert
+        assertThat(relayed, is(0));
+        verify(client, never()).publishEvents(any(BulkPublishRequest.class));
+        verify(repository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() {
+        // Arrange
+        final OutboxRelayLeaseEntity lease = new OutboxRelayLeaseEntity(OutboxRelay.LEASE_NAME, "other-relay",
+                OffsetDateTime.now().minusSeconds(1));
+        when(leaseRepository.findForUpdate(OutboxRelay.LEASE_NAME)).thenReturn(Optional.of(lease));
+
+        // Act
+        final boolean acquired = relay.acquireLease();
+
+        // Assert
+        assertThat(acquired, is(true));
+        assertThat(lease.getOwner(), is(not("other-relay")));
+        assertThat(lease.getExpiresAt().isAfter(OffsetDateTime.now()), is(true));
+        verify(leaseRepository).saveAndFlush(lease);
+    }
+
+    @Test
+    void testPublishTimeoutMustBeShorterThanLease() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new OutboxRelay(repository, leaseRepository, client,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 10, Duration.ofSeconds(1),
+                Duration.ofSeconds(10), Duration.ofSeconds(10)));
+    }
+
+    private static OutboxEventEntity event(final Long id, final DaprTopic topic) {
+        return new OutboxEventEntity(id, topic, "{}".getBytes(), OutgoingEvent.JSON_CONTENT_TYPE,
+                Map.of(OutgoingEvent.EVENT_ID_METADATA, String.valueOf(id)), OffsetDateTime.now());
+    }
+}
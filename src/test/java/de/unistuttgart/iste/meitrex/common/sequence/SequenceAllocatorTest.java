@@ -0,0 +1,176 @@
+package de.unistuttgart.iste.meitrex.common.sequence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SequenceAllocatorTest {
+
+    private final Map<String, AtomicLong> highWaterMarks = new ConcurrentHashMap<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+    private final HighWaterMarkStore store = (key, blockSize) -> {
+        reservations.incrementAndGet();
+        return highWaterMarks.computeIfAbsent(key, ignored -> new AtomicLong()).getAndAdd(blockSize);
+    };
+
+    @Test
+    void testNumbersAreHandedOutFromReservedBlocks() {
+        // Arrange
+        final SequenceAllocator allocator = new SequenceAllocator(store, 10);
+
+        // Act
+        final List<Long> numbers = LongStream.range(0, 25).mapToObj(i -> allocator.next("user")).toList();
+
+        // Assert
+        assertThat(numbers, is(LongStream.rangeClosed(1, 25).boxed().toList()));
+        assertThat(reservations.get(), is(3));
+    }
+
+    @Test
+    void testKeysHaveIndependentSequences() {
+        // Arrange
+        final SequenceAllocator allocator = new SequenceAllocator(store, 10);
+        final UUID firstUser = UUID.randomUUID();
+        final UUID secondUser = UUID.randomUUID();
+
+        // Act
+        allocator.next(firstUser);
+        allocator.next(firstUser);
+
+        // Assert
+        assertThat(allocator.next(secondUser), is(1L));
+        assertThat(allocator.next(firstUser), is(3L));
+    }
+
+    @Test
+    void testLeastRecentlyUsedKeyIsEvicted() {
+        // Arrange
+        final SequenceAllocator allocator = new SequenceAllocator(store, 10, 2);
+        allocator.next("first");
+        allocator.next("second");
+        allocator.next("first");
+
+        // Act
+        allocator.next("third");
+
+        // Assert
+        assertThat(allocator.next("first"), is(3L));
+        // the block of the second key was evicted, its remaining numbers are skipped
+        assertThat(allocator.next("second"), is(11L));
+        assertThat(reservations.get(), is(4));
+    }
+
+    @Test
+    void testSequenceContinuesAfterRestart() {
+        // Arrange
+        final SequenceAllocator beforeRestart = new SequenceAllocator(store, 10);
+        final long lastBeforeRestart = beforeRestart.next("user");
+
+        // Act
+        final long firstAfterRestart = new SequenceAllocator(store, 10).next("user");
+
+        // Assert
+        assertThat(firstAfterRestart, is(greaterThan(lastBeforeRestart)));
+        assertThat(firstAfterRestart, is(11L));
+    }
+
+    @Test
+    void testConcurrentCallsReturnUniqueNumbers() throws Exception {
+        // Arrange
+        final SequenceAllocator allocator = new SequenceAllocator(store, 7);
+        final Set<Long> numbers = ConcurrentHashMap.newKeySet();
+
+        // Act
+        try (final ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            final List<Future<?>> futures = IntStream.range(0, 8)
+                    .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                        long previous = 0;
+                        for (int j = 0; j < 1000; j++) {
+                            final long number = allocator.next("user");
+                            // numbers must increase within each thread
+                            assertThat(number, is(greaterThan(previous)));
+                            previous = number;
+                            numbers.add(number);
+                        }
+                    }))
+                    .toList();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        // Assert
+        assertThat(numbers, hasSize(8000));
+    }
+
+    @Test
+    void testNumbersIncreasePerKeyWhileKeysAreEvicted() throws Exception {
+        // Arrange
+        final SequenceAllocator allocator = new SequenceAllocator(store, 5, 2);
+        final List<String> keys = List.of("first", "second", "third", "fourth");
+        final Map<String, AtomicLong> highestReturned = new ConcurrentHashMap<>();
+        final Set<String> numbers = ConcurrentHashMap.newKeySet();
+        keys.forEach(key -> highestReturned.put(key, new AtomicLong()));
+
+        // Act
+        try (final ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            final List<Future<?>> futures = IntStream.range(0, 8)
+                    .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                        for (int j = 0; j < 2000; j++) {
+                            final String key = keys.get((i + j) % keys.size());
+                            final long highestBefore = highestReturned.get(key).get();
+                            final long number = allocator.next(key);
+                            // a number must be greater than all numbers of the key returned before the call
+                            assertThat(number, is(greaterThan(highestBefore)));
+                            highestReturned.get(key).accumulateAndGet(number, Math::max);
+                            numbers.add(key + ":" + number);
+                        }
+                    }))
+                    .toList();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        // Assert
+        assertThat(numbers, hasSize(16000));
+    }
+
+    @Test
+    void testJpaStoreRaisesHighWaterMark() {
+        // Arrange
+        final SequenceHighWaterMarkRepository repository = mock(SequenceHighWaterMarkRepository.class);
+        final SequenceHighWaterMarkEntity entity = new SequenceHighWaterMarkEntity("user", 100);
+        when(repository.findForUpdate("user")).thenReturn(Optional.of(entity));
+        final JpaHighWaterMarkStore jpaStore = new JpaHighWaterMarkStore(repository,
+                new TransactionTemplate(
+                mock(PlatformTransactionManager.class)));
+
+        // Act
+        final long reserved = jpaStore.reserve("user", 50);
+
+        // Assert
+        assertThat(reserved, is(100L));
+        assertThat(entity.getHighWaterMark(), is(150L));
+        verify(repository).saveAndFlush(any());
+    }
+}
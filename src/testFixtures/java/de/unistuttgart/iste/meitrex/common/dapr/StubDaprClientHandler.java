@@ -0,0 +1,162 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishEntry;
+import io.dapr.client.domain.BulkPublishRequest;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import io.dapr.client.domain.PublishEventRequest;
+import io.dapr.exceptions.DaprException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Implements the publishing methods of {@link DaprClient} and {@link DaprPreviewClient} with HTTP requests
+ * to a {@link StubDaprSidecar}. All other methods throw an {@link UnsupportedOperationException}.
+ */
+final class StubDaprClientHandler implements InvocationHandler {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final String endpoint;
+
+    private StubDaprClientHandler(final String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    static DaprClient createClient(final String endpoint) {
+        return (DaprClient) Proxy.newProxyInstance(DaprClient.class.getClassLoader(),
+                new Class<?>[]{DaprClient.class}, new StubDaprClientHandler(endpoint));
+    }
+
+    static DaprPreviewClient createPreviewClient(final String endpoint) {
+        return (DaprPreviewClient) Proxy.newProxyInstance(DaprPreviewClient.class.getClassLoader(),
+                new Class<?>[]{DaprPreviewClient.class}, new StubDaprClientHandler(endpoint));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws IOException {
+        return switch (method.getName()) {
+            case "publishEvent" when args.length == 1 && args[0] instanceof PublishEventRequest request ->
+                    publishEvent(request);
+            case "publishEvents" when args.length == 1 && args[0] instanceof BulkPublishRequest<?> request ->
+                    publishEvents(request);
+            case "waitForSidecar" -> waitForSidecar((Integer) args[0]);
+            case "shutdown" -> Mono.empty();
+            case "close" -> null;
+            case "toString" -> "StubDaprClient[" + endpoint + "]";
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method.getName() + " is not supported by the stub");
+        };
+    }
+
+    private Mono<Void> publishEvent(final PublishEventRequest request) {
+        final String metadata = request.getMetadata() == null ? "" : request.getMetadata().entrySet().stream()
+                .map(entry -> "metadata." + encode(entry.getKey()) + "=" + encode(entry.getValue()))
+                .collect(Collectors.joining("&", "?", ""));
+        final HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(endpoint + "/v1.0/publish/"
+                        + request.getPubsubName() + "/" + request.getTopic() + metadata))
+                .header("Content-Type", request.getContentType())
+                .POST(HttpRequest.BodyPublishers.ofByteArray((byte[]) request.getData()))
+                .build();
+        return Mono.fromFuture(() -> httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString()))
+                .flatMap(response -> isSuccessful(response)
+                        ? Mono.empty()
+                        : Mono.error(new DaprException("ERR_PUBSUB_PUBLISH_MESSAGE", response.body())));
+    }
+
+    private <T> Mono<BulkPublishResponse<T>> publishEvents(final BulkPublishRequest<T> request) throws IOException {
+        final ArrayNode body = mapper.createArrayNode();
+        final Map<String, BulkPublishEntry<T>> entries = new HashMap<>();
+        for (final BulkPublishEntry<T> entry : request.getEntries()) {
+            entries.put(entry.getEntryID(), entry);
+            final ObjectNode node = body.addObject()
+                    .put("entryId", entry.getEntryID())
+                    .put("contentType", entry.getContentType());
+            node.set("event", toJson(entry.getEvent(), entry.getContentType()));
+            node.set("metadata", mapper.valueToTree(entry.getMetadata() == null ? Map.of() : entry.getMetadata()));
+        }
+        final HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(endpoint + "/v1.0-alpha1/publish/bulk/"
+                        + request.getPubsubName() + "/" + request.getTopic()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                .build();
+        return Mono.fromFuture(() -> httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray()))
+                .flatMap(response -> {
+                    final JsonNode failedEntries = readFailedEntries(response.body());
+                    if (!isSuccessful(response) && failedEntries.isEmpty()) {
+                        return Mono.error(new DaprException("ERR_PUBSUB_PUBLISH_MESSAGE",
+                                new String(response.body(), StandardCharsets.UTF_8)));
+                    }
+                    final List<BulkPublishResponseFailedEntry<T>> failed = new ArrayList<>(failedEntries.size());
+                    for (final JsonNode failedEntry : failedEntries) {
+                        failed.add(new BulkPublishResponseFailedEntry<>(
+                                entries.get(failedEntry.path("entryId").asText()),
+                                failedEntry.path("error").asText()));
+                    }
+                    return Mono.just(new BulkPublishResponse<>(failed));
+                });
+    }
+
+    private Mono<Void> waitForSidecar(final int timeoutInMilliseconds) {
+        final HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(endpoint + "/v1.0/healthz/outbound"))
+                .timeout(Duration.ofMillis(timeoutInMilliseconds))
+                .GET()
+                .build();
+        return Mono.fromFuture(() -> httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding()))
+                .flatMap(response -> isSuccessful(response)
+                        ? Mono.empty()
+                        : Mono.error(new DaprException("ERR_HEALTH_NOT_READY", "Sidecar is not healthy")));
+    }
+
+    private JsonNode toJson(final Object event, final String contentType) throws IOException {
+        if (!(event instanceof byte[] bytes)) {
+            return mapper.valueToTree(event);
+        }
+        if (OutgoingEvent.JSON_CONTENT_TYPE.equals(contentType)) {
+            return mapper.readTree(bytes);
+        }
+        return mapper.getNodeFactory().textNode(Base64.getEncoder().encodeToString(bytes));
+    }
+
+    private JsonNode readFailedEntries(final byte[] body) {
+        try {
+            return body.length == 0 ? mapper.createArrayNode() : mapper.readTree(body).path("failedEntries");
+        } catch (final IOException e) {
+            return mapper.createArrayNode();
+        }
+    }
+
+    private static boolean isSuccessful(final HttpResponse<?> response) {
+        return response.statusCode() / 100 == 2;
+    }
+
+    private static String encode(final String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
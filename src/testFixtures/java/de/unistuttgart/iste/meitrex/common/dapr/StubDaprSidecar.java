@@ -0,0 +1,303 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprPreviewClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the Dapr sidecar, implementing the HTTP endpoints used for publishing:
+ * <ul>
+ *     <li>{@code POST /v1.0/publish/{pubsub}/{topic}}</li>
+ *     <li>{@code POST /v1.0-alpha1/publish/bulk/{pubsub}/{topic}}</li>
+ *     <li>{@code GET /v1.0/healthz} and {@code GET /v1.0/healthz/outbound}</li>
+ * </ul>
+ * The published events are only counted, not delivered to subscribers.
+ * Latency and errors can be injected at any time to test and benchmark the {@link TopicPublisher}
+ * without a real sidecar. Requests are handled on virtual threads.
+ * <p>
+ * The Dapr SDK publishes over gRPC, so a {@link DaprClient} created by the SDK cannot talk to this stub.
+ * Use {@link #createClient()} and {@link #createPreviewClient()} instead, which send the requests of the
+ * dispatchers to the HTTP endpoints of the stub.
+ */
+public class StubDaprSidecar implements AutoCloseable {
+
+    private static final String PUBLISH_PATH = "/v1.0/publish/";
+    private static final String BULK_PUBLISH_PATH = "/v1.0-alpha1/publish/bulk/";
+    private static final String HEALTH_PATH = "/v1.0/healthz";
+    private static final String CLOUD_EVENT_METADATA_PREFIX = "cloudevent.";
+    private static final ObjectMapper CLOUD_EVENT_MAPPER = new ObjectMapper();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder requests = new LongAdder();
+    private final Map<String, LongAdder> publishedEvents = new ConcurrentHashMap<>();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration latencyJitter = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile boolean unavailable;
+
+    /**
+     * Starts the stub on a free port of the loopback interface.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    public StubDaprSidecar() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext(PUBLISH_PATH, exchange -> handle(exchange, this::publish));
+        server.createContext(BULK_PUBLISH_PATH, exchange -> handle(exchange, this::bulkPublish));
+        server.createContext(HEALTH_PATH, exchange -> handle(exchange, this::health));
+        server.start();
+    }
+
+    /**
+     * @return the base URL of the stub, e.g. {@code http://127.0.0.1:43123}
+     */
+    public String getHttpEndpoint() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return a client whose {@code publishEvent} and {@code waitForSidecar} methods use this stub
+     */
+    public DaprClient createClient() {
+        return StubDaprClientHandler.createClient(getHttpEndpoint());
+    }
+
+    /**
+     * @return a client whose {@code publishEvents} method uses the bulk publish endpoint of this stub
+     */
+    public DaprPreviewClient createPreviewClient() {
+        return StubDaprClientHandler.createPreviewClient(getHttpEndpoint());
+    }
+
+    /**
+     * @param latency time every request takes before it is answered
+     */
+    public void setLatency(final Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param latencyJitter maximum random time added to the latency of every request
+     */
+    public void setLatencyJitter(final Duration latencyJitter) {
+        this.latencyJitter = latencyJitter;
+    }
+
+    /**
+     * @param errorRate fraction of publish requests, or of the entries of bulk publish requests, that fail
+     */
+    public void setErrorRate(final double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @param unavailable whether all requests, including health checks, fail as if the broker was down
+     */
+    public void setUnavailable(final boolean unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    /**
+     * @return the number of HTTP requests received
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of events that were accepted
+     */
+    public long getPublishedCount() {
+        return publishedEvents.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * @param topic the topic
+     * @return the number of events that were accepted for the topic
+     */
+    public long getPublishedCount(final DaprTopic topic) {
+        final LongAdder count = publishedEvents.get(topic.getTopic());
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Resets the counters, the latency and the injected errors.
+     */
+    public void reset() {
+        requests.reset();
+        publishedEvents.clear();
+        latency = Duration.ZERO;
+        latencyJitter = Duration.ZERO;
+        errorRate = 0;
+        unavailable = false;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Wraps an event in a cloud event the way the Dapr sidecar delivers it to subscribers:
+     * JSON payloads are embedded in {@code data}, {@value OutgoingEvent#BINARY_CONTENT_TYPE} payloads are embedded
+     * base64-encoded in {@code data_base64} and payloads of any other content type are embedded as string.
+     * Metadata prefixed with {@code cloudevent.} becomes an attribute of the cloud event.
+     *
+     * @param event the event as handed to the sidecar
+     * @return the cloud event
+     * @throws IOException if a JSON payload is not valid JSON
+     */
+    public static ObjectNode toCloudEvent(final OutgoingEvent event) throws IOException {
+        final ObjectNode cloudEvent = CLOUD_EVENT_MAPPER.createObjectNode()
+                .put("specversion", "1.0")
+                .put("source", "stub")
+                .put("type", "com.dapr.event.sent")
+                .put("pubsubname", TopicPublisher.PUBSUB_NAME)
+                .put("topic", event.getTopic().getTopic())
+                .put("datacontenttype", event.getContentType());
+        if (OutgoingEvent.JSON_CONTENT_TYPE.equals(event.getContentType())) {
+            cloudEvent.set("data", CLOUD_EVENT_MAPPER.readTree(event.getPayload()));
+        } else if (OutgoingEvent.BINARY_CONTENT_TYPE.equals(event.getContentType())) {
+            cloudEvent.put("data_base64", event.getPayload());
+        } else {
+            cloudEvent.put("data", new String(event.getPayload(), StandardCharsets.UTF_8));
+        }
+        event.getMetadata().forEach((key, value) -> {
+            if (key.startsWith(CLOUD_EVENT_METADATA_PREFIX)) {
+                cloudEvent.put(key.substring(CLOUD_EVENT_METADATA_PREFIX.length()), value);
+            }
+        });
+        return cloudEvent;
+    }
+
+    private Response publish(final String topic, final byte[] body) {
+        if (fails()) {
+            return error("injected error");
+        }
+        count(topic, 1);
+        return new Response(204, null);
+    }
+
+    private Response bulkPublish(final String topic, final byte[] body) throws IOException {
+        final JsonNode entries = mapper.readTree(body);
+        final ArrayNode failedEntries = mapper.createArrayNode();
+        for (final JsonNode entry : entries) {
+            if (fails()) {
+                failedEntries.addObject()
+                        .put("entryId", entry.path("entryId").asText())
+                        .put("error", "injected error");
+            }
+        }
+        count(topic, entries.size() - failedEntries.size());
+
+        final ObjectNode response = mapper.createObjectNode();
+        response.set("failedEntries", failedEntries);
+        if (failedEntries.isEmpty()) {
+            return new Response(200, mapper.writeValueAsBytes(response));
+        }
+        response.put("errorCode", "ERR_PUBSUB_PUBLISH_MESSAGE");
+        return new Response(500, mapper.writeValueAsBytes(response));
+    }
+
+    private Response health(final String path, final byte[] body) {
+        return new Response(204, null);
+    }
+
+    private boolean fails() {
+        final double rate = errorRate;
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private void count(final String topic, final int events) {
+        publishedEvents.computeIfAbsent(topic, key -> new LongAdder()).add(events);
+    }
+
+    private static Response error(final String message) {
+        return new Response(500, ("{\"errorCode\":\"ERR_PUBSUB_PUBLISH_MESSAGE\",\"message\":\"" + message + "\"}")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void handle(final HttpExchange exchange, final Handler handler) throws IOException {
+        try (exchange) {
+            requests.increment();
+            final byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            sleep();
+
+            Response response;
+            if (unavailable) {
+                response = error("sidecar unavailable");
+            } else {
+                try {
+                    // the last path segment is the topic, it is ignored by the health endpoint
+                    final String path = exchange.getRequestURI().getPath();
+                    response = handler.handle(path.substring(path.lastIndexOf('/') + 1), body);
+                } catch (final IOException e) {
+                    response = new Response(400, null);
+                }
+            }
+            send(exchange, response);
+        }
+    }
+
+    private void sleep() {
+        final long latencyNanos = latency.toNanos();
+        final long jitterNanos = latencyJitter.toNanos();
+        final long delay = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(delay));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(final HttpExchange exchange, final Response response) throws IOException {
+        if (response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), response.body().length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(String topic, byte[] body) throws IOException;
+    }
+
+    private record Response(int status, byte[] body) {
+    }
+}
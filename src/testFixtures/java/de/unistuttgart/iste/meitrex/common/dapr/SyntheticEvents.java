@@ -0,0 +1,197 @@
+package de.unistuttgart.iste.meitrex.common.dapr;
+
+import de.unistuttgart.iste.meitrex.common.event.*;
+import de.unistuttgart.iste.meitrex.common.event.skilllevels.SkillEntityChangedEvent;
+import de.unistuttgart.iste.meitrex.common.event.skilllevels.UserSkillLevelChangedEvent;
+import de.unistuttgart.iste.meitrex.generated.dto.BloomLevel;
+import de.unistuttgart.iste.meitrex.generated.dto.UserRoleInCourse;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Generates random events of the type published to each {@link DaprTopic}, for tests and benchmarks.
+ * <p>
+ * User, course and content ids are drawn from small pools, so the streams contain events of the same user or
+ * content like real traffic does. The generator is not thread-safe, use one instance per thread.
+ */
+public class SyntheticEvents {
+
+    private final Random random;
+    private final UUID[] userIds;
+    private final UUID[] courseIds;
+    private final UUID[] contentIds;
+
+    private int nextTopic;
+
+    /**
+     * @param seed      seed of the random generator, the same seed generates the same events
+     * @param userCount number of distinct users, courses and contents in the generated events
+     */
+    public SyntheticEvents(final long seed, final int userCount) {
+        this.random = new Random(seed);
+        this.userIds = randomIds(userCount);
+        this.courseIds = randomIds(Math.max(1, userCount / 10));
+        this.contentIds = randomIds(userCount);
+    }
+
+    /**
+     * @return an event of the next topic, cycling through all topics
+     */
+    public SyntheticEvent next() {
+        final DaprTopic[] topics = DaprTopic.values();
+        final DaprTopic topic = topics[nextTopic];
+        nextTopic = (nextTopic + 1) % topics.length;
+        return new SyntheticEvent(topic, create(topic));
+    }
+
+    /**
+     * @param topic the topic
+     * @return an infinite stream of events of the topic
+     */
+    public Stream<Object> stream(final DaprTopic topic) {
+        return Stream.generate(() -> create(topic));
+    }
+
+    /**
+     * @param topic the topic
+     * @return a random event of the type published to the topic
+     */
+    public Object create(final DaprTopic topic) {
+        return switch (topic) {
+            case COURSE_CHANGED -> new CourseChangeEvent(course(), operation());
+            case CHAPTER_CHANGED -> new ChapterChangeEvent(ids(contentIds, 3), operation());
+            case CONTENT_PROGRESSED -> ContentProgressedEvent.builder()
+                    .userId(user())
+                    .contentId(content())
+                    .success(random.nextBoolean())
+                    .correctness(random.nextDouble())
+                    .hintsUsed(random.nextInt(3))
+                    .timeToComplete(random.nextInt(600))
+                    .responses(List.of(new Response(UUID.randomUUID(), random.nextFloat())))
+                    .mediaType(MediaType.VIDEO)
+                    .contentType(ContentProgressedEvent.ContentType.QUIZ)
+                    .build();
+            case CONTENT_CHANGED -> new ContentChangeEvent(ids(contentIds, 5), operation());
+            case USER_PROGRESS_UPDATED -> UserProgressUpdatedEvent.builder()
+                    .userId(user())
+                    .contentId(content())
+                    .chapterId(UUID.randomUUID())
+                    .courseId(course())
+                    .attempt(1 + random.nextInt(3))
+                    .success(random.nextBoolean())
+                    .correctness(random.nextDouble())
+                    .hintsUsed(random.nextInt(3))
+                    .timeToComplete(random.nextInt(600))
+                    .responses(List.of(ItemResponse.builder()
+                            .itemId(UUID.randomUUID())
+                            .response(random.nextFloat())
+                            .skillIds(List.of(UUID.randomUUID()))
+                            .levelsOfBloomsTaxonomy(List.of())
+                            .build()))
+                    .mediaType(MediaType.VIDEO)
+                    .build();
+            case MEDIA_RECORD_FILE_CREATED -> new MediaRecordFileCreatedEvent(content());
+            case MEDIA_RECORD_DELETED -> new MediaRecordDeletedEvent(content());
+            case CONTENT_MEDIA_RECORD_LINKS_SET -> new ContentMediaRecordLinksSetEvent(content(), ids(contentIds, 2));
+            case ITEM_CHANGED -> new ItemChangeEvent(UUID.randomUUID(), operation());
+            case ASSESSMENT_CONTENT_MUTATED -> AssessmentContentMutatedEvent.builder()
+                    .courseId(course())
+                    .assessmentId(content())
+                    .assessmentType(AssessmentType.QUIZ)
+                    .taskInformationList(List.of(
+                            new AssessmentContentMutatedEvent.TaskInformation(UUID.randomUUID(), "What is 1 + 1?"),
+                            new AssessmentContentMutatedEvent.TaskInformation(UUID.randomUUID(), "What is 2 + 2?")))
+                    .build();
+            case NOTIFICATION_EVENT -> NotificationEvent.builder()
+                    .courseId(course())
+                    .userIds(ids(userIds, 10))
+                    .serverSource(ServerSource.COURSE)
+                    .title("New chapter available")
+                    .link("/courses")
+                    .message("A new chapter was published in your course.")
+                    .timestamp(OffsetDateTime.now())
+                    .build();
+            case FORUM_ACTIVITY -> new ForumActivityEvent(user(), UUID.randomUUID(), course(),
+                    pick(ForumActivity.values()));
+            case ACHIEVEMENT_COMPLETED -> new AchievementCompletedEvent(course(), user(), UUID.randomUUID());
+            case USER_SKILL_LEVEL_CHANGED -> UserSkillLevelChangedEvent.builder()
+                    .userId(user())
+                    .skillId(content())
+                    .bloomLevel(pick(BloomLevel.values()))
+                    .oldValue(random.nextFloat())
+                    .newValue(random.nextFloat())
+                    .build();
+            case SKILL_ENTITY_CHANGED -> new SkillEntityChangedEvent(content(), "Sorting", "Algorithms", operation());
+            case STAGE_COMPLETED -> new StageCompletedEvent(course(), UUID.randomUUID(), UUID.randomUUID(), user());
+            case CHAPTER_COMPLETED -> new ChapterCompletedEvent(course(), UUID.randomUUID(), user());
+            case COURSE_COMPLETED -> new CourseCompletedEvent(course(), user());
+            case MEDIA_RECORD_INFO -> new MediaRecordInfoEvent(content(), MediaType.VIDEO,
+                    random.nextFloat() * 3600, null);
+            case USER_COURSE_MEMBERSHIP_CHANGED -> new UserCourseMembershipChangedEvent(user(), course(),
+                    UserRoleInCourse.STUDENT, pick(UserRoleInCourse.values()));
+            case MEDIA_RECORD_WORKED_ON -> new MediaRecordWorkedOnEvent(user(), content(), random.nextBoolean());
+            case ASKED_TUTOR_A_QUESTION -> new AskedTutorAQuestionEvent(user(), course(),
+                    "How does quicksort work?", pick(TutorCategory.values()));
+            case SUBMISSION_COMPLETED -> new SubmissionCompletedEvent(user(), UUID.randomUUID());
+            case USER_HEXAD_PLAYER_TYPE_SET -> UserHexadPlayerTypeSetEvent.builder()
+                    .userId(user())
+                    .primaryPlayerType(HexadPlayerType.ACHIEVER)
+                    .playerTypePercentages(Map.of(HexadPlayerType.ACHIEVER, 0.6, HexadPlayerType.PLAYER, 0.4))
+                    .build();
+            case REQUEST_HEXAD_PLAYER_TYPE -> new RequestHexadPlayerTypeEvent(user());
+            case REQUEST_USER_SKILL_LEVEL -> new RequestUserSkillLevelEvent(user());
+            case STUDENT_CODE_SUBMITTED -> StudentCodeSubmittedEvent.builder()
+                    .studentId(user())
+                    .assignmentId(content())
+                    .courseId(course())
+                    .repositoryUrl("https://github.com/meitrex/assignment")
+                    .commitSha("3f786850e387550fdab836ed7e6dc881de23001b")
+                    .commitTimestamp(OffsetDateTime.now())
+                    .files(Map.of("src/Main.java", "public class Main {\n    public static void main(String[] args) {}\n}\n"))
+                    .branch("main")
+                    .build();
+        };
+    }
+
+    private UUID user() {
+        return pick(userIds);
+    }
+
+    private UUID course() {
+        return pick(courseIds);
+    }
+
+    private UUID content() {
+        return pick(contentIds);
+    }
+
+    private CrudOperation operation() {
+        return pick(CrudOperation.values());
+    }
+
+    private List<UUID> ids(final UUID[] pool, final int count) {
+        return Stream.generate(() -> pick(pool)).limit(count).toList();
+    }
+
+    private <T> T pick(final T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static UUID[] randomIds(final int count) {
+        return Stream.generate(UUID::randomUUID).limit(count).toArray(UUID[]::new);
+    }
+
+    /**
+     * A generated event and the topic it is published to.
+     *
+     * @param topic the topic
+     * @param event the event
+     */
+    public record SyntheticEvent(DaprTopic topic, Object event) {
+    }
+}